@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.archive;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugins.assembly.InvalidAssemblerConfigurationException;
+import org.apache.maven.plugins.assembly.format.AssemblyFormattingException;
+import org.apache.maven.plugins.assembly.interpolation.InterpolationContext;
+import org.apache.maven.plugins.assembly.model.Assembly;
+import org.apache.maven.plugins.assembly.model.FileSet;
+import org.apache.maven.plugins.assembly.mojos.AbstractAssemblyMojo;
+import org.apache.maven.plugins.assembly.testutils.PojoConfigSource;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.filtering.MavenReaderFilter;
+import org.codehaus.plexus.DefaultContainerConfiguration;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.PlexusContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the creation of an assembly archive from a file-set of a synthetic tree, with the assembly archiver and
+ * phases wired by the container as in a build.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CreateArchiveBenchmark {
+    @Param({"10000"})
+    private int files;
+
+    @Param({"zip", "tar.gz", "dir"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean filtered;
+
+    private File root;
+
+    private PlexusContainer container;
+
+    private AssemblyArchiver archiver;
+
+    private PojoConfigSource configSource;
+
+    private Assembly assembly;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("assembly-benchmark").toFile();
+
+        final File tree = new File(root, "tree");
+        for (int i = 0; i < files; i++) {
+            final File file = new File(tree, "dir" + (i / 100) + "/file" + i + ".txt");
+            file.getParentFile().mkdirs();
+            final StringBuilder content = new StringBuilder();
+            for (int line = 0; line < 20; line++) {
+                content.append("line ").append(line).append(" of file ").append(i);
+                content.append(line == 10 ? " version ${project.version}\n" : "\n");
+            }
+            Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        container = new DefaultPlexusContainer(new DefaultContainerConfiguration()
+                .setClassPathScanning(PlexusConstants.SCANNING_INDEX)
+                .setAutoWiring(true));
+        archiver = container.lookup(AssemblyArchiver.class);
+
+        final Model model = new Model();
+        model.setGroupId("org.example");
+        model.setArtifactId("benchmark");
+        model.setVersion("1.0");
+        final MavenProject project = new MavenProject(model);
+        project.setFile(new File(root, "pom.xml"));
+
+        configSource = new PojoConfigSource();
+        configSource.setMavenProject(project);
+        configSource.setBasedir(root);
+        configSource.setFinalName("benchmark-1.0");
+        configSource.setEncoding("UTF-8");
+        configSource.setTarLongFileMode("warn");
+        configSource.setMainProjectInterpolator(AbstractAssemblyMojo.mainProjectInterpolator(project));
+        configSource.setInterpolationContext(new InterpolationContext(configSource));
+        configSource.setMavenReaderFilter(container.lookup(MavenReaderFilter.class));
+        configSource.setTemporaryRootDirectory(new File(root, "temp"));
+        configSource.setWorkingDirectory(new File(root, "work"));
+        configSource.setOutputDirectory(new File(root, "out"));
+
+        final FileSet fileSet = new FileSet();
+        fileSet.setDirectory(tree.getAbsolutePath());
+        fileSet.setOutputDirectory("files");
+        fileSet.setFiltered(filtered);
+
+        assembly = new Assembly();
+        assembly.setId("bin");
+        assembly.setFileSets(Collections.singletonList(fileSet));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        container.dispose();
+        FileUtils.deleteDirectory(root);
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteArchive() throws IOException {
+        FileUtils.deleteDirectory(configSource.getOutputDirectory());
+        FileUtils.deleteDirectory(configSource.getWorkingDirectory());
+    }
+
+    @Benchmark
+    public File createArchive()
+            throws ArchiveCreationException, AssemblyFormattingException, InvalidAssemblerConfigurationException {
+        return archiver.createArchive(assembly, "benchmark-1.0-bin", format, configSource, null);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.filter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.plexus.components.io.fileselectors.FileInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the aggregation of <code>META-INF/services</code> files, as done for a jar-with-dependencies of many
+ * dependencies registering the same services.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineAggregatingHandlerBenchmark {
+    /**
+     * Number of dependencies providing the service files.
+     */
+    @Param({"500"})
+    private int dependencies;
+
+    /**
+     * Number of service files in each dependency.
+     */
+    @Param({"10"})
+    private int servicesPerDependency;
+
+    private final List<FileInfo> files = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        for (int dependency = 0; dependency < dependencies; dependency++) {
+            for (int service = 0; service < servicesPerDependency; service++) {
+                final StringBuilder content = new StringBuilder("# providers of dependency " + dependency + "\n");
+                for (int provider = 0; provider < 5; provider++) {
+                    content.append("org.example.dependency")
+                            .append(dependency % 50)
+                            .append(".Provider")
+                            .append(provider)
+                            .append('\n');
+                }
+                files.add(new ServiceFile(
+                        "META-INF/services/org.example.Service" + service,
+                        content.toString().getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+    }
+
+    @Benchmark
+    public int aggregate() throws IOException {
+        final MetaInfServicesHandler handler = new MetaInfServicesHandler();
+        for (FileInfo file : files) {
+            handler.isSelected(file);
+        }
+        return handler.createResources().size();
+    }
+
+    private static final class ServiceFile implements FileInfo {
+        private final String name;
+
+        private final byte[] content;
+
+        ServiceFile(final String name, final byte[] content) {
+            this.name = name;
+            this.content = content;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public InputStream getContents() {
+            return new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public boolean isFile() {
+            return true;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return false;
+        }
+
+        @Override
+        public boolean isSymbolicLink() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.format;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugins.assembly.testutils.PojoConfigSource;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.filtering.DefaultMavenReaderFilter;
+import org.apache.maven.shared.filtering.MavenFilteringException;
+import org.apache.maven.shared.filtering.MavenReaderFilterRequest;
+import org.codehaus.plexus.archiver.resources.PlexusIoVirtualFileResource;
+import org.codehaus.plexus.components.io.functions.InputStreamTransformer;
+import org.codehaus.plexus.components.io.resources.PlexusIoResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of filtering one small file of a filtered file-set: with the filter wrappers shared by the
+ * file-set, and with a filter request per file as the transformers used to do. Also measures filtering a large file
+ * with few tokens, against copying it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReaderFormatterBenchmark {
+    /**
+     * Number of properties in the filter file of the assembly.
+     */
+    @Param({"10", "1000"})
+    private int filterProperties;
+
+    private final byte[] content = ("name=${project.artifactId}\nversion=${project.version}\n"
+                    + "description=a configuration file with a few tokens, like most of them\n")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private byte[] largeContent;
+
+    private final PlexusIoResource resource = new PlexusIoVirtualFileResource(new File("app.conf"), "app.conf") {};
+
+    private File filterFile;
+
+    private PojoConfigSource configSource;
+
+    private InputStreamTransformer transformer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        filterFile = File.createTempFile("filter", ".properties");
+        try (Writer writer = Files.newBufferedWriter(filterFile.toPath(), StandardCharsets.ISO_8859_1)) {
+            for (int i = 0; i < filterProperties; i++) {
+                writer.write("property." + i + "=value " + i + "\n");
+            }
+        }
+
+        final Model model = new Model();
+        model.setGroupId("group");
+        model.setArtifactId("artifact");
+        model.setVersion("1.0");
+
+        configSource = new PojoConfigSource();
+        configSource.setEncoding("UTF-8");
+        configSource.setMavenReaderFilter(new DefaultMavenReaderFilter());
+        configSource.setMavenProject(new MavenProject(model));
+        configSource.setFilters(Collections.singletonList(filterFile.getAbsolutePath()));
+
+        transformer = ReaderFormatter.getFileSetTransformers(configSource, true, Collections.emptySet(), "keep");
+
+        final StringBuilder large = new StringBuilder();
+        for (int line = 0; large.length() < 1024 * 1024; line++) {
+            large.append("line ").append(line).append(" of a large file");
+            large.append(line % 1000 == 0 ? " with the version ${project.version}\n" : "\n");
+        }
+        largeContent = large.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(filterFile.toPath());
+    }
+
+    @Benchmark
+    public byte[] sharedFilterWrappers() throws IOException {
+        try (InputStream in = transformer.transform(resource, new ByteArrayInputStream(content))) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    @Benchmark
+    public String filterRequestPerFile() throws IOException, MavenFilteringException {
+        final MavenReaderFilterRequest request = new MavenReaderFilterRequest(
+                new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8),
+                true,
+                configSource.getProject(),
+                configSource.getFilters(),
+                false,
+                configSource.getMavenSession(),
+                configSource.getAdditionalProperties());
+        request.setDelimiters(request.getDelimiters());
+        try (Reader reader = configSource.getMavenReaderFilter().filter(request)) {
+            return IOUtils.toString(reader);
+        }
+    }
+
+    @Benchmark
+    public byte[] largeFileWithFewTokens() throws IOException {
+        try (InputStream in = transformer.transform(resource, new ByteArrayInputStream(largeContent))) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    @Benchmark
+    public byte[] largeFileCopy() throws IOException {
+        try (InputStream in = new ByteArrayInputStream(largeContent)) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+}
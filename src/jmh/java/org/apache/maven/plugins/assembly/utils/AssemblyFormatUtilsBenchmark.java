@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugins.assembly.format.AssemblyFormattingException;
+import org.apache.maven.plugins.assembly.mojos.AbstractAssemblyMojo;
+import org.apache.maven.plugins.assembly.testutils.PojoConfigSource;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.interpolation.fixed.FixedStringSearchInterpolator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the evaluation of the output file name mapping and of the output directory of a single artifact, which
+ * happens once for every dependency and module added to an assembly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssemblyFormatUtilsBenchmark {
+    private static final String FILE_NAME_MAPPING =
+            "${artifact.artifactId}-${artifact.version}${dashClassifier?}.${artifact.extension}";
+
+    private static final String OUTPUT_DIRECTORY = "${project.groupId}/lib/${module.artifactId}/${artifact.groupId}";
+
+    private Artifact artifact;
+
+    private MavenProject mainProject;
+
+    private MavenProject artifactProject;
+
+    private PojoConfigSource configSource;
+
+    @Setup
+    public void setUp() {
+        mainProject = project("org.example", "main", "1.0");
+        artifactProject = project("org.example.deps", "dependency", "2.1");
+
+        artifact = new DefaultArtifact(
+                "org.example.deps", "dependency", "2.1", "runtime", "jar", "tests", new DefaultArtifactHandler("jar"));
+
+        configSource = new PojoConfigSource();
+        configSource.setMavenProject(mainProject);
+        configSource.setFinalName("main-1.0");
+        configSource.setMainProjectInterpolator(AbstractAssemblyMojo.mainProjectInterpolator(mainProject));
+    }
+
+    @Benchmark
+    public String evaluateFileNameMapping() {
+        return AssemblyFormatUtils.evaluateFileNameMapping(
+                FILE_NAME_MAPPING,
+                artifact,
+                mainProject,
+                null,
+                configSource,
+                AssemblyFormatUtils.moduleProjectInterpolator(null),
+                AssemblyFormatUtils.artifactProjectInterpolator(artifactProject));
+    }
+
+    @Benchmark
+    public String getOutputDirectory() throws AssemblyFormattingException {
+        final FixedStringSearchInterpolator moduleProjectInterpolator =
+                AssemblyFormatUtils.moduleProjectInterpolator(mainProject);
+        return AssemblyFormatUtils.getOutputDirectory(
+                OUTPUT_DIRECTORY,
+                configSource.getFinalName(),
+                configSource,
+                moduleProjectInterpolator,
+                AssemblyFormatUtils.artifactProjectInterpolator(artifactProject));
+    }
+
+    private static MavenProject project(final String groupId, final String artifactId, final String version) {
+        final Model model = new Model();
+        model.setGroupId(groupId);
+        model.setArtifactId(artifactId);
+        model.setVersion(version);
+        model.setPackaging("jar");
+        return new MavenProject(model);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.plugins.assembly.InvalidAssemblerConfigurationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.helpers.NOPLogger;
+
+/**
+ * Measures the include and exclude filtering of the artifacts of a dependency set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterUtilsBenchmark {
+    private static final Logger LOGGER = NOPLogger.NOP_LOGGER;
+
+    @Param({"5000"})
+    private int artifactCount;
+
+    @Param({"false", "true"})
+    private boolean actTransitively;
+
+    private final List<String> includes = Arrays.asList("org.example.group1*:*", "*:artifact-*:jar", "*:*:war:*");
+
+    private final List<String> excludes = Arrays.asList("org.example.group3:*", "*:artifact-99*", "*:*:*:tests");
+
+    private Set<Artifact> artifacts;
+
+    @Setup
+    public void setUp() {
+        artifacts = new LinkedHashSet<>();
+        for (int i = 0; i < artifactCount; i++) {
+            final Artifact artifact = new DefaultArtifact(
+                    "org.example.group" + (i % 50),
+                    "artifact-" + i,
+                    "1." + i,
+                    "runtime",
+                    i % 10 == 0 ? "war" : "jar",
+                    i % 7 == 0 ? "tests" : null,
+                    new DefaultArtifactHandler("jar"));
+
+            // a dependency trail through a few other artifacts, as resolved transitive dependencies have
+            final List<String> trail = new ArrayList<>();
+            trail.add("org.example:project:jar:1.0");
+            for (int depth = 1; depth <= i % 4; depth++) {
+                trail.add("org.example.group" + ((i + depth) % 50) + ":artifact-" + (i + depth) + ":jar:1.0");
+            }
+            trail.add(artifact.getId());
+            artifact.setDependencyTrail(Collections.unmodifiableList(trail));
+
+            artifacts.add(artifact);
+        }
+    }
+
+    @Benchmark
+    public Set<Artifact> filterArtifacts() throws InvalidAssemblerConfigurationException {
+        final Set<Artifact> filtered = new LinkedHashSet<>(artifacts);
+        FilterUtils.filterArtifacts(filtered, includes, excludes, false, actTransitively, LOGGER);
+        return filtered;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the buffer based line ending streams with the byte at a time implementation they replaced, on a few MB of
+ * text with mixed line endings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineFeedInputStreamBenchmark {
+    @Param({"4"})
+    private int megabytes;
+
+    private byte[] text;
+
+    private final byte[] buffer = new byte[8192];
+
+    @Setup
+    public void setUp() {
+        final StringBuilder content = new StringBuilder();
+        final String[] lineEndings = {"\n", "\r\n", "\n", "\r"};
+        for (int i = 0; content.length() < megabytes * 1024 * 1024; i++) {
+            content.append("export VARIABLE_").append(i).append("=\"some value of a shell script\"");
+            content.append(lineEndings[i % lineEndings.length]);
+        }
+        text = content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public long linuxByteAtATime() throws IOException {
+        return consume(new ByteAtATimeLinuxLineFeedInputStream(new ByteArrayInputStream(text)));
+    }
+
+    @Benchmark
+    public long linuxBuffered() throws IOException {
+        return consume(new LinuxLineFeedInputStream(new ByteArrayInputStream(text), false));
+    }
+
+    @Benchmark
+    public long windowsByteAtATime() throws IOException {
+        return consume(new ByteAtATimeWindowsLineFeedInputStream(new ByteArrayInputStream(text)));
+    }
+
+    @Benchmark
+    public long windowsBuffered() throws IOException {
+        return consume(new WindowsLineFeedInputStream(new ByteArrayInputStream(text), false));
+    }
+
+    private long consume(final InputStream in) throws IOException {
+        long total = 0;
+        try (InputStream stream = in) {
+            for (int n = stream.read(buffer); n != -1; n = stream.read(buffer)) {
+                total += n;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * The previous {@link LinuxLineFeedInputStream}, without the end of file handling.
+     */
+    private static final class ByteAtATimeLinuxLineFeedInputStream extends InputStream {
+        private final InputStream target;
+
+        private boolean slashNSeen;
+
+        private boolean slashRSeen;
+
+        ByteAtATimeLinuxLineFeedInputStream(final InputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final boolean prevWasSlashR = slashRSeen;
+            final int current = target.read();
+            if (current == -1) {
+                return -1;
+            }
+            slashNSeen = current == '\n';
+            slashRSeen = current == '\r';
+            if (slashRSeen) {
+                return '\n';
+            }
+            if (prevWasSlashR && slashNSeen) {
+                return read();
+            }
+            return current;
+        }
+    }
+
+    /**
+     * The previous {@link WindowsLineFeedInputStream}, without the end of file handling.
+     */
+    private static final class ByteAtATimeWindowsLineFeedInputStream extends InputStream {
+        private static final int NO_PENDING_BYTE = -2;
+
+        private final InputStream target;
+
+        private boolean injectSlashN;
+
+        private int pendingByte = NO_PENDING_BYTE;
+
+        ByteAtATimeWindowsLineFeedInputStream(final InputStream target) {
+            this.target = target;
+        }
+
+        private int readTarget() throws IOException {
+            if (pendingByte != NO_PENDING_BYTE) {
+                final int result = pendingByte;
+                pendingByte = NO_PENDING_BYTE;
+                return result;
+            }
+            return target.read();
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (injectSlashN) {
+                injectSlashN = false;
+                return '\n';
+            }
+            final int current = readTarget();
+            if (current == '\r') {
+                final int next = readTarget();
+                if (next != '\n' && next != -1) {
+                    pendingByte = next;
+                }
+                injectSlashN = true;
+                return '\r';
+            }
+            if (current == '\n') {
+                injectSlashN = true;
+                return '\r';
+            }
+            return current;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.util.Properties;
 
 import org.apache.maven.archiver.MavenArchiveConfiguration;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugins.assembly.interpolation.InterpolationContext;
 import org.apache.maven.plugins.assembly.model.Assembly;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.filtering.MavenReaderFilter;
@@ -229,4 +230,44 @@ public interface AssemblerConfigurationSource {
      * @return the merge manifest mode in the JarArchiver
      */
     String getMergeManifestMode();
+
+    /**
+     * @return The number of threads used to build the projects of dependency artifacts.
+     */
+    int getProjectBuildingThreads();
+
+    /**
+     * @return The number of threads used to create the archives of the assemblies.
+     */
+    int getAssemblyThreads();
+
+    /**
+     * @return The number of threads used to compress the tar formats.
+     */
+    int getTarCompressionThreads();
+
+    /**
+     * @return The number of threads used to resolve the dependencies of the modules of module sets.
+     */
+    int getResolutionThreads();
+
+    /**
+     * @return Whether archives are only created again when their inputs changed.
+     */
+    boolean isIncremental();
+
+    /**
+     * @return Whether the compressed entries of the previous zip archive are reused for unchanged entries.
+     */
+    boolean isReuseUnchangedZipEntries();
+
+    /**
+     * @return Whether the compressed entries of unpacked zip archives are reused for the entries added unchanged.
+     */
+    boolean isReuseUnpackedZipEntries();
+
+    /**
+     * @return The interpolator layers shared by the archives of this run, or {@code null} to build them on each use.
+     */
+    InterpolationContext getInterpolationContext();
 }
@@ -20,6 +20,8 @@ package org.apache.maven.plugins.assembly.archive;
 
 import java.io.File;
 import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
 import org.apache.maven.plugins.assembly.InvalidAssemblerConfigurationException;
@@ -63,4 +65,34 @@ public interface AssemblyArchiver {
             AssemblerConfigurationSource configSource,
             FileTime sourceDateEpoch)
             throws ArchiveCreationException, AssemblyFormattingException, InvalidAssemblerConfigurationException;
+
+    /**
+     * Create the assembly archive in each of the given formats. The default implementation calls
+     * {@link #createArchive(Assembly, String, String, AssemblerConfigurationSource, FileTime)} once per format;
+     * implementations may instead collect the archive contents once and share them between the formats.
+     *
+     * @param assembly              The {@link Assembly}
+     * @param fullName              The full name.
+     * @param formats               The formats, in the order the archives should be created.
+     * @param configSource          The {@link org.apache.maven.plugins.assembly.AssemblerConfigurationSource}
+     * @param sourceDateEpoch       Timestamp for reproducible archive entries
+     * @return The resulting archive files, in the order of the formats.
+     * @throws ArchiveCreationException                                                 when creation fails
+     * @throws org.apache.maven.plugins.assembly.format.AssemblyFormattingException     when formatting fails
+     * @throws org.apache.maven.plugins.assembly.InvalidAssemblerConfigurationException when the configuration is bad
+     * @since 3.8.1
+     */
+    default List<File> createArchives(
+            Assembly assembly,
+            String fullName,
+            List<String> formats,
+            AssemblerConfigurationSource configSource,
+            FileTime sourceDateEpoch)
+            throws ArchiveCreationException, AssemblyFormattingException, InvalidAssemblerConfigurationException {
+        final List<File> destFiles = new ArrayList<>(formats.size());
+        for (final String format : formats) {
+            destFiles.add(createArchive(assembly, fullName, format, configSource, sourceDateEpoch));
+        }
+        return destFiles;
+    }
 }
@@ -0,0 +1,498 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.archive;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.maven.archiver.MavenArchiveConfiguration;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
+import org.apache.maven.plugins.assembly.model.Assembly;
+import org.apache.maven.plugins.assembly.model.DependencySet;
+import org.apache.maven.plugins.assembly.model.FileItem;
+import org.apache.maven.plugins.assembly.model.ModuleSet;
+import org.apache.maven.plugins.assembly.model.UnpackOptions;
+import org.apache.maven.plugins.assembly.model.io.xpp3.AssemblyXpp3Writer;
+import org.apache.maven.plugins.assembly.utils.AssemblyFileUtils;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.archiver.FileSet;
+import org.codehaus.plexus.archiver.util.DefaultFileSet;
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.cli.CommandLineUtils;
+
+/**
+ * The inputs of one assembly archive, stored under the working directory to skip the creation of the archive when
+ * none of them changed. The manifest holds a digest of the configuration (effective descriptor, format, plugin
+ * parameters, project and user properties, the system properties and environment variables the descriptor, filters and
+ * filtered files refer to, dependencies and reactor), the size, modification time
+ * and permissions of every file the archive was built from, a digest of the content listing of every file set it was
+ * built from, and the state of the archive itself. Listings honor the includes, excludes and default excludes of their
+ * file set and leave out the archives of the assembly and their manifests, which the build itself writes.
+ */
+final class AssemblyInputsManifest {
+    private static final String HEADER = "# assembly inputs";
+
+    private static final String CONFIGURATION = "configuration\t";
+
+    private static final String FILE = "file\t";
+
+    private static final String DIRECTORY = "directory\t";
+
+    private static final String OUTPUT = "output\t";
+
+    private static final Pattern WORD = Pattern.compile("[\\w.-]+");
+
+    private AssemblyInputsManifest() {}
+
+    /**
+     * @return the manifest file of the given archive.
+     */
+    static File manifestFile(final AssemblerConfigurationSource configSource, final File destFile) {
+        return new File(configSource.getWorkingDirectory(), destFile.getName() + ".inputs");
+    }
+
+    /**
+     * @return the archives of an assembly and their manifests, which are left out of the listings.
+     */
+    static List<File> outputFiles(final AssemblerConfigurationSource configSource, final List<File> destFiles) {
+        final List<File> outputs = new ArrayList<>(destFiles);
+        for (File destFile : destFiles) {
+            outputs.add(manifestFile(configSource, destFile));
+        }
+        return outputs;
+    }
+
+    /**
+     * @return whether the given archive exists and none of the inputs recorded in its manifest changed.
+     */
+    static boolean isUpToDate(
+            final File manifestFile, final String configuration, final File destFile, final Collection<File> outputs)
+            throws IOException {
+        if (!manifestFile.isFile() || !destFile.exists()) {
+            return false;
+        }
+
+        final List<String> recorded = Files.readAllLines(manifestFile.toPath(), StandardCharsets.UTF_8);
+        final List<File> files = new ArrayList<>();
+        final List<FileSet> fileSets = new ArrayList<>();
+        for (String line : recorded) {
+            if (line.startsWith(FILE)) {
+                files.add(new File(pathOf(line.substring(FILE.length()))));
+            } else if (line.startsWith(DIRECTORY)) {
+                fileSets.add(fileSetOf(line.substring(DIRECTORY.length())));
+            }
+        }
+
+        return recorded.equals(lines(configuration, files, fileSets, destFile, outputs));
+    }
+
+    /**
+     * Writes the manifest of an archive that was just created.
+     */
+    static void write(
+            final File manifestFile,
+            final String configuration,
+            final Collection<File> files,
+            final Collection<FileSet> fileSets,
+            final File destFile,
+            final Collection<File> outputs)
+            throws IOException {
+        AssemblyFileUtils.verifyTempDirectoryAvailability(manifestFile.getParentFile());
+        Files.write(
+                manifestFile.toPath(),
+                lines(configuration, files, fileSets, destFile, outputs),
+                StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Describes everything besides the added files that determines the content of the archive.
+     */
+    static String configuration(
+            final Assembly assembly,
+            final String format,
+            final AssemblerConfigurationSource configSource,
+            final FileTime outputTimestamp)
+            throws IOException {
+        final StringWriter descriptor = new StringWriter();
+        new AssemblyXpp3Writer().write(descriptor, assembly);
+
+        final StringBuilder configuration = new StringBuilder();
+        append(configuration, "descriptor", descriptor);
+        append(configuration, "format", format);
+        append(configuration, "outputTimestamp", outputTimestamp);
+        append(configuration, "finalName", configSource.getFinalName());
+        append(configuration, "tarLongFileMode", configSource.getTarLongFileMode());
+        append(configuration, "parallelTarCompression", configSource.getTarCompressionThreads() > 1);
+        append(configuration, "archiverConfig", configSource.getArchiverConfig());
+        append(configuration, "recompressZippedFiles", configSource.isRecompressZippedFiles());
+        append(configuration, "mergeManifestMode", configSource.getMergeManifestMode());
+        append(configuration, "ignorePermissions", configSource.isIgnorePermissions());
+        append(configuration, "overrideUid", configSource.getOverrideUid());
+        append(configuration, "overrideUserName", configSource.getOverrideUserName());
+        append(configuration, "overrideGid", configSource.getOverrideGid());
+        append(configuration, "overrideGroupName", configSource.getOverrideGroupName());
+        append(configuration, "encoding", configSource.getEncoding());
+        append(configuration, "escapeString", configSource.getEscapeString());
+        append(configuration, "delimiters", configSource.getDelimiters());
+        append(configuration, "includeProjectBuildFilters", configSource.isIncludeProjectBuildFilters());
+        append(configuration, "additionalProperties", sorted(configSource.getAdditionalProperties()));
+        appendFiles(configuration, "filters", configSource.getFilters(), configSource.getBasedir());
+
+        final MavenArchiveConfiguration archive = configSource.getJarArchiveConfiguration();
+        if (archive != null) {
+            append(configuration, "manifestEntries", new TreeMap<>(archive.getManifestEntries()));
+            append(configuration, "manifestFile", state(archive.getManifestFile()));
+        }
+
+        final MavenProject project = configSource.getProject();
+        if (project != null) {
+            append(configuration, "project", project.getId());
+            append(configuration, "projectProperties", sorted(project.getProperties()));
+            if (project.getArtifacts() != null) {
+                for (Artifact artifact : project.getArtifacts()) {
+                    append(configuration, "dependency", artifact.getId() + " " + state(artifact.getFile()));
+                }
+            }
+        }
+
+        if (configSource.getMavenSession() != null) {
+            append(configuration, "userProperties", sorted(configSource.getMavenSession().getUserProperties()));
+        }
+        appendReferencedProperties(configuration, descriptor.toString(), assembly, configSource);
+
+        if (configSource.getReactorProjects() != null) {
+            for (MavenProject reactorProject : configSource.getReactorProjects()) {
+                append(configuration, "reactorProject", reactorProject.getId());
+            }
+        }
+
+        // the content of files with several sources comes from files the archiver does not see
+        for (FileItem fileItem : assembly.getFiles()) {
+            appendFiles(configuration, "fileSources", fileItem.getSources(), configSource.getBasedir());
+        }
+
+        return configuration.toString();
+    }
+
+    private static List<String> lines(
+            final String configuration,
+            final Collection<File> files,
+            final Collection<FileSet> fileSets,
+            final File destFile,
+            final Collection<File> outputs)
+            throws IOException {
+        final List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        lines.add(CONFIGURATION + digest(configuration));
+        for (File file : files) {
+            lines.add(FILE + file.getAbsolutePath() + '\t' + state(file));
+        }
+        final Set<Path> skipped = new HashSet<>();
+        for (File output : outputs) {
+            skipped.add(normalize(output));
+        }
+        final Set<String> directories = new LinkedHashSet<>();
+        for (FileSet fileSet : fileSets) {
+            final String key = fileSet.getDirectory().getAbsolutePath() + '\t' + join(fileSet.getIncludes()) + '\t'
+                    + join(fileSet.getExcludes()) + '\t' + fileSet.isUsingDefaultExcludes();
+            if (directories.add(key)) {
+                lines.add(DIRECTORY + key + '\t' + digest(listing(fileSet, skipped)));
+            }
+        }
+        lines.add(OUTPUT + destFile.getAbsolutePath() + '\t' + state(destFile));
+        return lines;
+    }
+
+    /**
+     * @return the path of a file line, which is followed by the tab separated state.
+     */
+    private static String pathOf(final String value) {
+        return value.substring(0, value.indexOf('\t'));
+    }
+
+    /**
+     * @return the file set of a directory line, which holds the path, includes, excludes and whether default excludes
+     *         apply, followed by the digest of the listing.
+     */
+    private static FileSet fileSetOf(final String value) {
+        final String[] fields = value.split("\t", -1);
+        return DefaultFileSet.fileSet(new File(fields[0]))
+                .includeExclude(split(fields[1]), split(fields[2]))
+                .usingDefaultExcludes(Boolean.parseBoolean(fields[3]));
+    }
+
+    private static String join(final String[] patterns) {
+        return patterns == null ? "" : String.join(",", patterns);
+    }
+
+    private static String[] split(final String patterns) {
+        return patterns.isEmpty() ? null : patterns.split(",");
+    }
+
+    private static String state(final File file) throws IOException {
+        if (file == null || !file.exists()) {
+            return "- -";
+        }
+        if (file.isDirectory()) {
+            return "d " + mode(file.toPath());
+        }
+        final BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        return attributes.size() + " " + attributes.lastModifiedTime().toMillis() + " " + mode(file.toPath());
+    }
+
+    /**
+     * @return the POSIX permissions of the given path, or only whether it is executable on other file systems.
+     */
+    private static String mode(final Path path) throws IOException {
+        try {
+            return PosixFilePermissions.toString(Files.getPosixFilePermissions(path));
+        } catch (final UnsupportedOperationException e) {
+            return Files.isExecutable(path) ? "x" : "-";
+        }
+    }
+
+    private static Path normalize(final File file) {
+        return file.toPath().toAbsolutePath().normalize();
+    }
+
+    private static String listing(final FileSet fileSet, final Set<Path> skipped) throws IOException {
+        final File directory = fileSet.getDirectory();
+        if (!directory.isDirectory()) {
+            return "-";
+        }
+
+        final DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir(directory);
+        scanner.setIncludes(fileSet.getIncludes());
+        scanner.setExcludes(fileSet.getExcludes());
+        if (fileSet.isUsingDefaultExcludes()) {
+            scanner.addDefaultExcludes();
+        }
+        scanner.scan();
+
+        final List<String> paths = new ArrayList<>(Arrays.asList(scanner.getIncludedDirectories()));
+        Collections.addAll(paths, scanner.getIncludedFiles());
+        Collections.sort(paths);
+        final StringBuilder listing = new StringBuilder();
+        for (String path : paths) {
+            final File file = new File(directory, path);
+            if (!skipped.contains(normalize(file))) {
+                listing.append(path).append(' ').append(state(file)).append('\n');
+            }
+        }
+        return listing.toString();
+    }
+
+    private static void appendFiles(
+            final StringBuilder configuration, final String key, final List<String> paths, final File basedir)
+            throws IOException {
+        if (paths == null) {
+            return;
+        }
+        for (String path : paths) {
+            append(configuration, key, path + " " + state(resolve(basedir, path)));
+        }
+    }
+
+    /**
+     * Appends the system properties and environment variables whose names appear in the descriptor, the filters or
+     * the filtered files, so that changes to unrelated ones, which every CI run brings, do not force a rebuild. The
+     * content of filtered archives and module sources is not looked at; assemblies filtering those depend on all of
+     * them.
+     */
+    private static void appendReferencedProperties(
+            final StringBuilder configuration,
+            final String descriptor,
+            final Assembly assembly,
+            final AssemblerConfigurationSource configSource)
+            throws IOException {
+        final Set<String> words =
+                filtersUnknownContent(assembly) ? null : referencedWords(descriptor, assembly, configSource);
+
+        if (configSource.getMavenSession() != null) {
+            final Properties systemProperties = configSource.getMavenSession().getSystemProperties();
+            for (String name : new TreeSet<>(systemProperties.stringPropertyNames())) {
+                if (words == null || words.contains(name)) {
+                    append(configuration, "systemProperty", name + "=" + systemProperties.getProperty(name));
+                }
+            }
+        }
+
+        final Properties environment = CommandLineUtils.getSystemEnvVars(false);
+        for (String name : new TreeSet<>(environment.stringPropertyNames())) {
+            if (words == null || words.contains("env." + name)) {
+                append(configuration, "environment", name + "=" + environment.getProperty(name));
+            }
+        }
+    }
+
+    private static boolean filtersUnknownContent(final Assembly assembly) {
+        for (DependencySet dependencySet : assembly.getDependencySets()) {
+            if (filtersUnpacked(dependencySet.isUnpack(), dependencySet.getUnpackOptions())) {
+                return true;
+            }
+        }
+        for (ModuleSet moduleSet : assembly.getModuleSets()) {
+            if (moduleSet.getSources() != null) {
+                for (org.apache.maven.plugins.assembly.model.FileSet fileSet : moduleSet.getSources().getFileSets()) {
+                    if (fileSet.isFiltered()) {
+                        return true;
+                    }
+                }
+            }
+            if (moduleSet.getBinaries() != null) {
+                if (filtersUnpacked(moduleSet.getBinaries().isUnpack(), moduleSet.getBinaries().getUnpackOptions())) {
+                    return true;
+                }
+                for (DependencySet dependencySet : moduleSet.getBinaries().getDependencySets()) {
+                    if (filtersUnpacked(dependencySet.isUnpack(), dependencySet.getUnpackOptions())) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean filtersUnpacked(final boolean unpack, final UnpackOptions unpackOptions) {
+        return unpack && unpackOptions != null && unpackOptions.isFiltered();
+    }
+
+    /**
+     * @return the words, such as {@code env.HOME} or {@code user.name}, of the descriptor, the filters and the
+     *         filtered files, whatever the delimiters around the expressions they hold.
+     */
+    private static Set<String> referencedWords(
+            final String descriptor, final Assembly assembly, final AssemblerConfigurationSource configSource)
+            throws IOException {
+        final Set<String> words = new HashSet<>();
+        addWords(words, descriptor);
+
+        final File basedir = configSource.getBasedir();
+        final List<String> filters = new ArrayList<>();
+        if (configSource.getFilters() != null) {
+            filters.addAll(configSource.getFilters());
+        }
+        final MavenProject project = configSource.getProject();
+        if (configSource.isIncludeProjectBuildFilters()
+                && project != null
+                && project.getBuild() != null
+                && project.getBuild().getFilters() != null) {
+            filters.addAll(project.getBuild().getFilters());
+        }
+        for (String filter : filters) {
+            addWords(words, resolve(basedir, filter));
+        }
+
+        for (FileItem fileItem : assembly.getFiles()) {
+            if (fileItem.isFiltered()) {
+                if (fileItem.getSource() != null) {
+                    addWords(words, resolve(basedir, fileItem.getSource()));
+                }
+                for (String source : fileItem.getSources()) {
+                    addWords(words, resolve(basedir, source));
+                }
+            }
+        }
+
+        for (org.apache.maven.plugins.assembly.model.FileSet fileSet : assembly.getFileSets()) {
+            final File directory = fileSet.getDirectory() == null ? basedir : resolve(basedir, fileSet.getDirectory());
+            if (fileSet.isFiltered() && directory != null && directory.isDirectory()) {
+                final DirectoryScanner scanner = new DirectoryScanner();
+                scanner.setBasedir(directory);
+                if (!fileSet.getIncludes().isEmpty()) {
+                    scanner.setIncludes(fileSet.getIncludes().toArray(new String[0]));
+                }
+                scanner.setExcludes(fileSet.getExcludes().toArray(new String[0]));
+                if (fileSet.isUseDefaultExcludes()) {
+                    scanner.addDefaultExcludes();
+                }
+                scanner.scan();
+                for (String path : scanner.getIncludedFiles()) {
+                    addWords(words, new File(directory, path));
+                }
+            }
+        }
+        return words;
+    }
+
+    private static void addWords(final Set<String> words, final File file) throws IOException {
+        if (file.isFile()) {
+            addWords(words, new String(Files.readAllBytes(file.toPath()), StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    private static void addWords(final Set<String> words, final String text) {
+        final Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            words.add(matcher.group());
+        }
+    }
+
+    private static File resolve(final File basedir, final String path) {
+        final File file = new File(path);
+        return AssemblyFileUtils.isAbsolutePath(file) ? file : new File(basedir, path);
+    }
+
+    private static Map<Object, Object> sorted(final Properties properties) {
+        return properties == null ? null : new TreeMap<>(properties);
+    }
+
+    private static void append(final StringBuilder configuration, final String key, final Object value) {
+        configuration.append(key).append('=').append(value).append('\n');
+    }
+
+    private static String digest(final String value) {
+        try {
+            final byte[] digest =
+                    MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -20,18 +20,26 @@ package org.apache.maven.plugins.assembly.archive;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.file.Files;
 import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
 import org.apache.maven.plugins.assembly.InvalidAssemblerConfigurationException;
 import org.apache.maven.plugins.assembly.archive.archiver.AssemblyProxyArchiver;
+import org.apache.maven.plugins.assembly.archive.archiver.InputTrackingArchiver;
+import org.apache.maven.plugins.assembly.archive.archiver.MultiDestinationArchiver;
+import org.apache.maven.plugins.assembly.archive.archiver.RecordingArchiver;
+import org.apache.maven.plugins.assembly.archive.archiver.UnpackedArchivesArchiver;
 import org.apache.maven.plugins.assembly.archive.phase.AssemblyArchiverPhase;
 import org.apache.maven.plugins.assembly.archive.phase.AssemblyArchiverPhaseComparator;
 import org.apache.maven.plugins.assembly.artifact.DependencyResolutionException;
@@ -40,6 +48,7 @@ import org.apache.maven.plugins.assembly.filter.ContainerDescriptorHandler;
 import org.apache.maven.plugins.assembly.format.AssemblyFormattingException;
 import org.apache.maven.plugins.assembly.internal.DebugConfigurationListener;
 import org.apache.maven.plugins.assembly.interpolation.AssemblyExpressionEvaluator;
+import org.apache.maven.plugins.assembly.interpolation.InterpolationContext;
 import org.apache.maven.plugins.assembly.model.Assembly;
 import org.apache.maven.plugins.assembly.model.ContainerDescriptorHandlerConfig;
 import org.apache.maven.plugins.assembly.utils.AssemblyFileUtils;
@@ -92,7 +101,7 @@ public class DefaultAssemblyArchiver implements AssemblyArchiver {
     private final List<AssemblyArchiverPhase> assemblyPhases;
 
     @SuppressWarnings("MismatchedQueryAndUpdateOfCollection")
-    private final Map<String, ContainerDescriptorHandler> containerDescriptorHandlers;
+    private final Map<String, Provider<ContainerDescriptorHandler>> containerDescriptorHandlers;
 
     private final PlexusContainer container;
 
@@ -104,7 +113,7 @@ public class DefaultAssemblyArchiver implements AssemblyArchiver {
     public DefaultAssemblyArchiver(
             ArchiverManager archiverManager,
             List<AssemblyArchiverPhase> assemblyPhases,
-            Map<String, ContainerDescriptorHandler> containerDescriptorHandlers,
+            Map<String, Provider<ContainerDescriptorHandler>> containerDescriptorHandlers,
             PlexusContainer container,
             BasicComponentConfigurator configurator,
             BuildContext buildContext) {
@@ -133,20 +142,51 @@ public class DefaultAssemblyArchiver implements AssemblyArchiver {
             final AssemblerConfigurationSource configSource,
             FileTime outputTimestamp)
             throws ArchiveCreationException, AssemblyFormattingException, InvalidAssemblerConfigurationException {
-        validate(assembly);
+        return createArchives(assembly, fullName, Collections.singletonList(format), configSource, outputTimestamp)
+                .get(0);
+    }
 
-        String filename = fullName;
-        if (!configSource.isIgnoreDirFormatExtensions() || !format.startsWith("dir")) {
-            filename += "." + format;
-        }
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The phases are executed once, against the archiver of the first format, while a {@link RecordingArchiver}
+     * captures what they add. The recorded additions are then replayed into the archiver of each further format.
+     */
+    @Override
+    public List<File> createArchives(
+            final Assembly assembly,
+            final String fullName,
+            final List<String> formats,
+            final AssemblerConfigurationSource configSource,
+            FileTime outputTimestamp)
+            throws ArchiveCreationException, AssemblyFormattingException, InvalidAssemblerConfigurationException {
+        validate(assembly);
 
         AssemblyFileUtils.verifyTempDirectoryAvailability(configSource.getTemporaryRootDirectory());
 
         final File outputDirectory = configSource.getOutputDirectory();
 
-        final File destFile = new File(outputDirectory, filename);
+        final List<File> destFiles = new ArrayList<>(formats.size());
+        for (String currentFormat : formats) {
+            String filename = fullName;
+            if (!configSource.isIgnoreDirFormatExtensions() || !currentFormat.startsWith("dir")) {
+                filename += "." + currentFormat;
+            }
+
+            destFiles.add(new File(outputDirectory, filename));
+        }
+
+        final boolean incremental = configSource.isIncremental() && !configSource.isDryRun();
+        RecordingArchiver recorder = null;
+        InputTrackingArchiver tracker = null;
+        String format = null;
 
         try {
+            if (incremental && isUpToDate(assembly, formats, destFiles, configSource, outputTimestamp)) {
+                LOGGER.info("Assembly " + assembly.getId() + " is up to date: " + destFiles);
+                return destFiles;
+            }
+
             final String finalName = configSource.getFinalName();
             final String specifiedBasedir = assembly.getBaseDirectory();
 
@@ -157,29 +197,103 @@ public class DefaultAssemblyArchiver implements AssemblyArchiver {
                         specifiedBasedir,
                         finalName,
                         configSource,
-                        AssemblyFormatUtils.moduleProjectInterpolator(configSource.getProject()),
-                        AssemblyFormatUtils.artifactProjectInterpolator(null));
+                        InterpolationContext.of(configSource).getModuleProjectInterpolator(configSource.getProject()),
+                        InterpolationContext.of(configSource).getArtifactProjectInterpolator(null));
             }
 
-            final List<ContainerDescriptorHandler> containerHandlers =
-                    selectContainerDescriptorHandlers(assembly.getContainerDescriptorHandlers(), configSource);
+            for (int i = 0; i < formats.size(); i++) {
+                format = formats.get(i);
+
+                final File destFile = destFiles.get(i);
+
+                final List<ContainerDescriptorHandler> containerHandlers =
+                        selectContainerDescriptorHandlers(assembly.getContainerDescriptorHandlers(), configSource);
+
+                // compressed tar formats may be written as a plain tar first, and then compressed on several threads
+                final ParallelTarCompressor.Compression parallelCompression =
+                        configSource.getTarCompressionThreads() > 1
+                                ? ParallelTarCompressor.Compression.forFormat(format)
+                                : null;
+                File archiveFile = parallelCompression != null
+                        ? new File(configSource.getTemporaryRootDirectory(), destFile.getName() + ".tar")
+                        : destFile;
+
+                final Archiver formatArchiver =
+                        lookupArchiver(parallelCompression != null ? "tar" : format, configSource);
+
+                // zip formats may be written uncompressed first, and then compressed reusing the compressed entries
+                // of the previous archive and of the unpacked archives
+                final boolean reusePrevious = configSource.isReuseUnchangedZipEntries() && destFile.isFile();
+                IncrementalZipWriter zipWriter = null;
+                UnpackedArchivesArchiver unpackedArchives = null;
+                if (formatArchiver instanceof AbstractZipArchiver
+                        && (reusePrevious || configSource.isReuseUnpackedZipEntries())) {
+                    final AbstractZipArchiver zipArchiver = (AbstractZipArchiver) formatArchiver;
+                    zipWriter =
+                            new IncrementalZipWriter(zipArchiver.isCompress(), zipArchiver.isRecompressAddedZips());
+                    zipArchiver.setCompress(false);
+                    archiveFile = new File(configSource.getTemporaryRootDirectory(), destFile.getName() + ".stored");
+                    if (reusePrevious) {
+                        zipWriter.addSource(destFile, "");
+                    }
+                    if (configSource.isReuseUnpackedZipEntries()) {
+                        unpackedArchives = new UnpackedArchivesArchiver(formatArchiver);
+                    }
+                }
 
-            final Archiver archiver = createArchiver(
-                    format,
-                    assembly.isIncludeBaseDirectory(),
-                    basedir,
-                    configSource,
-                    containerHandlers,
-                    outputTimestamp);
+                final Archiver archiver = createArchiver(
+                        formatArchiver,
+                        unpackedArchives != null ? unpackedArchives : formatArchiver,
+                        assembly.isIncludeBaseDirectory(),
+                        basedir,
+                        configSource,
+                        containerHandlers,
+                        outputTimestamp);
+
+                archiver.setDestFile(archiveFile);
+
+                if (recorder != null) {
+                    recorder.replay(archiver);
+                } else {
+                    Archiver target = archiver;
+                    if (formats.size() > 1) {
+                        recorder = new RecordingArchiver(archiver);
+                        target = recorder;
+                    }
+                    if (incremental) {
+                        tracker = new InputTrackingArchiver(target);
+                        target = tracker;
+                    }
+                    // artifacts that are one of the archives being created are copied away before they are added
+                    target = new MultiDestinationArchiver(target, destFiles);
+
+                    executePhases(assembly, target, configSource);
+
+                    if (recorder != null) {
+                        LOGGER.debug("Recorded " + recorder.getOperationCount() + " archiver operations for assembly "
+                                + assembly.getId() + ", replaying them for formats: "
+                                + formats.subList(1, formats.size()));
+                    }
+                }
 
-            archiver.setDestFile(destFile);
+                archiver.createArchive();
 
-            for (AssemblyArchiverPhase phase : sortedPhases()) {
-                phase.execute(assembly, archiver, configSource);
-            }
+                if (parallelCompression != null && archiveFile.isFile()) {
+                    new ParallelTarCompressor(parallelCompression, configSource.getTarCompressionThreads())
+                            .compress(archiveFile, destFile);
+                    Files.delete(archiveFile.toPath());
+                }
+
+                if (zipWriter != null && archiveFile.isFile()) {
+                    compressZip(zipWriter, unpackedArchives, archiveFile, destFile);
+                }
 
-            archiver.createArchive();
-            buildContext.refresh(destFile);
+                if (incremental) {
+                    writeInputsManifest(assembly, format, destFile, destFiles, tracker, configSource, outputTimestamp);
+                }
+
+                buildContext.refresh(destFile);
+            }
         } catch (final ArchiverException | IOException e) {
             throw new ArchiveCreationException(
                     "Error creating assembly archive " + assembly.getId() + ": " + e.getMessage(), e);
@@ -193,7 +307,85 @@ public class DefaultAssemblyArchiver implements AssemblyArchiver {
                     "Unable to resolve dependencies for assembly '" + assembly.getId() + "'", e);
         }
 
-        return destFile;
+        return destFiles;
+    }
+
+    private void compressZip(
+            final IncrementalZipWriter zipWriter,
+            final UnpackedArchivesArchiver unpackedArchives,
+            final File storedFile,
+            final File destFile)
+            throws IOException {
+        if (unpackedArchives != null) {
+            for (Map.Entry<File, Set<String>> unpacked : unpackedArchives.getUnpackedArchives().entrySet()) {
+                for (String prefix : unpacked.getValue()) {
+                    zipWriter.addSource(unpacked.getKey(), prefix);
+                }
+            }
+        }
+        zipWriter.write(storedFile, destFile);
+        Files.delete(storedFile.toPath());
+        LOGGER.debug("Reused " + zipWriter.getReused() + " compressed entries for " + destFile + ", compressed "
+                + zipWriter.getCompressed() + " entries");
+    }
+
+    private boolean isUpToDate(
+            final Assembly assembly,
+            final List<String> formats,
+            final List<File> destFiles,
+            final AssemblerConfigurationSource configSource,
+            final FileTime outputTimestamp)
+            throws IOException {
+        final List<File> outputs = AssemblyInputsManifest.outputFiles(configSource, destFiles);
+        for (int i = 0; i < formats.size(); i++) {
+            final File destFile = destFiles.get(i);
+            final String configuration =
+                    AssemblyInputsManifest.configuration(assembly, formats.get(i), configSource, outputTimestamp);
+            if (!AssemblyInputsManifest.isUpToDate(
+                    AssemblyInputsManifest.manifestFile(configSource, destFile),
+                    configuration,
+                    destFile,
+                    outputs)) {
+                LOGGER.debug("Inputs of assembly archive " + destFile + " changed since it was created");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeInputsManifest(
+            final Assembly assembly,
+            final String format,
+            final File destFile,
+            final List<File> destFiles,
+            final InputTrackingArchiver tracker,
+            final AssemblerConfigurationSource configSource,
+            final FileTime outputTimestamp)
+            throws IOException {
+        final File manifestFile = AssemblyInputsManifest.manifestFile(configSource, destFile);
+        if (tracker.isUntracked()) {
+            LOGGER.debug("Assembly archive " + destFile + " has content that is not read from files, it will "
+                    + "always be created again");
+            Files.deleteIfExists(manifestFile.toPath());
+            return;
+        }
+
+        AssemblyInputsManifest.write(
+                manifestFile,
+                AssemblyInputsManifest.configuration(assembly, format, configSource, outputTimestamp),
+                tracker.getInputFiles(),
+                tracker.getInputFileSets(),
+                destFile,
+                AssemblyInputsManifest.outputFiles(configSource, destFiles));
+    }
+
+    private void executePhases(
+            final Assembly assembly, final Archiver archiver, final AssemblerConfigurationSource configSource)
+            throws ArchiveCreationException, AssemblyFormattingException, InvalidAssemblerConfigurationException,
+                    DependencyResolutionException {
+        for (AssemblyArchiverPhase phase : sortedPhases()) {
+            phase.execute(assembly, archiver, configSource);
+        }
     }
 
     private void validate(final Assembly assembly) throws InvalidAssemblerConfigurationException {
@@ -224,13 +416,16 @@ public class DefaultAssemblyArchiver implements AssemblyArchiver {
         if (!requestedContainerDescriptorHandlers.isEmpty()) {
             for (final ContainerDescriptorHandlerConfig config : requestedContainerDescriptorHandlers) {
                 final String hint = config.getHandlerName();
-                final ContainerDescriptorHandler handler = containerDescriptorHandlers.get(hint);
+                final Provider<ContainerDescriptorHandler> provider = containerDescriptorHandlers.get(hint);
 
-                if (handler == null) {
+                if (provider == null) {
                     throw new InvalidAssemblerConfigurationException(
                             "Cannot find ContainerDescriptorHandler with hint: " + hint);
                 }
 
+                // handlers collect state while the archive is built, each assembly gets its own from the container
+                final ContainerDescriptorHandler handler = provider.get();
+
                 LOGGER.debug("Found container descriptor handler with hint: " + hint + " (component: " + handler + ")");
 
                 if (config.getConfiguration() != null) {
@@ -271,7 +466,22 @@ public class DefaultAssemblyArchiver implements AssemblyArchiver {
             final List<ContainerDescriptorHandler> containerHandlers,
             FileTime outputTimestamp)
             throws NoSuchArchiverException {
+        final Archiver archiver = lookupArchiver(format, configSource);
+        return createArchiver(
+                archiver,
+                archiver,
+                includeBaseDir,
+                finalName,
+                configSource,
+                containerHandlers,
+                outputTimestamp);
+    }
 
+    /**
+     * Looks up the archiver of the given format and applies the format specific configuration.
+     */
+    private Archiver lookupArchiver(final String format, final AssemblerConfigurationSource configSource)
+            throws NoSuchArchiverException {
         Archiver archiver = archiverManager.getArchiver(format);
 
         if (archiver instanceof TarArchiver) {
@@ -286,11 +496,31 @@ public class DefaultAssemblyArchiver implements AssemblyArchiver {
             ((AbstractZipArchiver) archiver).setRecompressAddedZips(configSource.isRecompressZippedFiles());
         }
 
-        final List<FileSelector> extraSelectors = new ArrayList<>();
-        final List<ArchiveFinalizer> extraFinalizers = new ArrayList<>();
         if (archiver instanceof JarArchiver) {
             configureJarArchiver((JarArchiver) archiver, configSource.getMergeManifestMode());
+        }
 
+        if (configSource.getArchiverConfig() != null) {
+            configureArchiver(archiver, configSource);
+        }
+
+        return archiver;
+    }
+
+    /**
+     * Wraps a looked up archiver, or the given delegate of it, into the archiver the phases add to.
+     */
+    private Archiver createArchiver(
+            final Archiver formatArchiver,
+            final Archiver delegate,
+            final boolean includeBaseDir,
+            final String finalName,
+            final AssemblerConfigurationSource configSource,
+            final List<ContainerDescriptorHandler> containerHandlers,
+            FileTime outputTimestamp) {
+        final List<FileSelector> extraSelectors = new ArrayList<>();
+        final List<ArchiveFinalizer> extraFinalizers = new ArrayList<>();
+        if (formatArchiver instanceof JarArchiver) {
             extraSelectors.add(new JarSecurityFileSelector());
 
             extraFinalizers.add(new ManifestCreationFinalizer(
@@ -299,18 +529,14 @@ public class DefaultAssemblyArchiver implements AssemblyArchiver {
                     configSource.getJarArchiveConfiguration()));
         }
 
-        if (configSource.getArchiverConfig() != null) {
-            configureArchiver(archiver, configSource);
-        }
-
         String prefix = "";
         if (includeBaseDir) {
             prefix = finalName;
         }
 
-        archiver = new AssemblyProxyArchiver(
+        Archiver archiver = new AssemblyProxyArchiver(
                 prefix,
-                archiver,
+                delegate,
                 containerHandlers,
                 extraSelectors,
                 extraFinalizers,
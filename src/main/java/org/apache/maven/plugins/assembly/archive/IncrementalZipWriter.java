@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.archive;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes a zip archive from an uncompressed (stored) build of its entries, reusing compressed data from other zip
+ * archives: the previous version of the archive, and the archives whose content was unpacked into it. An entry whose
+ * CRC and size match a deflated entry of one of these sources, at the same path below the source prefix, is copied
+ * as raw compressed bytes without inflating or deflating it; only the other entries are compressed. The entries keep
+ * the order and the metadata of the stored build.
+ */
+final class IncrementalZipWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalZipWriter.class);
+
+    private static final byte[] ZIP_HEADER = {0x50, 0x4b, 0x03, 0x04};
+
+    private final boolean compress;
+
+    private final boolean recompressAddedZips;
+
+    private final Map<File, List<String>> sources = new LinkedHashMap<>();
+
+    private int reused;
+
+    private int compressed;
+
+    /**
+     * @param compress            whether the entries are compressed at all, as set on the zip archiver.
+     * @param recompressAddedZips whether entries that are zip files themselves are compressed.
+     */
+    IncrementalZipWriter(final boolean compress, final boolean recompressAddedZips) {
+        this.compress = compress;
+        this.recompressAddedZips = recompressAddedZips;
+    }
+
+    /**
+     * Adds a zip archive whose compressed entries may be reused. Sources that are not zip archives are ignored.
+     *
+     * @param source the zip archive.
+     * @param prefix the path its entries have in the written archive.
+     */
+    void addSource(final File source, final String prefix) {
+        final List<String> prefixes = sources.computeIfAbsent(source, file -> new ArrayList<>());
+        if (!prefixes.contains(prefix)) {
+            prefixes.add(prefix);
+        }
+    }
+
+    /**
+     * Writes the target archive. The target may be one of the sources, it is only replaced once the new archive is
+     * complete.
+     *
+     * @param stored the archive holding the new entries, uncompressed.
+     * @param target the archive to write.
+     * @throws IOException if one of the archives cannot be read or written.
+     */
+    void write(final File stored, final File target) throws IOException {
+        final File temp = new File(stored.getPath() + ".tmp");
+        final List<ZipFile> openSources = new ArrayList<>();
+        try (ZipFile storedZip = ZipFile.builder().setFile(stored).get();
+                ZipArchiveOutputStream out = new ZipArchiveOutputStream(temp)) {
+            final String comment = commentOf(stored);
+            if (comment != null) {
+                out.setComment(comment);
+            }
+            final Map<String, List<SourceEntry>> index = indexSources(openSources);
+
+            final Enumeration<ZipArchiveEntry> entries = storedZip.getEntriesInPhysicalOrder();
+            while (entries.hasMoreElements()) {
+                final ZipArchiveEntry entry = entries.nextElement();
+                // the content is read once, to find the method and to copy it
+                try (PushbackInputStream content = new PushbackInputStream(
+                        entry.getMethod() == ZipArchiveEntry.STORED
+                                ? storedZip.getRawInputStream(entry)
+                                : storedZip.getInputStream(entry),
+                        ZIP_HEADER.length)) {
+                    final int method = methodOf(entry, content);
+                    final SourceEntry source =
+                            method == ZipArchiveEntry.DEFLATED ? findSource(index.get(entry.getName()), entry) : null;
+
+                    if (source != null) {
+                        final ZipArchiveEntry newEntry = new ZipArchiveEntry(entry);
+                        newEntry.setMethod(ZipArchiveEntry.DEFLATED);
+                        newEntry.setCompressedSize(source.entry.getCompressedSize());
+                        try (InputStream raw = source.zip.getRawInputStream(source.entry)) {
+                            out.addRawArchiveEntry(newEntry, raw);
+                        }
+                        reused++;
+                    } else if (method == ZipArchiveEntry.STORED && entry.getMethod() == ZipArchiveEntry.STORED) {
+                        out.addRawArchiveEntry(entry, content);
+                        compressed++;
+                    } else {
+                        final ZipArchiveEntry newEntry = new ZipArchiveEntry(entry);
+                        newEntry.setMethod(method);
+                        newEntry.setCompressedSize(ZipArchiveEntry.SIZE_UNKNOWN);
+                        out.putArchiveEntry(newEntry);
+                        IOUtils.copy(content, out);
+                        out.closeArchiveEntry();
+                        compressed++;
+                    }
+                }
+            }
+        } finally {
+            for (ZipFile zip : openSources) {
+                IOUtils.closeQuietly(zip);
+            }
+        }
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return the number of entries copied from a source by the last {@link #write(File, File)}.
+     */
+    int getReused() {
+        return reused;
+    }
+
+    /**
+     * @return the number of entries written from the stored archive by the last {@link #write(File, File)}.
+     */
+    int getCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Opens the sources and indexes their deflated entries by the path they have in the written archive.
+     */
+    private Map<String, List<SourceEntry>> indexSources(final List<ZipFile> openSources) {
+        final Map<String, List<SourceEntry>> index = new HashMap<>();
+        for (Map.Entry<File, List<String>> source : sources.entrySet()) {
+            final ZipFile zip;
+            try {
+                zip = ZipFile.builder().setFile(source.getKey()).get();
+            } catch (IOException e) {
+                LOGGER.debug("Not reusing entries of " + source.getKey() + ": " + e.getMessage());
+                continue;
+            }
+            openSources.add(zip);
+
+            final Enumeration<ZipArchiveEntry> entries = zip.getEntries();
+            while (entries.hasMoreElements()) {
+                final ZipArchiveEntry entry = entries.nextElement();
+                if (entry.getMethod() == ZipArchiveEntry.DEFLATED
+                        && !entry.isDirectory()
+                        && !entry.getGeneralPurposeBit().usesEncryption()) {
+                    for (String prefix : source.getValue()) {
+                        index.computeIfAbsent(prefix + entry.getName(), name -> new ArrayList<>())
+                                .add(new SourceEntry(zip, entry));
+                    }
+                }
+            }
+        }
+        return index;
+    }
+
+    private static SourceEntry findSource(final List<SourceEntry> candidates, final ZipArchiveEntry entry) {
+        if (candidates != null) {
+            for (SourceEntry candidate : candidates) {
+                if (candidate.matches(entry)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the compression method the zip archiver uses for the entry: directories, and zip files unless they are
+     *         recompressed, are stored. The stored build marks every entry as stored, so zip files are recognized by
+     *         the header of the content, which is pushed back afterwards.
+     */
+    private int methodOf(final ZipArchiveEntry entry, final PushbackInputStream content) throws IOException {
+        if (!compress || entry.isDirectory()) {
+            return ZipArchiveEntry.STORED;
+        }
+        if (!recompressAddedZips) {
+            final byte[] header = new byte[ZIP_HEADER.length];
+            final int read = IOUtils.read(content, header);
+            content.unread(header, 0, read);
+            if (read == header.length && Arrays.equals(ZIP_HEADER, header)) {
+                return ZipArchiveEntry.STORED;
+            }
+        }
+        return ZipArchiveEntry.DEFLATED;
+    }
+
+    /**
+     * @return the archive comment of the stored build, which commons-compress does not read, so that the written
+     *         archive has the comment the zip archiver wrote.
+     */
+    private static String commentOf(final File zip) throws IOException {
+        try (java.util.zip.ZipFile zipFile = new java.util.zip.ZipFile(zip)) {
+            return zipFile.getComment();
+        }
+    }
+
+    private static final class SourceEntry {
+        private final ZipFile zip;
+
+        private final ZipArchiveEntry entry;
+
+        SourceEntry(final ZipFile zip, final ZipArchiveEntry entry) {
+            this.zip = zip;
+            this.entry = entry;
+        }
+
+        boolean matches(final ZipArchiveEntry stored) {
+            return entry.getCrc() == stored.getCrc() && entry.getSize() == stored.getSize();
+        }
+    }
+}
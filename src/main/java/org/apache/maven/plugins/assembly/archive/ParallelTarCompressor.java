@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Compresses an uncompressed tar file on several threads. The input is cut into fixed-size blocks and each block is
+ * compressed into an independent gzip member or zstd frame. The compressed blocks are written in input order; the
+ * readers of both formats, including <code>GZIPInputStream</code> and the zstd decoders, read all the members or
+ * frames of a file. As the block size does not depend on the number of threads, the output is the same for any thread
+ * count.
+ * <p>
+ * bzip2 and xz are not compressed this way: their common Java readers, like the tar unarchiver, stop at the end of the
+ * first stream, and would silently truncate the archive.
+ */
+final class ParallelTarCompressor {
+    /**
+     * The compressions of the tar formats, with the size of the blocks compressed independently. The block sizes
+     * follow the window of each algorithm so that little compression is lost at the block boundaries.
+     */
+    enum Compression {
+        GZIP(4 * 1024 * 1024) {
+            @Override
+            OutputStream compress(OutputStream out) throws IOException {
+                return new GzipCompressorOutputStream(out);
+            }
+        },
+        ZSTD(16 * 1024 * 1024) {
+            @Override
+            OutputStream compress(OutputStream out) throws IOException {
+                return new ZstdCompressorOutputStream(out);
+            }
+        };
+
+        private final int blockSize;
+
+        Compression(int blockSize) {
+            this.blockSize = blockSize;
+        }
+
+        abstract OutputStream compress(OutputStream out) throws IOException;
+
+        /**
+         * @param format the assembly format.
+         * @return the compression of the given tar format, or <code>null</code> if it is not a compressed tar format.
+         */
+        static Compression forFormat(final String format) {
+            switch (format) {
+                case "tar.gz":
+                case "tgz":
+                    return GZIP;
+                case "tar.zst":
+                case "tzst":
+                    return ZSTD;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private final Compression compression;
+
+    private final int blockSize;
+
+    private final int threads;
+
+    ParallelTarCompressor(final Compression compression, final int threads) {
+        this(compression, compression.blockSize, threads);
+    }
+
+    ParallelTarCompressor(final Compression compression, final int blockSize, final int threads) {
+        this.compression = compression;
+        this.blockSize = blockSize;
+        this.threads = threads;
+    }
+
+    /**
+     * Compresses the source file into the target file.
+     *
+     * @param source the uncompressed tar file.
+     * @param target the compressed file to write.
+     * @throws IOException if the source cannot be read, the target cannot be written or a block fails to compress.
+     */
+    void compress(final File source, final File target) throws IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (InputStream in = Files.newInputStream(source.toPath());
+                OutputStream out = Files.newOutputStream(target.toPath())) {
+            // bound the memory used: at most two blocks per thread are in flight
+            final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+            byte[] block;
+            while ((block = readBlock(in)) != null) {
+                final byte[] data = block;
+                pending.add(executor.submit(() -> compressBlock(data)));
+                if (pending.size() >= 2 * threads) {
+                    out.write(get(pending.remove()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                out.write(get(pending.remove()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private byte[] readBlock(final InputStream in) throws IOException {
+        final byte[] block = new byte[blockSize];
+        final int read = IOUtils.read(in, block);
+        if (read == 0) {
+            return null;
+        }
+        if (read < blockSize) {
+            final byte[] last = new byte[read];
+            System.arraycopy(block, 0, last, 0, read);
+            return last;
+        }
+        return block;
+    }
+
+    private byte[] compressBlock(final byte[] block) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(block.length / 2);
+        try (OutputStream out = compression.compress(compressed)) {
+            out.write(block);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] get(final Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to compress block: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
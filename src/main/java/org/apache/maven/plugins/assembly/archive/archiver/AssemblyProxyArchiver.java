@@ -121,7 +121,7 @@ public class AssemblyProxyArchiver implements Archiver {
         }
 
         if (!selectors.isEmpty()) {
-            this.selectors = selectors.toArray(new FileSelector[0]);
+            this.selectors = new FileSelector[] {new RoutingFileSelector(selectors)};
         }
     }
 
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.archive.archiver;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.codehaus.plexus.archiver.ArchivedFileSet;
+import org.codehaus.plexus.archiver.Archiver;
+import org.codehaus.plexus.archiver.FileSet;
+import org.codehaus.plexus.archiver.diags.DelgatingArchiver;
+import org.codehaus.plexus.archiver.util.DefaultFileSet;
+import org.codehaus.plexus.components.io.resources.PlexusIoFileResource;
+import org.codehaus.plexus.components.io.resources.PlexusIoResource;
+import org.codehaus.plexus.components.io.resources.PlexusIoResourceCollection;
+
+/**
+ * Delegating archiver that remembers the files and file sets the assembly phases read from, so that a later build
+ * can tell whether any of them changed. Additions that are not backed by a file on disk make the inputs untracked.
+ *
+ * @since 3.8.1
+ */
+public class InputTrackingArchiver extends DelgatingArchiver {
+    private final Set<File> files = new LinkedHashSet<>();
+
+    private final List<FileSet> fileSets = new ArrayList<>();
+
+    private boolean untracked;
+
+    public InputTrackingArchiver(final Archiver delegate) {
+        super(delegate);
+    }
+
+    /**
+     * @return The files added to the archive, including archives whose content was added.
+     */
+    public Set<File> getInputFiles() {
+        return Collections.unmodifiableSet(files);
+    }
+
+    /**
+     * @return The file sets whose content was added to the archive, with their includes and excludes.
+     */
+    public List<FileSet> getInputFileSets() {
+        return Collections.unmodifiableList(fileSets);
+    }
+
+    /**
+     * @return <code>true</code> if some content was added that does not come from a file or directory on disk.
+     */
+    public boolean isUntracked() {
+        return untracked;
+    }
+
+    @Override
+    @Deprecated
+    public void addDirectory(final File directory) {
+        super.addDirectory(directory);
+        fileSets.add(DefaultFileSet.fileSet(directory));
+    }
+
+    @Override
+    @Deprecated
+    public void addDirectory(final File directory, final String prefix) {
+        super.addDirectory(directory, prefix);
+        fileSets.add(DefaultFileSet.fileSet(directory));
+    }
+
+    @Override
+    @Deprecated
+    public void addDirectory(final File directory, final String[] includes, final String[] excludes) {
+        super.addDirectory(directory, includes, excludes);
+        fileSets.add(DefaultFileSet.fileSet(directory).includeExclude(includes, excludes));
+    }
+
+    @Override
+    @Deprecated
+    public void addDirectory(
+            final File directory, final String prefix, final String[] includes, final String[] excludes) {
+        super.addDirectory(directory, prefix, includes, excludes);
+        fileSets.add(DefaultFileSet.fileSet(directory).includeExclude(includes, excludes));
+    }
+
+    @Override
+    public void addFileSet(final FileSet fileSet) {
+        super.addFileSet(fileSet);
+        fileSets.add(fileSet);
+    }
+
+    @Override
+    public void addFile(final File inputFile, final String destFileName) {
+        super.addFile(inputFile, destFileName);
+        files.add(inputFile);
+    }
+
+    @Override
+    public void addFile(final File inputFile, final String destFileName, final int permissions) {
+        super.addFile(inputFile, destFileName, permissions);
+        files.add(inputFile);
+    }
+
+    @Override
+    @Deprecated
+    public void addArchivedFileSet(final File archiveFile) {
+        super.addArchivedFileSet(archiveFile);
+        files.add(archiveFile);
+    }
+
+    @Override
+    @Deprecated
+    public void addArchivedFileSet(final File archiveFile, final String prefix) {
+        super.addArchivedFileSet(archiveFile, prefix);
+        files.add(archiveFile);
+    }
+
+    @Override
+    @Deprecated
+    public void addArchivedFileSet(final File archiveFile, final String[] includes, final String[] excludes) {
+        super.addArchivedFileSet(archiveFile, includes, excludes);
+        files.add(archiveFile);
+    }
+
+    @Override
+    @Deprecated
+    public void addArchivedFileSet(
+            final File archiveFile, final String prefix, final String[] includes, final String[] excludes) {
+        super.addArchivedFileSet(archiveFile, prefix, includes, excludes);
+        files.add(archiveFile);
+    }
+
+    @Override
+    public void addArchivedFileSet(final ArchivedFileSet fileSet) {
+        super.addArchivedFileSet(fileSet);
+        files.add(fileSet.getArchive());
+    }
+
+    @Override
+    public void addArchivedFileSet(final ArchivedFileSet fileSet, final Charset charset) {
+        super.addArchivedFileSet(fileSet, charset);
+        files.add(fileSet.getArchive());
+    }
+
+    @Override
+    public void addResource(final PlexusIoResource resource, final String destFileName, final int permissions) {
+        super.addResource(resource, destFileName, permissions);
+        if (resource instanceof PlexusIoFileResource) {
+            files.add(((PlexusIoFileResource) resource).getFile());
+        } else {
+            untracked = true;
+        }
+    }
+
+    @Override
+    public void addResources(final PlexusIoResourceCollection resources) {
+        super.addResources(resources);
+        untracked = true;
+    }
+}
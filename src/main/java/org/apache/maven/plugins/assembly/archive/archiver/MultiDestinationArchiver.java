@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.archive.archiver;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.plexus.archiver.Archiver;
+import org.codehaus.plexus.archiver.diags.DelgatingArchiver;
+
+/**
+ * Delegating archiver that knows the destination files of all formats of an assembly, while the delegate only knows
+ * the file it writes, which may be the archive of the first format or a temporary file. Artifacts that are one of
+ * these destination files must be copied away before they are added.
+ *
+ * @since 3.8.1
+ */
+public class MultiDestinationArchiver extends DelgatingArchiver {
+    private final List<File> destFiles;
+
+    public MultiDestinationArchiver(final Archiver delegate, final List<File> destFiles) {
+        super(delegate);
+        this.destFiles = Collections.unmodifiableList(destFiles);
+    }
+
+    /**
+     * @return The destination files of all archives created from the content added to this archiver.
+     */
+    public List<File> getDestFiles() {
+        return destFiles;
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.archive.archiver;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.codehaus.plexus.archiver.ArchivedFileSet;
+import org.codehaus.plexus.archiver.Archiver;
+import org.codehaus.plexus.archiver.ArchiverException;
+import org.codehaus.plexus.archiver.FileSet;
+import org.codehaus.plexus.archiver.diags.DelgatingArchiver;
+import org.codehaus.plexus.components.io.resources.PlexusIoResource;
+import org.codehaus.plexus.components.io.resources.PlexusIoResourceCollection;
+
+/**
+ * Delegating archiver that records every addition and every mode change made by the assembly phases, so that the
+ * same sequence can be replayed into the archivers of the other formats of an assembly without running the phases
+ * again. Queries are answered by the delegate.
+ *
+ * @since 3.8.1
+ */
+public class RecordingArchiver extends DelgatingArchiver {
+    private final List<Consumer<Archiver>> operations = new ArrayList<>();
+
+    public RecordingArchiver(final Archiver delegate) {
+        super(delegate);
+    }
+
+    /**
+     * Applies the recorded operations, in order, to another archiver.
+     *
+     * @param target The archiver to replay the operations into.
+     * @throws ArchiverException if the target rejects one of the operations.
+     */
+    public void replay(final Archiver target) {
+        for (final Consumer<Archiver> operation : operations) {
+            operation.accept(target);
+        }
+    }
+
+    /**
+     * @return The number of recorded operations.
+     */
+    public int getOperationCount() {
+        return operations.size();
+    }
+
+    private void record(final Consumer<Archiver> operation) {
+        operations.add(operation);
+    }
+
+    @Override
+    @Deprecated
+    public void addDirectory(final File directory) {
+        super.addDirectory(directory);
+        record(a -> a.addDirectory(directory));
+    }
+
+    @Override
+    @Deprecated
+    public void addDirectory(final File directory, final String prefix) {
+        super.addDirectory(directory, prefix);
+        record(a -> a.addDirectory(directory, prefix));
+    }
+
+    @Override
+    @Deprecated
+    public void addDirectory(final File directory, final String[] includes, final String[] excludes) {
+        super.addDirectory(directory, includes, excludes);
+        record(a -> a.addDirectory(directory, includes, excludes));
+    }
+
+    @Override
+    @Deprecated
+    public void addDirectory(
+            final File directory, final String prefix, final String[] includes, final String[] excludes) {
+        super.addDirectory(directory, prefix, includes, excludes);
+        record(a -> a.addDirectory(directory, prefix, includes, excludes));
+    }
+
+    @Override
+    public void addFileSet(final FileSet fileSet) {
+        super.addFileSet(fileSet);
+        record(a -> a.addFileSet(fileSet));
+    }
+
+    @Override
+    public void addSymlink(final String symlinkName, final String symlinkDestination) {
+        super.addSymlink(symlinkName, symlinkDestination);
+        record(a -> a.addSymlink(symlinkName, symlinkDestination));
+    }
+
+    @Override
+    public void addSymlink(final String symlinkName, final int permissions, final String symlinkDestination) {
+        super.addSymlink(symlinkName, permissions, symlinkDestination);
+        record(a -> a.addSymlink(symlinkName, permissions, symlinkDestination));
+    }
+
+    @Override
+    public void addFile(final File inputFile, final String destFileName) {
+        super.addFile(inputFile, destFileName);
+        record(a -> a.addFile(inputFile, destFileName));
+    }
+
+    @Override
+    public void addFile(final File inputFile, final String destFileName, final int permissions) {
+        super.addFile(inputFile, destFileName, permissions);
+        record(a -> a.addFile(inputFile, destFileName, permissions));
+    }
+
+    @Override
+    @Deprecated
+    public void addArchivedFileSet(final File archiveFile) {
+        super.addArchivedFileSet(archiveFile);
+        record(a -> a.addArchivedFileSet(archiveFile));
+    }
+
+    @Override
+    @Deprecated
+    public void addArchivedFileSet(final File archiveFile, final String prefix) {
+        super.addArchivedFileSet(archiveFile, prefix);
+        record(a -> a.addArchivedFileSet(archiveFile, prefix));
+    }
+
+    @Override
+    @Deprecated
+    public void addArchivedFileSet(final File archiveFile, final String[] includes, final String[] excludes) {
+        super.addArchivedFileSet(archiveFile, includes, excludes);
+        record(a -> a.addArchivedFileSet(archiveFile, includes, excludes));
+    }
+
+    @Override
+    @Deprecated
+    public void addArchivedFileSet(
+            final File archiveFile, final String prefix, final String[] includes, final String[] excludes) {
+        super.addArchivedFileSet(archiveFile, prefix, includes, excludes);
+        record(a -> a.addArchivedFileSet(archiveFile, prefix, includes, excludes));
+    }
+
+    @Override
+    public void addArchivedFileSet(final ArchivedFileSet fileSet) {
+        super.addArchivedFileSet(fileSet);
+        record(a -> a.addArchivedFileSet(fileSet));
+    }
+
+    @Override
+    public void addArchivedFileSet(final ArchivedFileSet fileSet, final Charset charset) {
+        super.addArchivedFileSet(fileSet, charset);
+        record(a -> a.addArchivedFileSet(fileSet, charset));
+    }
+
+    @Override
+    public void addResource(final PlexusIoResource resource, final String destFileName, final int permissions) {
+        super.addResource(resource, destFileName, permissions);
+        record(a -> a.addResource(resource, destFileName, permissions));
+    }
+
+    @Override
+    public void addResources(final PlexusIoResourceCollection resources) {
+        super.addResources(resources);
+        record(a -> a.addResources(resources));
+    }
+
+    @Override
+    public void setFileMode(final int mode) {
+        super.setFileMode(mode);
+        record(a -> a.setFileMode(mode));
+    }
+
+    @Override
+    public void setDefaultFileMode(final int mode) {
+        super.setDefaultFileMode(mode);
+        record(a -> a.setDefaultFileMode(mode));
+    }
+
+    @Override
+    public void setDirectoryMode(final int mode) {
+        super.setDirectoryMode(mode);
+        record(a -> a.setDirectoryMode(mode));
+    }
+
+    @Override
+    public void setDefaultDirectoryMode(final int mode) {
+        super.setDefaultDirectoryMode(mode);
+        record(a -> a.setDefaultDirectoryMode(mode));
+    }
+
+    @Override
+    public void setIncludeEmptyDirs(final boolean includeEmptyDirs) {
+        super.setIncludeEmptyDirs(includeEmptyDirs);
+        record(a -> a.setIncludeEmptyDirs(includeEmptyDirs));
+    }
+
+    @Override
+    public void setDuplicateBehavior(final String duplicate) {
+        super.setDuplicateBehavior(duplicate);
+        record(a -> a.setDuplicateBehavior(duplicate));
+    }
+}
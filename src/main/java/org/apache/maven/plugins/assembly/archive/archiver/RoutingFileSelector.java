@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.archive.archiver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugins.assembly.filter.ContainerDescriptorHandler;
+import org.codehaus.plexus.components.io.fileselectors.FileInfo;
+import org.codehaus.plexus.components.io.fileselectors.FileSelector;
+
+/**
+ * Runs the selectors of an {@link AssemblyProxyArchiver} in order, until one of them does not select the file. The
+ * container descriptor handlers declaring {@link ContainerDescriptorHandler#getPathPrefixes() path prefixes} are only
+ * run for the files under them: the normalized file name is walked once down a trie of these prefixes, whose nodes
+ * hold the selectors to run for the names reaching them.
+ */
+final class RoutingFileSelector implements FileSelector {
+
+    private final Node root = new Node();
+
+    RoutingFileSelector(final List<FileSelector> selectors) {
+        final BitSet everyFile = new BitSet();
+        for (int i = 0; i < selectors.size(); i++) {
+            final List<String> prefixes = getPathPrefixes(selectors.get(i));
+            if (prefixes == null) {
+                everyFile.set(i);
+            } else {
+                for (final String prefix : prefixes) {
+                    add(normalize(prefix), i);
+                }
+            }
+        }
+
+        root.complete(everyFile, selectors);
+    }
+
+    private static List<String> getPathPrefixes(final FileSelector selector) {
+        if (!(selector instanceof ContainerDescriptorHandler)) {
+            return null;
+        }
+
+        final List<String> prefixes = ((ContainerDescriptorHandler) selector).getPathPrefixes();
+        if (prefixes == null || prefixes.isEmpty() || prefixes.stream().anyMatch(p -> normalize(p).isEmpty())) {
+            return null;
+        }
+        return prefixes;
+    }
+
+    private static String normalize(final String path) {
+        final String normalized = path.replace('\\', '/');
+        return normalized.startsWith("/") ? normalized.substring(1) : normalized;
+    }
+
+    private void add(final String prefix, final int selector) {
+        Node node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+        }
+        node.routed.set(selector);
+    }
+
+    @Override
+    public boolean isSelected(final FileInfo fileInfo) throws IOException {
+        final String name = fileInfo.getName();
+
+        Node node = root;
+        for (int i = 0; i < name.length() && !node.children.isEmpty(); i++) {
+            final char c = name.charAt(i) == '\\' ? '/' : name.charAt(i);
+            if (i == 0 && c == '/') {
+                continue;
+            }
+
+            final Node child = node.children.get(c);
+            if (child == null) {
+                break;
+            }
+            node = child;
+        }
+
+        for (final FileSelector selector : node.selectors) {
+            if (!selector.isSelected(fileInfo)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Node {
+
+        private final Map<Character, Node> children = new HashMap<>();
+
+        /**
+         * The selectors routed to the names with the prefix this node stands for.
+         */
+        private final BitSet routed = new BitSet();
+
+        /**
+         * The selectors to run for the names reaching this node, in their original order.
+         */
+        private FileSelector[] selectors;
+
+        void complete(final BitSet inherited, final List<FileSelector> all) {
+            final BitSet indexes = (BitSet) inherited.clone();
+            indexes.or(routed);
+
+            final List<FileSelector> ordered = new ArrayList<>(indexes.cardinality());
+            for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+                ordered.add(all.get(i));
+            }
+            selectors = ordered.toArray(new FileSelector[0]);
+
+            for (final Node child : children.values()) {
+                child.complete(indexes, all);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.archive.archiver;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.plexus.archiver.ArchivedFileSet;
+import org.codehaus.plexus.archiver.Archiver;
+import org.codehaus.plexus.archiver.diags.DelgatingArchiver;
+
+/**
+ * Delegating archiver that remembers the archives whose entries are added unchanged, so that their compressed data
+ * can be reused. Archived file-sets that transform the content or map the file names are not remembered.
+ *
+ * @since 3.8.1
+ */
+public class UnpackedArchivesArchiver extends DelgatingArchiver {
+    private final Map<File, Set<String>> unpackedArchives = new LinkedHashMap<>();
+
+    public UnpackedArchivesArchiver(final Archiver delegate) {
+        super(delegate);
+    }
+
+    /**
+     * @return The archives added unchanged, with the prefixes they were added to.
+     */
+    public Map<File, Set<String>> getUnpackedArchives() {
+        return Collections.unmodifiableMap(unpackedArchives);
+    }
+
+    @Override
+    @Deprecated
+    public void addArchivedFileSet(final File archiveFile) {
+        super.addArchivedFileSet(archiveFile);
+        unpacked(archiveFile, null);
+    }
+
+    @Override
+    @Deprecated
+    public void addArchivedFileSet(final File archiveFile, final String prefix) {
+        super.addArchivedFileSet(archiveFile, prefix);
+        unpacked(archiveFile, prefix);
+    }
+
+    @Override
+    @Deprecated
+    public void addArchivedFileSet(final File archiveFile, final String[] includes, final String[] excludes) {
+        super.addArchivedFileSet(archiveFile, includes, excludes);
+        unpacked(archiveFile, null);
+    }
+
+    @Override
+    @Deprecated
+    public void addArchivedFileSet(
+            final File archiveFile, final String prefix, final String[] includes, final String[] excludes) {
+        super.addArchivedFileSet(archiveFile, prefix, includes, excludes);
+        unpacked(archiveFile, prefix);
+    }
+
+    @Override
+    public void addArchivedFileSet(final ArchivedFileSet fileSet) {
+        super.addArchivedFileSet(fileSet);
+        unpacked(fileSet);
+    }
+
+    @Override
+    public void addArchivedFileSet(final ArchivedFileSet fileSet, final Charset charset) {
+        super.addArchivedFileSet(fileSet, charset);
+        unpacked(fileSet);
+    }
+
+    private void unpacked(final ArchivedFileSet fileSet) {
+        if (fileSet.getStreamTransformer() == null
+                && (fileSet.getFileMappers() == null || fileSet.getFileMappers().length == 0)) {
+            unpacked(fileSet.getArchive(), fileSet.getPrefix());
+        }
+    }
+
+    private void unpacked(final File archiveFile, final String prefix) {
+        unpackedArchives
+                .computeIfAbsent(archiveFile, file -> new LinkedHashSet<>())
+                .add(prefix == null ? "" : prefix);
+    }
+}
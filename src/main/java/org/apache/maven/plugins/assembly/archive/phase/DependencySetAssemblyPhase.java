@@ -31,6 +31,7 @@ import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
 import org.apache.maven.plugins.assembly.InvalidAssemblerConfigurationException;
 import org.apache.maven.plugins.assembly.archive.ArchiveCreationException;
 import org.apache.maven.plugins.assembly.archive.task.AddDependencySetsTask;
+import org.apache.maven.plugins.assembly.archive.task.DependencyProjectCache;
 import org.apache.maven.plugins.assembly.artifact.DependencyResolutionException;
 import org.apache.maven.plugins.assembly.artifact.DependencyResolver;
 import org.apache.maven.plugins.assembly.format.AssemblyFormattingException;
@@ -38,6 +39,8 @@ import org.apache.maven.plugins.assembly.model.Assembly;
 import org.apache.maven.plugins.assembly.model.DependencySet;
 import org.apache.maven.project.ProjectBuilder;
 import org.codehaus.plexus.archiver.Archiver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import static java.util.Objects.requireNonNull;
 
@@ -49,6 +52,8 @@ import static java.util.Objects.requireNonNull;
 @Singleton
 @Named("dependency-sets")
 public class DependencySetAssemblyPhase implements AssemblyArchiverPhase, PhaseOrder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DependencySetAssemblyPhase.class);
+
     private final ProjectBuilder projectBuilder;
 
     private final DependencyResolver dependencyResolver;
@@ -74,15 +79,22 @@ public class DependencySetAssemblyPhase implements AssemblyArchiverPhase, PhaseO
 
         Map<DependencySet, Set<Artifact>> resolved =
                 dependencyResolver.resolveDependencySets(assembly, configSource, assembly.getDependencySets());
+        if (resolved.isEmpty()) {
+            return;
+        }
+
+        final DependencyProjectCache projectCache = DependencyProjectCache.getInstance(configSource.getMavenSession());
         for (Map.Entry<DependencySet, Set<Artifact>> dependencySetSetEntry : resolved.entrySet()) {
             final AddDependencySetsTask task = new AddDependencySetsTask(
                     Collections.singletonList(dependencySetSetEntry.getKey()),
                     dependencySetSetEntry.getValue(),
                     configSource.getProject(),
                     projectBuilder);
+            task.setProjectCache(projectCache);
 
             task.execute(archiver, configSource);
         }
+        LOGGER.debug("Processed dependency sets of assembly " + assembly.getId() + " using " + projectCache);
     }
 
     @Override
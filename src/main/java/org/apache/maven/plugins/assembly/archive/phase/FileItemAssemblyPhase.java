@@ -36,6 +36,7 @@ import org.apache.maven.plugins.assembly.InvalidAssemblerConfigurationException;
 import org.apache.maven.plugins.assembly.archive.ArchiveCreationException;
 import org.apache.maven.plugins.assembly.format.AssemblyFormattingException;
 import org.apache.maven.plugins.assembly.format.ReaderFormatter;
+import org.apache.maven.plugins.assembly.interpolation.InterpolationContext;
 import org.apache.maven.plugins.assembly.model.Assembly;
 import org.apache.maven.plugins.assembly.model.FileItem;
 import org.apache.maven.plugins.assembly.utils.AssemblyFileUtils;
@@ -111,8 +112,8 @@ public class FileItemAssemblyPhase implements AssemblyArchiverPhase, PhaseOrder
                     outputDirectory1,
                     configSource.getFinalName(),
                     configSource,
-                    AssemblyFormatUtils.moduleProjectInterpolator(configSource.getProject()),
-                    AssemblyFormatUtils.artifactProjectInterpolator(null));
+                    InterpolationContext.of(configSource).getModuleProjectInterpolator(configSource.getProject()),
+                    InterpolationContext.of(configSource).getArtifactProjectInterpolator(null));
 
             String target;
 
@@ -131,14 +132,13 @@ public class FileItemAssemblyPhase implements AssemblyArchiverPhase, PhaseOrder
 
                 final PlexusIoResource restoUse;
                 if (!fileItem.getSources().isEmpty()) {
-                    List<InputStream> content =
-                            new ArrayList<>(fileItem.getSources().size());
+                    List<File> content = new ArrayList<>(fileItem.getSources().size());
                     for (String contentSourcePath : fileItem.getSources()) {
                         File contentSource = new File(contentSourcePath);
                         if (!AssemblyFileUtils.isAbsolutePath(contentSource)) {
                             contentSource = new File(basedir, contentSourcePath);
                         }
-                        content.add(Files.newInputStream(contentSource.toPath()));
+                        content.add(contentSource);
                     }
 
                     String name = PlexusIoFileResource.getName(source);
@@ -160,10 +160,27 @@ public class FileItemAssemblyPhase implements AssemblyArchiverPhase, PhaseOrder
         return 10;
     }
 
-    private ContentSupplier getContentSupplier(final Collection<InputStream> contentStreams) {
+    private ContentSupplier getContentSupplier(final Collection<File> contentSources) {
+        // open the sources on every call, the resource may be read once per archive format
         return new ContentSupplier() {
             @Override
             public InputStream getContents() throws IOException {
+                final List<InputStream> contentStreams = new ArrayList<>(contentSources.size());
+                try {
+                    for (File contentSource : contentSources) {
+                        contentStreams.add(Files.newInputStream(contentSource.toPath()));
+                    }
+                } catch (final IOException e) {
+                    // do not leak the sources opened before the one that failed
+                    for (InputStream contentStream : contentStreams) {
+                        try {
+                            contentStream.close();
+                        } catch (final IOException closeException) {
+                            e.addSuppressed(closeException);
+                        }
+                    }
+                    throw e;
+                }
                 return new SequenceInputStream(Collections.enumeration(contentStreams));
             }
         };
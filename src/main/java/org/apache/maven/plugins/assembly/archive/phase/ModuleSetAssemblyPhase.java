@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -39,11 +40,13 @@ import org.apache.maven.plugins.assembly.archive.ArchiveCreationException;
 import org.apache.maven.plugins.assembly.archive.task.AddArtifactTask;
 import org.apache.maven.plugins.assembly.archive.task.AddDependencySetsTask;
 import org.apache.maven.plugins.assembly.archive.task.AddFileSetsTask;
+import org.apache.maven.plugins.assembly.archive.task.DependencyProjectCache;
 import org.apache.maven.plugins.assembly.artifact.DependencyResolutionException;
 import org.apache.maven.plugins.assembly.artifact.DependencyResolver;
 import org.apache.maven.plugins.assembly.format.AssemblyFormattingException;
 import org.apache.maven.plugins.assembly.functions.MavenProjects;
 import org.apache.maven.plugins.assembly.functions.ModuleSetConsumer;
+import org.apache.maven.plugins.assembly.interpolation.InterpolationContext;
 import org.apache.maven.plugins.assembly.model.Assemblies;
 import org.apache.maven.plugins.assembly.model.Assembly;
 import org.apache.maven.plugins.assembly.model.DependencySet;
@@ -84,6 +87,11 @@ public class ModuleSetAssemblyPhase implements AssemblyArchiverPhase, PhaseOrder
      */
     private static final String LINE_SEPARATOR = System.getProperty("line.separator");
 
+    /**
+     * The prefix of the expressions evaluated against the module an output location is interpolated for.
+     */
+    private static final String MODULE_EXPRESSION_PREFIX = "${module.";
+
     private final ProjectBuilder projectBuilder;
 
     private final DependencyResolver dependencyResolver;
@@ -135,7 +143,11 @@ public class ModuleSetAssemblyPhase implements AssemblyArchiverPhase, PhaseOrder
         if (moduleProjects == null) {
             try {
                 moduleProjects = ProjectUtils.getProjectModules(
-                        project, configSource.getReactorProjects(), moduleSet.isIncludeSubModules(), logger);
+                        configSource.getMavenSession(),
+                        project,
+                        configSource.getReactorProjects(),
+                        moduleSet.isIncludeSubModules(),
+                        logger);
             } catch (final IOException e) {
                 throw new ArchiveCreationException(
                         "Error retrieving module-set for project: " + project.getId() + ": " + e.getMessage(), e);
@@ -281,10 +293,30 @@ public class ModuleSetAssemblyPhase implements AssemblyArchiverPhase, PhaseOrder
                 LOGGER.warn(sb.toString());
             }
 
+            if (moduleProjects.isEmpty()) {
+                return;
+            }
+
+            // the dependency sets adding the same files for every module are only added with the first module
+            final Set<DependencySet> moduleDependencySets = new HashSet<>();
+            for (final DependencySet ds : dependencySetSetMap.keySet()) {
+                if (isModuleDependent(ds, binaries)) {
+                    moduleDependencySets.add(ds);
+                }
+            }
+            final MavenProject firstModuleProject = moduleProjects.iterator().next();
+
+            final DependencyProjectCache projectCache =
+                    DependencyProjectCache.getInstance(configSource.getMavenSession());
             for (final MavenProject moduleProject : moduleProjects) {
                 LOGGER.debug("Processing binary dependencies for module project: " + moduleProject.getId());
 
                 for (Map.Entry<DependencySet, Set<Artifact>> dependencySetSetEntry : dependencySetSetMap.entrySet()) {
+                    if (moduleProject != firstModuleProject
+                            && !moduleDependencySets.contains(dependencySetSetEntry.getKey())) {
+                        continue;
+                    }
+
                     final AddDependencySetsTask task = new AddDependencySetsTask(
                             Collections.singletonList(dependencySetSetEntry.getKey()),
                             dependencySetSetEntry.getValue(),
@@ -295,13 +327,39 @@ public class ModuleSetAssemblyPhase implements AssemblyArchiverPhase, PhaseOrder
                     task.setModuleArtifact(chosenModuleArtifacts.get(moduleProject));
                     task.setDefaultOutputDirectory(binaries.getOutputDirectory());
                     task.setDefaultOutputFileNameMapping(binaries.getOutputFileNameMapping());
+                    task.setProjectCache(projectCache);
 
                     task.execute(archiver, configSource);
                 }
             }
+            LOGGER.debug("Processed binary dependencies of module set using " + projectCache);
         }
     }
 
+    /**
+     * Tells whether the files added by the given dependency set of module binaries depend on the module they are
+     * added for: the set includes the artifact or the attachments of the module, or its output location references
+     * the module. The other sets add the same artifacts to the same locations for all the modules.
+     */
+    static boolean isModuleDependent(final DependencySet dependencySet, final ModuleBinaries binaries) {
+        if (dependencySet.isUseProjectArtifact() || dependencySet.isUseProjectAttachments()) {
+            return true;
+        }
+
+        final String outputDirectory = dependencySet.getOutputDirectory() != null
+                ? dependencySet.getOutputDirectory()
+                : binaries.getOutputDirectory();
+        final String outputFileNameMapping = dependencySet.getOutputFileNameMapping() != null
+                ? dependencySet.getOutputFileNameMapping()
+                : binaries.getOutputFileNameMapping();
+
+        return referencesModule(outputDirectory) || referencesModule(outputFileNameMapping);
+    }
+
+    private static boolean referencesModule(final String value) {
+        return value != null && value.contains(MODULE_EXPRESSION_PREFIX);
+    }
+
     private List<MavenProject> validateModuleVersions(Set<MavenProject> moduleProjects) {
         List<MavenProject> result = new ArrayList<>();
 
@@ -473,9 +531,9 @@ public class ModuleSetAssemblyPhase implements AssemblyArchiverPhase, PhaseOrder
         fs.setLineEnding(fileSet.getLineEnding());
 
         FixedStringSearchInterpolator moduleProjectInterpolator =
-                AssemblyFormatUtils.moduleProjectInterpolator(moduleProject);
+                InterpolationContext.of(configSource).getModuleProjectInterpolator(moduleProject);
         FixedStringSearchInterpolator artifactProjectInterpolator =
-                AssemblyFormatUtils.artifactProjectInterpolator(moduleProject);
+                InterpolationContext.of(configSource).getArtifactProjectInterpolator(moduleProject);
         String destPathPrefix = "";
         if (sources.isIncludeModuleDirectory()) {
             destPathPrefix = AssemblyFormatUtils.evaluateFileNameMapping(
@@ -26,7 +26,9 @@ import java.util.List;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
 import org.apache.maven.plugins.assembly.archive.ArchiveCreationException;
+import org.apache.maven.plugins.assembly.archive.archiver.MultiDestinationArchiver;
 import org.apache.maven.plugins.assembly.format.AssemblyFormattingException;
+import org.apache.maven.plugins.assembly.interpolation.InterpolationContext;
 import org.apache.maven.plugins.assembly.utils.AssemblyFormatUtils;
 import org.apache.maven.plugins.assembly.utils.TypeConversionUtils;
 import org.apache.maven.project.MavenProject;
@@ -96,8 +98,8 @@ public class AddArtifactTask {
                 outputDirectory,
                 configSource.getFinalName(),
                 configSource,
-                AssemblyFormatUtils.moduleProjectInterpolator(moduleProject),
-                AssemblyFormatUtils.artifactProjectInterpolator(project));
+                InterpolationContext.of(configSource).getModuleProjectInterpolator(moduleProject),
+                InterpolationContext.of(configSource).getArtifactProjectInterpolator(project));
 
         boolean fileModeSet = false;
         boolean dirModeSet = false;
@@ -140,8 +142,8 @@ public class AddArtifactTask {
                 configSource.getProject(),
                 moduleArtifact,
                 configSource,
-                AssemblyFormatUtils.moduleProjectInterpolator(moduleProject),
-                AssemblyFormatUtils.artifactProjectInterpolator(project));
+                InterpolationContext.of(configSource).getModuleProjectInterpolator(moduleProject),
+                InterpolationContext.of(configSource).getArtifactProjectInterpolator(project));
 
         final String outputLocation = destDirectory + tempMapping;
 
@@ -228,8 +230,15 @@ public class AddArtifactTask {
     }
 
     private boolean artifactIsArchiverDestination(Archiver archiver) {
-        return ((artifact.getFile() != null) && (archiver.getDestFile() != null))
-                && artifact.getFile().equals(archiver.getDestFile());
+        final File artifactFile = artifact.getFile();
+        if (artifactFile == null) {
+            return false;
+        }
+        if (artifactFile.equals(archiver.getDestFile())) {
+            return true;
+        }
+        return archiver instanceof MultiDestinationArchiver
+                && ((MultiDestinationArchiver) archiver).getDestFiles().contains(artifactFile);
     }
 
     public void setDirectoryMode(final int directoryMode) {
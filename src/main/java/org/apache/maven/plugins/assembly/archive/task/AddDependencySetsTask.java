@@ -21,11 +21,20 @@ package org.apache.maven.plugins.assembly.archive.task;
 import java.io.File;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
@@ -37,6 +46,7 @@ import org.apache.maven.plugins.assembly.InvalidAssemblerConfigurationException;
 import org.apache.maven.plugins.assembly.archive.ArchiveCreationException;
 import org.apache.maven.plugins.assembly.format.AssemblyFormattingException;
 import org.apache.maven.plugins.assembly.format.ReaderFormatter;
+import org.apache.maven.plugins.assembly.interpolation.InterpolationContext;
 import org.apache.maven.plugins.assembly.model.DependencySet;
 import org.apache.maven.plugins.assembly.model.UnpackOptions;
 import org.apache.maven.plugins.assembly.utils.AssemblyFormatUtils;
@@ -73,6 +83,27 @@ public class AddDependencySetsTask {
         NON_ARCHIVE_DEPENDENCY_TYPES = Collections.unmodifiableList(nonArch);
     }
 
+    private static final Pattern EXPRESSION_PATTERN = Pattern.compile("\\$\\{([^}]+)}");
+
+    private static final String ARTIFACT_PREFIX = "artifact.";
+
+    /**
+     * The <code>artifact.*</code> keys of a file name mapping that are served by the artifact and its handler before
+     * the project of the artifact is consulted.
+     */
+    private static final Set<String> ARTIFACT_KEYS = new HashSet<>(Arrays.asList(
+            "groupId", "groupIdPath", "artifactId", "version", "baseVersion", "type", "classifier", "scope",
+            "extension", "id", "dependencyConflictId", "file"));
+
+    /**
+     * The <code>artifact.*</code> keys of an output directory that a project stub resolves like the real project.
+     */
+    private static final Set<String> ARTIFACT_PROJECT_STUB_KEYS =
+            new HashSet<>(Arrays.asList("groupId", "groupIdPath", "artifactId", "version"));
+
+    private static final Set<String> FINAL_NAME_EXPRESSIONS =
+            new HashSet<>(Arrays.asList("finalName", "build.finalName"));
+
     private final List<DependencySet> dependencySets;
 
     private final MavenProject project;
@@ -89,6 +120,8 @@ public class AddDependencySetsTask {
 
     private Artifact moduleArtifact;
 
+    private DependencyProjectCache projectCache = new DependencyProjectCache();
+
     public AddDependencySetsTask(
             final List<DependencySet> dependencySets,
             final Set<Artifact> resolvedArtifacts,
@@ -144,17 +177,39 @@ public class AddDependencySetsTask {
                         unpackOptions.getLineEnding())
                 : null;
 
+        final String outputDirectory = dependencySet.getOutputDirectory();
+        final String outputFileNameMapping = dependencySet.getOutputFileNameMapping();
+        final boolean projectRequired = requiresDependencyProject(
+                outputDirectory == null ? defaultOutputDirectory : outputDirectory,
+                outputFileNameMapping == null ? defaultOutputFileNameMapping : outputFileNameMapping,
+                false);
+        final boolean nonArchiveProjectRequired =
+                requiresDependencyProject(outputDirectory, outputFileNameMapping, true);
+
+        final List<Artifact> projectArtifacts = new ArrayList<>();
+        for (final Artifact depArtifact : dependencyArtifacts) {
+            if (NON_ARCHIVE_DEPENDENCY_TYPES.contains(depArtifact.getType())
+                    ? nonArchiveProjectRequired
+                    : projectRequired) {
+                projectArtifacts.add(depArtifact);
+            }
+        }
+
+        if (projectArtifacts.size() < dependencyArtifacts.size()) {
+            LOGGER.debug("Using project stubs for " + (dependencyArtifacts.size() - projectArtifacts.size())
+                    + " dependency artifacts; their output location does not reference POM data.");
+        }
+
+        final Map<Artifact, MavenProject> depProjects = new IdentityHashMap<>();
+        final List<MavenProject> builtProjects = buildDependencyProjects(projectArtifacts, configSource);
+        for (int i = 0; i < projectArtifacts.size(); i++) {
+            depProjects.put(projectArtifacts.get(i), builtProjects.get(i));
+        }
+
         for (final Artifact depArtifact : dependencyArtifacts) {
-            ProjectBuildingRequest pbr = getProjectBuildingRequest(configSource);
-            MavenProject depProject;
-            try {
-                ProjectBuildingResult build = projectBuilder1.build(depArtifact, pbr);
-                depProject = build.getProject();
-            } catch (final ProjectBuildingException e) {
-                LOGGER.debug("Error retrieving POM of module-dependency: " + depArtifact.getId() + "; Reason: "
-                        + e.getMessage() + "\n\nBuilding stub project instance.");
-
-                depProject = buildProjectStub(depArtifact);
+            MavenProject depProject = depProjects.get(depArtifact);
+            if (depProject == null) {
+                depProject = projectCache.getProjectStub(depArtifact, this::buildProjectStub);
             }
 
             if (NON_ARCHIVE_DEPENDENCY_TYPES.contains(depArtifact.getType())) {
@@ -165,6 +220,110 @@ public class AddDependencySetsTask {
         }
     }
 
+    /**
+     * Checks whether the given output directory or file name mapping references data that only the POM of a
+     * dependency provides, like <code>${artifact.properties.*}</code> or <code>${artifact.build.*}</code>. If not, a
+     * project stub built from the artifact itself yields the same output location.
+     *
+     * @param outputDirectory the output directory, may be null
+     * @param outputFileNameMapping the output file name mapping, may be null
+     * @param finalNameFromProject whether <code>${finalName}</code> in the output directory is taken from the project
+     *                             of the dependency, as for non-archive dependencies
+     * @return true if the project of the dependency has to be built
+     */
+    static boolean requiresDependencyProject(
+            final String outputDirectory, final String outputFileNameMapping, final boolean finalNameFromProject) {
+        if (outputDirectory != null) {
+            final Matcher matcher = EXPRESSION_PATTERN.matcher(outputDirectory);
+            while (matcher.find()) {
+                final String expression = matcher.group(1);
+                if (finalNameFromProject && FINAL_NAME_EXPRESSIONS.contains(expression)) {
+                    return true;
+                }
+                if (expression.startsWith(ARTIFACT_PREFIX)
+                        && !ARTIFACT_PROJECT_STUB_KEYS.contains(expression.substring(ARTIFACT_PREFIX.length()))) {
+                    return true;
+                }
+            }
+        }
+
+        if (outputFileNameMapping != null) {
+            final Matcher matcher = EXPRESSION_PATTERN.matcher(outputFileNameMapping);
+            while (matcher.find()) {
+                final String expression = matcher.group(1);
+                if (expression.startsWith(ARTIFACT_PREFIX)) {
+                    final String key = expression.substring(ARTIFACT_PREFIX.length());
+                    if (!ARTIFACT_KEYS.contains(key) && !key.startsWith("handler.")) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Builds the projects of the given artifacts, on a bounded thread pool if more than one project building thread
+     * is configured. The returned list has the same order as the given artifacts.
+     */
+    List<MavenProject> buildDependencyProjects(
+            final List<Artifact> depArtifacts, final AssemblerConfigurationSource configSource)
+            throws ArchiveCreationException {
+        final List<MavenProject> depProjects = new ArrayList<>(depArtifacts.size());
+
+        final int threads =
+                depArtifacts.size() > 1 ? Math.min(configSource.getProjectBuildingThreads(), depArtifacts.size()) : 1;
+        if (threads <= 1) {
+            for (final Artifact depArtifact : depArtifacts) {
+                depProjects.add(buildDependencyProject(depArtifact, configSource));
+            }
+            return depProjects;
+        }
+
+        LOGGER.debug("Building " + depArtifacts.size() + " dependency projects using " + threads + " threads.");
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<MavenProject>> futures = new ArrayList<>(depArtifacts.size());
+            for (final Artifact depArtifact : depArtifacts) {
+                futures.add(executor.submit(() -> buildDependencyProject(depArtifact, configSource)));
+            }
+
+            for (final Future<MavenProject> future : futures) {
+                depProjects.add(future.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ArchiveCreationException("Interrupted while building dependency projects.", e);
+        } catch (final ExecutionException e) {
+            throw new ArchiveCreationException(
+                    "Error building dependency project: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return depProjects;
+    }
+
+    private MavenProject buildDependencyProject(
+            final Artifact depArtifact, final AssemblerConfigurationSource configSource) {
+        return projectCache.getProject(depArtifact, artifact -> buildProject(artifact, configSource));
+    }
+
+    private MavenProject buildProject(final Artifact depArtifact, final AssemblerConfigurationSource configSource) {
+        ProjectBuildingRequest pbr = getProjectBuildingRequest(configSource);
+        try {
+            ProjectBuildingResult build = projectBuilder1.build(depArtifact, pbr);
+            return build.getProject();
+        } catch (final ProjectBuildingException e) {
+            LOGGER.debug("Error retrieving POM of module-dependency: " + depArtifact.getId() + "; Reason: "
+                    + e.getMessage() + "\n\nBuilding stub project instance.");
+
+            return projectCache.getProjectStub(depArtifact, this::buildProjectStub);
+        }
+    }
+
     private ProjectBuildingRequest getProjectBuildingRequest(AssemblerConfigurationSource configSource) {
         return new DefaultProjectBuildingRequest(configSource.getMavenSession().getProjectBuildingRequest())
                 .setValidationLevel(ModelBuildingRequest.VALIDATION_LEVEL_MINIMAL)
@@ -326,9 +485,9 @@ public class AddDependencySetsTask {
         String outputDirectory = dependencySet.getOutputDirectory();
 
         FixedStringSearchInterpolator moduleProjectInterpolator =
-                AssemblyFormatUtils.moduleProjectInterpolator(moduleProject);
+                InterpolationContext.of(configSource).getModuleProjectInterpolator(moduleProject);
         FixedStringSearchInterpolator artifactProjectInterpolator =
-                AssemblyFormatUtils.artifactProjectInterpolator(depProject);
+                InterpolationContext.of(configSource).getArtifactProjectInterpolator(depProject);
         outputDirectory = AssemblyFormatUtils.getOutputDirectory(
                 outputDirectory,
                 depProject.getBuild().getFinalName(),
@@ -385,4 +544,8 @@ public class AddDependencySetsTask {
     public void setModuleArtifact(final Artifact moduleArtifact) {
         this.moduleArtifact = moduleArtifact;
     }
+
+    public void setProjectCache(final DependencyProjectCache projectCache) {
+        this.projectCache = projectCache;
+    }
 }
@@ -28,6 +28,7 @@ import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
 import org.apache.maven.plugins.assembly.archive.ArchiveCreationException;
 import org.apache.maven.plugins.assembly.format.AssemblyFormattingException;
 import org.apache.maven.plugins.assembly.format.ReaderFormatter;
+import org.apache.maven.plugins.assembly.interpolation.InterpolationContext;
 import org.apache.maven.plugins.assembly.model.FileSet;
 import org.apache.maven.plugins.assembly.utils.AssemblyFileUtils;
 import org.apache.maven.plugins.assembly.utils.AssemblyFormatUtils;
@@ -106,8 +107,8 @@ public class AddFileSetsTask {
                 destDirectory,
                 configSource.getFinalName(),
                 configSource,
-                AssemblyFormatUtils.moduleProjectInterpolator(moduleProject),
-                AssemblyFormatUtils.artifactProjectInterpolator(project));
+                InterpolationContext.of(configSource).getModuleProjectInterpolator(moduleProject),
+                InterpolationContext.of(configSource).getArtifactProjectInterpolator(project));
 
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("FileSet[" + destDirectory + "]" + " dir perms: "
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.archive.task;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+
+/**
+ * Cache of the projects built for dependency artifacts, and of the project stubs used when their POM is not needed,
+ * keyed by artifact coordinates. One instance is kept in the data of the repository session, so every assembly,
+ * format and module of a build shares the projects built for the same artifact, and with them the interpolators
+ * cached for each project.
+ */
+public final class DependencyProjectCache {
+    private static final String SESSION_KEY = DependencyProjectCache.class.getName();
+
+    private final ConcurrentMap<String, MavenProject> projects = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, MavenProject> stubs = new ConcurrentHashMap<>();
+
+    private final AtomicInteger hits = new AtomicInteger();
+
+    private final AtomicInteger misses = new AtomicInteger();
+
+    DependencyProjectCache() {}
+
+    /**
+     * Returns the cache bound to the given session, creating it on first use. A new, unbound cache is returned if
+     * the session has no repository session.
+     *
+     * @param session the current session, may be {@code null}
+     * @return the project cache
+     */
+    public static DependencyProjectCache getInstance(final MavenSession session) {
+        final RepositorySystemSession repositorySession = session != null ? session.getRepositorySession() : null;
+        if (repositorySession == null) {
+            return new DependencyProjectCache();
+        }
+
+        final SessionData data = repositorySession.getData();
+        Object cache = data.get(SESSION_KEY);
+        while (cache == null) {
+            final DependencyProjectCache created = new DependencyProjectCache();
+            if (data.set(SESSION_KEY, null, created)) {
+                return created;
+            }
+            cache = data.get(SESSION_KEY);
+        }
+
+        // another version of this plugin may have registered its own cache under the same key
+        return cache instanceof DependencyProjectCache ? (DependencyProjectCache) cache : new DependencyProjectCache();
+    }
+
+    /**
+     * Returns the cached project of the given artifact, building it with the given function on a miss.
+     *
+     * @param artifact the dependency artifact
+     * @param builder builds the project (or a stub of it) for the artifact
+     * @return the project of the artifact
+     */
+    MavenProject getProject(final Artifact artifact, final Function<Artifact, MavenProject> builder) {
+        final String key = key(artifact);
+
+        final MavenProject cached = projects.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        final MavenProject project = builder.apply(artifact);
+        final MavenProject existing = projects.putIfAbsent(key, project);
+        return existing != null ? existing : project;
+    }
+
+    /**
+     * Returns the cached project stub of the given artifact, building it with the given function on a miss. Stubs are
+     * kept apart from the projects built from POMs, which they never stand in for.
+     *
+     * @param artifact the dependency artifact
+     * @param builder builds the project stub for the artifact
+     * @return the project stub of the artifact
+     */
+    MavenProject getProjectStub(final Artifact artifact, final Function<Artifact, MavenProject> builder) {
+        return stubs.computeIfAbsent(key(artifact), key -> builder.apply(artifact));
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "dependency project cache: " + projects.size() + " projects, " + stubs.size() + " stubs, " + hits.get()
+                + " hits, " + misses.get() + " misses";
+    }
+
+    private static String key(final Artifact artifact) {
+        return artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getVersion() + ":"
+                + artifact.getType() + ":" + artifact.getClassifier();
+    }
+}
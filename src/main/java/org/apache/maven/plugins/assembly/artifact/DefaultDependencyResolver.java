@@ -24,18 +24,29 @@ import javax.inject.Singleton;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.apache.maven.RepositoryUtils;
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.ArtifactUtils;
 import org.apache.maven.artifact.DefaultArtifact;
 import org.apache.maven.artifact.handler.manager.ArtifactHandlerManager;
 import org.apache.maven.artifact.versioning.VersionRange;
@@ -51,12 +62,14 @@ import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.util.StringUtils;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
 import org.eclipse.aether.collection.CollectRequest;
 import org.eclipse.aether.graph.DefaultDependencyNode;
 import org.eclipse.aether.graph.Dependency;
 import org.eclipse.aether.graph.DependencyFilter;
 import org.eclipse.aether.graph.DependencyNode;
 import org.eclipse.aether.graph.DependencyVisitor;
+import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.resolution.DependencyRequest;
 import org.eclipse.aether.resolution.DependencyResult;
 import org.eclipse.aether.util.filter.DependencyFilterUtils;
@@ -73,6 +86,12 @@ import static java.util.Objects.requireNonNull;
 public class DefaultDependencyResolver implements DependencyResolver {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultDependencyResolver.class);
 
+    /**
+     * The key of the transitive resolutions cached in the data of the repository session, so they are shared by all
+     * the dependency sets and assemblies of the session.
+     */
+    private static final String RESOLUTION_CACHE_KEY = DefaultDependencyResolver.class.getName() + ".resolutions";
+
     private final ArtifactHandlerManager artifactHandlerManager;
 
     private final RepositorySystem repositorySystem;
@@ -91,6 +110,7 @@ public class DefaultDependencyResolver implements DependencyResolver {
             List<DependencySet> dependencySets)
             throws DependencyResolutionException {
         Map<DependencySet, Set<Artifact>> result = new LinkedHashMap<>();
+        final Set<String> resolutionScopes = getResolutionScopes(dependencySets);
 
         for (DependencySet dependencySet : dependencySets) {
 
@@ -98,8 +118,12 @@ public class DefaultDependencyResolver implements DependencyResolver {
 
             final ResolutionManagementInfo info = new ResolutionManagementInfo();
             updateDependencySetResolutionRequirements(
-                    configSource.getMavenSession().getRepositorySession(), dependencySet, info, currentProject);
-            updateModuleSetResolutionRequirements(moduleSet, dependencySet, info, configSource);
+                    configSource.getMavenSession().getRepositorySession(),
+                    dependencySet,
+                    resolutionScopes,
+                    info,
+                    currentProject);
+            updateModuleSetResolutionRequirements(moduleSet, dependencySet, resolutionScopes, info, configSource);
 
             result.put(dependencySet, info.getArtifacts());
         }
@@ -113,6 +137,7 @@ public class DefaultDependencyResolver implements DependencyResolver {
             List<DependencySet> dependencySets)
             throws DependencyResolutionException {
         Map<DependencySet, Set<Artifact>> result = new LinkedHashMap<>();
+        final Set<String> resolutionScopes = getResolutionScopes(dependencySets);
 
         for (DependencySet dependencySet : dependencySets) {
 
@@ -120,7 +145,11 @@ public class DefaultDependencyResolver implements DependencyResolver {
 
             final ResolutionManagementInfo info = new ResolutionManagementInfo();
             updateDependencySetResolutionRequirements(
-                    configSource.getMavenSession().getRepositorySession(), dependencySet, info, currentProject);
+                    configSource.getMavenSession().getRepositorySession(),
+                    dependencySet,
+                    resolutionScopes,
+                    info,
+                    currentProject);
 
             result.put(dependencySet, info.getArtifacts());
         }
@@ -130,6 +159,7 @@ public class DefaultDependencyResolver implements DependencyResolver {
     void updateModuleSetResolutionRequirements(
             ModuleSet set,
             DependencySet dependencySet,
+            final Set<String> resolutionScopes,
             final ResolutionManagementInfo requirements,
             final AssemblerConfigurationSource configSource)
             throws DependencyResolutionException {
@@ -153,7 +183,9 @@ public class DefaultDependencyResolver implements DependencyResolver {
                 updateDependencySetResolutionRequirements(
                         configSource.getMavenSession().getRepositorySession(),
                         dependencySet,
+                        resolutionScopes,
                         requirements,
+                        configSource.getResolutionThreads(),
                         projects.toArray(new MavenProject[0]));
             }
         }
@@ -178,48 +210,131 @@ public class DefaultDependencyResolver implements DependencyResolver {
     void updateDependencySetResolutionRequirements(
             RepositorySystemSession systemSession,
             final DependencySet set,
+            final Set<String> resolutionScopes,
             final ResolutionManagementInfo requirements,
             final MavenProject... projects)
             throws DependencyResolutionException {
-        for (final MavenProject project : projects) {
-            if (project == null) {
-                continue;
-            }
+        updateDependencySetResolutionRequirements(systemSession, set, resolutionScopes, requirements, 1, projects);
+    }
 
-            Set<Artifact> dependencyArtifacts = null;
-            if (set.isUseTransitiveDependencies()) {
-                try {
-                    // we need resolve project again according to requested scope
-                    dependencyArtifacts = resolveTransitive(systemSession, set.getScope(), project);
-                } catch (org.eclipse.aether.resolution.DependencyResolutionException e) {
-                    throw new DependencyResolutionException(e.getMessage(), e);
-                }
-            } else {
-                // FIXME remove using deprecated method
-                dependencyArtifacts = project.getDependencyArtifacts();
-            }
+    /**
+     * Adds the dependencies of the given projects to the requirements. The dependencies of the projects are resolved
+     * on a bounded thread pool if more than one thread is given, and are still added in the order of the projects.
+     */
+    void updateDependencySetResolutionRequirements(
+            RepositorySystemSession systemSession,
+            final DependencySet set,
+            final Set<String> resolutionScopes,
+            final ResolutionManagementInfo requirements,
+            final int threads,
+            final MavenProject... projects)
+            throws DependencyResolutionException {
+        final List<MavenProject> dependentProjects =
+                Arrays.stream(projects).filter(Objects::nonNull).collect(Collectors.toList());
+        final List<Set<Artifact>> projectsArtifacts =
+                getDependencyArtifacts(systemSession, set, resolutionScopes, threads, dependentProjects);
 
+        for (int i = 0; i < dependentProjects.size(); i++) {
+            final Set<Artifact> dependencyArtifacts = projectsArtifacts.get(i);
             requirements.addArtifacts(dependencyArtifacts);
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug(
                         "Dependencies for project: {} are:\n{}",
-                        project.getId(),
+                        dependentProjects.get(i).getId(),
                         StringUtils.join(dependencyArtifacts.iterator(), "\n"));
             }
         }
     }
 
+    private List<Set<Artifact>> getDependencyArtifacts(
+            final RepositorySystemSession systemSession,
+            final DependencySet set,
+            final Set<String> resolutionScopes,
+            final int threads,
+            final List<MavenProject> projects)
+            throws DependencyResolutionException {
+        final List<Set<Artifact>> projectsArtifacts = new ArrayList<>(projects.size());
+
+        // only the transitive resolutions are worth a thread
+        final int poolSize = set.isUseTransitiveDependencies() ? Math.min(threads, projects.size()) : 1;
+        if (poolSize <= 1) {
+            for (final MavenProject project : projects) {
+                projectsArtifacts.add(getDependencyArtifacts(systemSession, set, resolutionScopes, project));
+            }
+            return projectsArtifacts;
+        }
+
+        LOGGER.debug("Resolving the dependencies of {} projects using {} threads.", projects.size(), poolSize);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        try {
+            final List<Future<Set<Artifact>>> futures = new ArrayList<>(projects.size());
+            for (final MavenProject project : projects) {
+                futures.add(executor.submit(
+                        () -> getDependencyArtifacts(systemSession, set, resolutionScopes, project)));
+            }
+
+            for (final Future<Set<Artifact>> future : futures) {
+                projectsArtifacts.add(future.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DependencyResolutionException("Interrupted while resolving project dependencies.", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof DependencyResolutionException) {
+                throw (DependencyResolutionException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new DependencyResolutionException(cause.getMessage(), cause);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return projectsArtifacts;
+    }
+
+    private Set<Artifact> getDependencyArtifacts(
+            final RepositorySystemSession systemSession,
+            final DependencySet set,
+            final Set<String> resolutionScopes,
+            final MavenProject project)
+            throws DependencyResolutionException {
+        if (set.isUseTransitiveDependencies()) {
+            try {
+                // we need resolve project again according to requested scope
+                return resolveTransitive(systemSession, set.getScope(), resolutionScopes, project);
+            } catch (org.eclipse.aether.resolution.DependencyResolutionException e) {
+                throw new DependencyResolutionException(e.getMessage(), e);
+            }
+        }
+        // FIXME remove using deprecated method
+        return project.getDependencyArtifacts();
+    }
+
+    /**
+     * Returns the scopes of the given dependency sets using transitive dependencies, which are resolved at once.
+     */
+    static Set<String> getResolutionScopes(final List<DependencySet> dependencySets) {
+        final Set<String> scopes = new LinkedHashSet<>();
+        for (final DependencySet dependencySet : dependencySets) {
+            if (dependencySet.isUseTransitiveDependencies()) {
+                scopes.add(dependencySet.getScope());
+            }
+        }
+        return scopes;
+    }
+
     private Set<Artifact> resolveTransitive(
-            RepositorySystemSession repositorySession, String scope, MavenProject project)
+            RepositorySystemSession repositorySession,
+            String scope,
+            Set<String> resolutionScopes,
+            MavenProject project)
             throws org.eclipse.aether.resolution.DependencyResolutionException {
 
-        // scope dependency filter
-        DependencyFilter scoopeDependencyFilter = DependencyFilterUtils.classpathFilter(scope);
-
-        // get project dependencies filtered by requested scope
         List<Dependency> dependencies = project.getDependencies().stream()
                 .map(d -> RepositoryUtils.toDependency(d, repositorySession.getArtifactTypeRegistry()))
-                .filter(d -> scoopeDependencyFilter.accept(new DefaultDependencyNode(d), null))
                 .collect(Collectors.toList());
 
         List<Dependency> managedDependencies = Optional.ofNullable(project.getDependencyManagement())
@@ -229,55 +344,190 @@ public class DefaultDependencyResolver implements DependencyResolver {
                         .collect(Collectors.toList()))
                 .orElse(null);
 
-        CollectRequest collectRequest = new CollectRequest();
-        collectRequest.setManagedDependencies(managedDependencies);
-        collectRequest.setRepositories(project.getRemoteProjectRepositories());
-        collectRequest.setDependencies(dependencies);
-        collectRequest.setRootArtifact(RepositoryUtils.toArtifact(project.getArtifact()));
+        // the graph of all the scopes requested together, narrower scopes are derived from it; as conflicts are
+        // resolved across the whole graph, it is only reused for the same scopes
+        final Set<String> scopes = new LinkedHashSet<>(resolutionScopes);
+        scopes.add(scope);
+
+        final ResolutionKey key = new ResolutionKey(project, scopes, dependencies, managedDependencies);
+        final Map<ResolutionKey, ResolvedGraph> cache = getResolutionCache(repositorySession);
+        ResolvedGraph graph = cache != null ? cache.get(key) : null;
 
-        DependencyRequest request = new DependencyRequest(collectRequest, scoopeDependencyFilter);
+        if (graph == null) {
+            final DependencyFilter resolutionFilter = DependencyFilterUtils.classpathFilter(scopes);
 
-        DependencyResult dependencyResult = repositorySystem.resolveDependencies(repositorySession, request);
+            // get project dependencies filtered by requested scopes
+            final List<Dependency> scopeDependencies = dependencies.stream()
+                    .filter(d -> resolutionFilter.accept(new DefaultDependencyNode(d), null))
+                    .collect(Collectors.toList());
 
-        // cache for artifact mapping
-        Map<org.eclipse.aether.artifact.Artifact, Artifact> aetherToMavenArtifacts = new HashMap<>();
-        Deque<String> stack = new ArrayDeque<>();
-        stack.push(project.getArtifact().getId());
+            CollectRequest collectRequest = new CollectRequest();
+            collectRequest.setManagedDependencies(managedDependencies);
+            collectRequest.setRepositories(project.getRemoteProjectRepositories());
+            collectRequest.setDependencies(scopeDependencies);
+            collectRequest.setRootArtifact(RepositoryUtils.toArtifact(project.getArtifact()));
 
-        Set<Artifact> artifacts = new HashSet<>();
+            DependencyRequest request = new DependencyRequest(collectRequest, resolutionFilter);
 
-        // we need rebuild artifact dependencyTrail - it is used by useTransitiveFiltering
-        dependencyResult.getRoot().accept(new DependencyVisitor() {
-            @Override
-            public boolean visitEnter(DependencyNode node) {
-                if (node.getDependency() != null) {
-                    stack.push(aetherToMavenArtifacts
-                            .computeIfAbsent(node.getDependency().getArtifact(), RepositoryUtils::toArtifact)
-                            .getId());
+            DependencyResult dependencyResult = repositorySystem.resolveDependencies(repositorySession, request);
+
+            graph = new ResolvedGraph(scopes, dependencyResult.getRoot(), project.getArtifact().getId());
+            if (cache != null) {
+                final ResolvedGraph previous = cache.putIfAbsent(key, graph);
+                if (previous != null) {
+                    graph = previous;
                 }
+            }
+        } else {
+            LOGGER.debug("Reusing the resolution of the {} dependencies of project: {}", scopes, project.getId());
+        }
+
+        // the artifacts are handed out to be filtered and updated, the cached ones must stay as resolved
+        final Set<Artifact> copies = new LinkedHashSet<>();
+        for (final Artifact artifact : graph.getArtifacts(scope)) {
+            copies.add(ArtifactUtils.copyArtifact(artifact));
+        }
+        return copies;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<ResolutionKey, ResolvedGraph> getResolutionCache(
+            RepositorySystemSession repositorySession) {
+        final SessionData data = repositorySession.getData();
+        if (data == null) {
+            return null;
+        }
+        return (Map<ResolutionKey, ResolvedGraph>)
+                data.computeIfAbsent(RESOLUTION_CACHE_KEY, ConcurrentHashMap::new);
+    }
+
+    /**
+     * Identifies a transitive resolution: the project itself, as its artifact and repositories may be updated during
+     * the session, the scopes resolved together, and the dependencies and managed dependencies it was resolved from.
+     */
+    private static final class ResolutionKey {
+        private final MavenProject project;
+
+        private final Set<String> scopes;
+
+        private final List<Dependency> dependencies;
+
+        private final List<Dependency> managedDependencies;
+
+        private final org.eclipse.aether.artifact.Artifact rootArtifact;
+
+        private final List<RemoteRepository> repositories;
+
+        private final int hashCode;
+
+        ResolutionKey(
+                MavenProject project, Set<String> scopes, List<Dependency> dependencies, List<Dependency> managed) {
+            this.project = project;
+            this.scopes = scopes;
+            this.dependencies = dependencies;
+            this.managedDependencies = managed;
+            this.rootArtifact = RepositoryUtils.toArtifact(project.getArtifact());
+            this.repositories = project.getRemoteProjectRepositories() != null
+                    ? new ArrayList<>(project.getRemoteProjectRepositories())
+                    : null;
+            this.hashCode = Objects.hash(System.identityHashCode(project), scopes, dependencies, managed, rootArtifact);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
                 return true;
             }
+            if (!(o instanceof ResolutionKey)) {
+                return false;
+            }
+            final ResolutionKey that = (ResolutionKey) o;
+            return project == that.project
+                    && scopes.equals(that.scopes)
+                    && dependencies.equals(that.dependencies)
+                    && Objects.equals(managedDependencies, that.managedDependencies)
+                    && Objects.equals(rootArtifact, that.rootArtifact)
+                    && Objects.equals(repositories, that.repositories);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 
-            @Override
-            public boolean visitLeave(DependencyNode node) {
-                Dependency dependency = node.getDependency();
-                if (dependency != null) {
-                    Artifact artifact = aetherToMavenArtifacts.computeIfAbsent(
-                            dependency.getArtifact(), RepositoryUtils::toArtifact);
-                    if (artifact.isResolved() && artifact.getFile() != null) {
-                        List<String> depTrail = new ArrayList<>();
-                        stack.descendingIterator().forEachRemaining(depTrail::add);
-                        artifact.setDependencyTrail(depTrail);
-                        artifact.setOptional(dependency.isOptional());
-                        artifact.setScope(dependency.getScope());
-                        artifacts.add(artifact);
+    /**
+     * The dependency graph of a project resolved for some scopes, and the artifacts of each of them derived from it.
+     */
+    private static final class ResolvedGraph {
+        private final Set<String> scopes;
+
+        private final DependencyNode root;
+
+        private final String rootId;
+
+        private final Map<String, Set<Artifact>> artifactsByScope = new ConcurrentHashMap<>();
+
+        ResolvedGraph(Set<String> scopes, DependencyNode root, String rootId) {
+            this.scopes = scopes;
+            this.root = root;
+            this.rootId = rootId;
+        }
+
+        Set<Artifact> getArtifacts(String scope) {
+            return artifactsByScope.computeIfAbsent(scope, this::collectArtifacts);
+        }
+
+        private Set<Artifact> collectArtifacts(String scope) {
+            // a graph resolved for this scope alone holds nothing else
+            final DependencyFilter scopeFilter =
+                    scopes.equals(Collections.singleton(scope)) ? null : DependencyFilterUtils.classpathFilter(scope);
+
+            // cache for artifact mapping
+            Map<org.eclipse.aether.artifact.Artifact, Artifact> aetherToMavenArtifacts = new HashMap<>();
+            Deque<String> stack = new ArrayDeque<>();
+            stack.push(rootId);
+            LinkedList<DependencyNode> parents = new LinkedList<>();
+
+            Set<Artifact> artifacts = new HashSet<>();
+
+            // we need rebuild artifact dependencyTrail - it is used by useTransitiveFiltering
+            root.accept(new DependencyVisitor() {
+                @Override
+                public boolean visitEnter(DependencyNode node) {
+                    if (node.getDependency() != null) {
+                        stack.push(aetherToMavenArtifacts
+                                .computeIfAbsent(node.getDependency().getArtifact(), RepositoryUtils::toArtifact)
+                                .getId());
                     }
-                    stack.pop();
+                    parents.push(node);
+                    return true;
                 }
-                return true;
-            }
-        });
 
-        return artifacts;
+                @Override
+                public boolean visitLeave(DependencyNode node) {
+                    parents.pop();
+                    Dependency dependency = node.getDependency();
+                    if (dependency != null) {
+                        Artifact artifact = aetherToMavenArtifacts.computeIfAbsent(
+                                dependency.getArtifact(), RepositoryUtils::toArtifact);
+                        if (artifact.isResolved()
+                                && artifact.getFile() != null
+                                && (scopeFilter == null || scopeFilter.accept(node, parents))) {
+                            List<String> depTrail = new ArrayList<>();
+                            stack.descendingIterator().forEachRemaining(depTrail::add);
+                            artifact.setDependencyTrail(depTrail);
+                            artifact.setOptional(dependency.isOptional());
+                            artifact.setScope(dependency.getScope());
+                            artifacts.add(artifact);
+                        }
+                        stack.pop();
+                    }
+                    return true;
+                }
+            });
+
+            return artifacts;
+        }
     }
 }
@@ -19,30 +19,28 @@
 package org.apache.maven.plugins.assembly.filter;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.maven.plugins.assembly.utils.AssemblyFileUtils;
 import org.codehaus.plexus.archiver.Archiver;
 import org.codehaus.plexus.archiver.ArchiverException;
-import org.codehaus.plexus.archiver.ResourceIterator;
 import org.codehaus.plexus.archiver.UnArchiver;
 import org.codehaus.plexus.components.io.fileselectors.FileInfo;
+import org.codehaus.plexus.components.io.resources.PlexusIoResource;
 
 abstract class AbstractLineAggregatingHandler implements ContainerDescriptorHandler {
 
-    private Map<String, List<String>> catalog = new HashMap<>();
-
-    private boolean excludeOverride = false;
+    private Map<String, Set<String>> catalog = new HashMap<>();
 
     protected abstract String getOutputPathPrefix(FileInfo fileInfo);
 
@@ -52,47 +50,23 @@ abstract class AbstractLineAggregatingHandler implements ContainerDescriptorHand
         return "UTF-8";
     }
 
-    /**
-     * Creates the output stream the aggregated lines are written to.
-     *
-     * @param path the path of the temporary file the aggregated content is written to
-     * @return the output stream to write the aggregated content to
-     * @throws IOException if the output stream cannot be created
-     */
-    OutputStream newAggregationOutputStream(final Path path) throws IOException {
-        return Files.newOutputStream(path);
-    }
-
     @Override
     public void finalizeArchiveCreation(final Archiver archiver) {
-        // this will prompt the isSelected() call, below, for all resources added to the archive.
-        // FIXME: This needs to be corrected in the AbstractArchiver, where
-        // runArchiveFinalizers() is called before regular resources are added...
-        // which is done because the manifest needs to be added first, and the
-        // manifest-creation component is a finalizer in the assembly plugin...
-        for (final ResourceIterator it = archiver.getResources(); it.hasNext(); ) {
-            it.next();
-        }
-
-        addToArchive(archiver);
+        // the aggregated files are created once the archiver reaches them, after all other resources were selected
+        archiver.addResources(new DeferredResourceCollection(this::createResources));
     }
 
-    void addToArchive(final Archiver archiver) {
-        for (final Map.Entry<String, List<String>> entry : catalog.entrySet()) {
+    List<PlexusIoResource> createResources() {
+        final List<PlexusIoResource> resources = new ArrayList<>(catalog.size());
+        for (final Map.Entry<String, Set<String>> entry : catalog.entrySet()) {
             final String name = entry.getKey();
             final String fname = new File(name).getName();
 
-            File f;
-            try {
-                f = Files.createTempFile("assembly-" + fname, ".tmp").toFile();
-                f.deleteOnExit();
-
-                try (OutputStreamWriter writer =
-                        new OutputStreamWriter(newAggregationOutputStream(f.toPath()), getEncoding())) {
-                    for (final String line : entry.getValue()) {
-                        writer.write(line);
-                        writer.write('\n');
-                    }
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
+            try (OutputStreamWriter writer = new OutputStreamWriter(content, getEncoding())) {
+                for (final String line : entry.getValue()) {
+                    writer.write(line);
+                    writer.write('\n');
                 }
             } catch (final IOException e) {
                 throw new ArchiverException(
@@ -101,10 +75,9 @@ abstract class AbstractLineAggregatingHandler implements ContainerDescriptorHand
                         e);
             }
 
-            excludeOverride = true;
-            archiver.addFile(f, name);
-            excludeOverride = false;
+            resources.add(new InMemoryResource(name, content.toByteArray()));
         }
+        return resources;
     }
 
     @Override
@@ -117,15 +90,11 @@ abstract class AbstractLineAggregatingHandler implements ContainerDescriptorHand
 
     @Override
     public boolean isSelected(final FileInfo fileInfo) throws IOException {
-        if (excludeOverride) {
-            return true;
-        }
-
         String name = AssemblyFileUtils.normalizeFileInfo(fileInfo);
 
         if (fileInfo.isFile() && fileMatches(fileInfo)) {
             name = getOutputPathPrefix(fileInfo) + new File(name).getName();
-            List<String> lines = catalog.computeIfAbsent(name, k -> new ArrayList<>());
+            Set<String> lines = catalog.computeIfAbsent(name, k -> new LinkedHashSet<>());
             readLines(fileInfo, lines);
             return false;
         }
@@ -133,21 +102,20 @@ abstract class AbstractLineAggregatingHandler implements ContainerDescriptorHand
         return true;
     }
 
-    void readLines(final FileInfo fileInfo, final List<String> lines) throws IOException {
+    void readLines(final FileInfo fileInfo, final Set<String> lines) throws IOException {
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(fileInfo.getContents(), getEncoding()))) {
             for (String line = reader.readLine(); line != null; line = reader.readLine()) {
-                if (!lines.contains(line)) {
-                    lines.add(line);
-                }
+                // keeps the first occurrence, in the order the lines were read
+                lines.add(line);
             }
         }
     }
 
-    protected final Map<String, List<String>> getCatalog() {
+    protected final Map<String, Set<String>> getCatalog() {
         return catalog;
     }
 
-    protected final void setCatalog(final Map<String, List<String>> catalog) {
+    protected final void setCatalog(final Map<String, Set<String>> catalog) {
         this.catalog = catalog;
     }
 }
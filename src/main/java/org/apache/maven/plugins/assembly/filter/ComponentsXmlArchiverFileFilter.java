@@ -21,28 +21,29 @@ package org.apache.maven.plugins.assembly.filter;
 import javax.inject.Named;
 
 import java.io.BufferedReader;
-import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringWriter;
 import java.io.Writer;
-import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.io.input.XmlStreamReader;
-import org.apache.commons.io.output.XmlStreamWriter;
 import org.codehaus.plexus.archiver.Archiver;
-import org.codehaus.plexus.archiver.ArchiverException;
-import org.codehaus.plexus.archiver.ResourceIterator;
 import org.codehaus.plexus.archiver.UnArchiver;
 import org.codehaus.plexus.components.io.fileselectors.FileInfo;
-import org.codehaus.plexus.util.xml.Xpp3Dom;
-import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
-import org.codehaus.plexus.util.xml.Xpp3DomWriter;
+import org.codehaus.plexus.components.io.resources.PlexusIoResource;
+import org.codehaus.plexus.util.xml.PrettyPrintXMLWriter;
+import org.codehaus.plexus.util.xml.XMLWriter;
+import org.codehaus.plexus.util.xml.pull.MXParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParser;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * <code>plexus</code>: Plexus Components XML file filter <code>META-INF/plexus/components.xml</code>.
  *
@@ -53,83 +54,143 @@ import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 public class ComponentsXmlArchiverFileFilter implements ContainerDescriptorHandler {
     public static final String COMPONENTS_XML_PATH = "META-INF/plexus/components.xml";
 
-    // [jdcasey] Switched visibility to protected to allow testing. Also, because this class isn't final, it should
-    // allow
-    // some minimal access to the components accumulated for extending classes.
-    Map<String, Xpp3Dom> components;
-
-    private boolean excludeOverride = false;
+    private static final String LS = System.lineSeparator();
 
-    void addComponentsXml(final Reader componentsReader) throws XmlPullParserException, IOException {
-        Xpp3Dom newDom = Xpp3DomBuilder.build(componentsReader);
+    private static final byte[] COMPONENT_SET_START = ("<component-set>" + LS + "  <components>").getBytes(UTF_8);
 
-        if (newDom != null) {
-            newDom = newDom.getChild("components");
-        }
+    private static final byte[] COMPONENT_START = (LS + "    ").getBytes(UTF_8);
 
-        if (newDom != null) {
-            final Xpp3Dom[] children = newDom.getChildren();
+    private static final byte[] COMPONENT_SET_END = (LS + "  </components>" + LS + "</component-set>").getBytes(UTF_8);
 
-            for (final Xpp3Dom component : children) {
-                if (components == null) {
-                    components = new LinkedHashMap<>();
-                }
-
-                final String role = component.getChild("role").getValue();
-                final Xpp3Dom child = component.getChild("role-hint");
-                final String roleHint = child != null ? child.getValue() : "";
+    // [jdcasey] Switched visibility to protected to allow testing. Also, because this class isn't final, it should
+    // allow
+    // some minimal access to the components accumulated for extending classes.
+    // Each component is kept as its UTF-8 encoded XML, keyed by role and role-hint.
+    Map<String, byte[]> components;
 
-                final String key = role + roleHint;
-                if (!components.containsKey(key)) {
-                    components.put(key, component);
+    void addComponentsXml(final Reader componentsReader) throws XmlPullParserException, IOException {
+        final XmlPullParser parser = new MXParser();
+        parser.setInput(componentsReader);
+
+        boolean componentsFound = false;
+        for (int event = parser.getEventType(); event != XmlPullParser.END_DOCUMENT; event = parser.next()) {
+            if (event == XmlPullParser.START_TAG
+                    && parser.getDepth() == 2
+                    && !componentsFound
+                    && "components".equals(parser.getName())) {
+                componentsFound = true;
+
+                for (int child = parser.next(); child != XmlPullParser.END_TAG; child = parser.next()) {
+                    if (child == XmlPullParser.START_TAG) {
+                        addComponent(parser);
+                    }
                 }
             }
         }
     }
 
-    private void addToArchive(final Archiver archiver) throws IOException {
-        if (components != null) {
-            final File f = Files.createTempFile("maven-assembly-plugin", "tmp").toFile();
-            f.deleteOnExit();
+    /**
+     * Copies the component the parser is at, up to its end tag, as <code>Xpp3DomWriter</code> would write it once
+     * read by <code>Xpp3DomBuilder</code>, and keeps it unless one with the same role and role-hint was already found.
+     */
+    private void addComponent(final XmlPullParser parser) throws XmlPullParserException, IOException {
+        final StringWriter component = new StringWriter();
+        final XMLWriter writer = new ComponentWriter(component);
+
+        writer.startElement(parser.getName());
+        copyAttributes(parser, writer);
+
+        String role = null;
+        String roleHint = null;
+        boolean roleFound = false;
+        boolean roleHintFound = false;
+        for (int eventType = parser.next(); eventType != XmlPullParser.END_TAG; eventType = parser.next()) {
+            if (eventType == XmlPullParser.START_TAG) {
+                final String name = parser.getName();
+                final String value = copyElement(parser, writer);
+                if (!roleFound && "role".equals(name)) {
+                    role = value;
+                    roleFound = true;
+                } else if (!roleHintFound && "role-hint".equals(name)) {
+                    roleHint = value;
+                    roleHintFound = true;
+                }
+            }
+        }
+        writer.endElement();
 
-            try (Writer fileWriter = XmlStreamWriter.builder()
-                    .setOutputStream(Files.newOutputStream(f.toPath()))
-                    .get()) {
-                final Xpp3Dom dom = new Xpp3Dom("component-set");
-                final Xpp3Dom componentDom = new Xpp3Dom("components");
-                dom.addChild(componentDom);
+        if (!roleFound) {
+            throw new XmlPullParserException("Component without role", parser, null);
+        }
 
-                for (final Xpp3Dom component : components.values()) {
-                    componentDom.addChild(component);
-                }
+        if (components == null) {
+            components = new LinkedHashMap<>();
+        }
+        components.putIfAbsent(role + (roleHintFound ? roleHint : ""), component.toString().getBytes(UTF_8));
+    }
 
-                Xpp3DomWriter.write(fileWriter, dom);
+    /**
+     * Copies the element the parser is at, up to its end tag.
+     *
+     * @return the trimmed text of the element, or <code>null</code> if it is an empty tag or has child elements
+     */
+    private static String copyElement(final XmlPullParser parser, final XMLWriter writer)
+            throws XmlPullParserException, IOException {
+        final boolean emptyTag = parser.isEmptyElementTag();
+
+        writer.startElement(parser.getName());
+        copyAttributes(parser, writer);
+
+        final StringBuilder value = new StringBuilder();
+        boolean hasChildren = false;
+        for (int eventType = parser.next(); eventType != XmlPullParser.END_TAG; eventType = parser.next()) {
+            if (eventType == XmlPullParser.START_TAG) {
+                hasChildren = true;
+                copyElement(parser, writer);
+            } else if (eventType == XmlPullParser.TEXT) {
+                value.append(parser.getText().trim());
             }
+        }
+
+        final String text = emptyTag || hasChildren ? null : value.toString();
+        if (text != null) {
+            writer.writeText(text);
+        }
+        writer.endElement();
+        return text;
+    }
 
-            excludeOverride = true;
+    private static void copyAttributes(final XmlPullParser parser, final XMLWriter writer) {
+        for (int i = 0; i < parser.getAttributeCount(); i++) {
+            writer.addAttribute(parser.getAttributeName(i), parser.getAttributeValue(i));
+        }
+    }
 
-            archiver.addFile(f, COMPONENTS_XML_PATH);
+    List<PlexusIoResource> createResources() {
+        if (components == null) {
+            return Collections.emptyList();
+        }
 
-            excludeOverride = false;
+        final List<byte[]> parts = new ArrayList<>(2 * components.size() + 2);
+        parts.add(COMPONENT_SET_START);
+        for (final byte[] component : components.values()) {
+            parts.add(COMPONENT_START);
+            parts.add(component);
         }
+        parts.add(COMPONENT_SET_END);
+
+        return Collections.singletonList(new InMemoryResource(COMPONENTS_XML_PATH, parts));
     }
 
     @Override
     public void finalizeArchiveCreation(final Archiver archiver) {
-        // this will prompt the isSelected() call, below, for all resources added to the archive.
-        // FIXME: This needs to be corrected in the AbstractArchiver, where
-        // runArchiveFinalizers() is called before regular resources are added...
-        // which is done because the manifest needs to be added first, and the
-        // manifest-creation component is a finalizer in the assembly plugin...
-        for (final ResourceIterator it = archiver.getResources(); it.hasNext(); ) {
-            it.next();
-        }
+        // the component-set is created once the archiver reaches it, after all other resources were selected
+        archiver.addResources(new DeferredResourceCollection(this::createResources));
+    }
 
-        try {
-            addToArchive(archiver);
-        } catch (final IOException e) {
-            throw new ArchiverException("Error finalizing component-set for archive. Reason: " + e.getMessage(), e);
-        }
+    @Override
+    public List<String> getPathPrefixes() {
+        return Collections.singletonList(COMPONENTS_XML_PATH);
     }
 
     @Override
@@ -144,10 +205,6 @@ public class ComponentsXmlArchiverFileFilter implements ContainerDescriptorHandl
     @Override
     public boolean isSelected(final FileInfo fileInfo) throws IOException {
         if (fileInfo.isFile()) {
-            if (excludeOverride) {
-                return true;
-            }
-
             String entry = fileInfo.getName().replace('\\', '/');
 
             if (entry.startsWith("/")) {
@@ -173,4 +230,14 @@ public class ComponentsXmlArchiverFileFilter implements ContainerDescriptorHandl
 
     @Override
     public void finalizeArchiveExtraction(final UnArchiver unarchiver) {}
+
+    /**
+     * Writes a component with the indentation it has in the merged <code>components.xml</code>.
+     */
+    private static final class ComponentWriter extends PrettyPrintXMLWriter {
+        ComponentWriter(final Writer writer) {
+            super(writer);
+            setDepth(2);
+        }
+    }
 }
@@ -18,10 +18,27 @@
  */
 package org.apache.maven.plugins.assembly.filter;
 
+import java.util.List;
+
 import org.codehaus.plexus.archiver.ArchiveFinalizer;
+import org.codehaus.plexus.components.io.fileselectors.FileInfo;
 import org.codehaus.plexus.components.io.fileselectors.FileSelector;
 
 /**
  *
  */
-public interface ContainerDescriptorHandler extends ArchiveFinalizer, FileSelector {}
+public interface ContainerDescriptorHandler extends ArchiveFinalizer, FileSelector {
+
+    /**
+     * Returns the path prefixes of the files this handler may aggregate. The assembly archiver does not pass the files
+     * outside of them to {@link #isSelected(FileInfo)}, so the handler must select all of them. Paths are compared
+     * with <code>/</code> separators and without a leading <code>/</code>.
+     *
+     * @return the path prefixes of the files this handler may aggregate, or <code>null</code>, the default, when the
+     *         handler has to see every file
+     * @since 3.8.1
+     */
+    default List<String> getPathPrefixes() {
+        return null;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.filter;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.io.function.IOSupplier;
+import org.codehaus.plexus.components.io.resources.AbstractPlexusIoResourceCollection;
+import org.codehaus.plexus.components.io.resources.PlexusIoResource;
+import org.codehaus.plexus.components.io.resources.Stream;
+
+/**
+ * A resource collection a container descriptor handler adds from its finalizer, whose resources are only created when
+ * the archiver reaches it. As finalizers run before any other resource is iterated, and this collection is the last
+ * one added, every resource of the archive went through the handler by then, in the same pass that writes them.
+ * <p>
+ * The resources are created once: the up-to-date check and the write pass of the archiver both iterate the
+ * collection, and the handlers see every resource again in the second one.
+ */
+final class DeferredResourceCollection extends AbstractPlexusIoResourceCollection {
+
+    private final IOSupplier<List<PlexusIoResource>> supplier;
+
+    private List<PlexusIoResource> resources;
+
+    DeferredResourceCollection(final IOSupplier<List<PlexusIoResource>> supplier) {
+        this.supplier = supplier;
+    }
+
+    @Override
+    public synchronized Iterator<PlexusIoResource> getResources() throws IOException {
+        if (resources == null) {
+            resources = supplier.get();
+        }
+        return resources.iterator();
+    }
+
+    @Override
+    public Stream stream() {
+        return consumer -> {
+            for (final Iterator<PlexusIoResource> it = getResources(); it.hasNext(); ) {
+                consumer.accept(it.next());
+            }
+        };
+    }
+
+    @Override
+    public boolean isConcurrentAccessSupported() {
+        return true;
+    }
+}
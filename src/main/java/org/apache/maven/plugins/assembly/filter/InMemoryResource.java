@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.filter;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.plexus.components.io.resources.AbstractPlexusIoResource;
+
+/**
+ * A file resource holding the content a container descriptor handler aggregated, added to the archive without
+ * going through a temporary file.
+ */
+final class InMemoryResource extends AbstractPlexusIoResource {
+
+    private final List<byte[]> parts;
+
+    InMemoryResource(final String name, final byte[] content) {
+        this(name, Collections.singletonList(content));
+    }
+
+    /**
+     * Creates a resource whose content is the concatenation of the given parts, so they don't need to be copied into
+     * a single array first.
+     */
+    InMemoryResource(final String name, final List<byte[]> parts) {
+        super(name, System.currentTimeMillis(), size(parts), true, false, true);
+        this.parts = parts;
+    }
+
+    private static long size(final List<byte[]> parts) {
+        long size = 0;
+        for (final byte[] part : parts) {
+            size += part.length;
+        }
+        return size;
+    }
+
+    @Override
+    public InputStream getContents() {
+        if (parts.size() == 1) {
+            return new ByteArrayInputStream(parts.get(0));
+        }
+
+        final List<InputStream> streams = new ArrayList<>(parts.size());
+        for (final byte[] part : parts) {
+            streams.add(new ByteArrayInputStream(part));
+        }
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
+
+    @Override
+    public URL getURL() {
+        return null;
+    }
+}
@@ -21,6 +21,8 @@ package org.apache.maven.plugins.assembly.filter;
 import javax.inject.Named;
 
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
 
 import org.codehaus.plexus.components.io.fileselectors.FileInfo;
 
@@ -32,6 +34,11 @@ public class MetaInfServicesHandler extends AbstractLineAggregatingHandler {
 
     private static final String SERVICES_PATH_PREFIX = "META-INF/services/";
 
+    @Override
+    public List<String> getPathPrefixes() {
+        return Collections.singletonList(SERVICES_PATH_PREFIX);
+    }
+
     @Override
     protected String getOutputPathPrefix(final FileInfo fileInfo) {
         return Paths.get(fileInfo.getName()).getParent().toString() + "/";
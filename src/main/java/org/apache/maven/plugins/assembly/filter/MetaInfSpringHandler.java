@@ -20,6 +20,9 @@ package org.apache.maven.plugins.assembly.filter;
 
 import javax.inject.Named;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.codehaus.plexus.components.io.fileselectors.FileInfo;
 
 /**
@@ -30,6 +33,11 @@ public class MetaInfSpringHandler extends AbstractLineAggregatingHandler {
 
     private static final String SPRING_PATH_PREFIX = "META-INF/";
 
+    @Override
+    public List<String> getPathPrefixes() {
+        return Collections.singletonList(SPRING_PATH_PREFIX + "spring.");
+    }
+
     @Override
     protected String getOutputPathPrefix(final FileInfo fileInfo) {
         return SPRING_PATH_PREFIX;
@@ -20,7 +20,7 @@ package org.apache.maven.plugins.assembly.filter;
 
 import javax.inject.Named;
 
-import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
@@ -28,11 +28,11 @@ import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.maven.plugins.assembly.utils.AssemblyFileUtils;
@@ -48,6 +48,10 @@ import org.codehaus.plexus.components.io.fileselectors.FileInfo;
 public class SimpleAggregatingDescriptorHandler implements ContainerDescriptorHandler {
     // component configuration.
 
+    private static final String REGEX_SPECIAL_CHARS = "\\^$.|?*+()[]{}";
+
+    private static final String REGEX_QUANTIFIER_CHARS = "?*+{";
+
     @SuppressWarnings("FieldCanBeLocal")
     private final String commentChars = "#";
 
@@ -59,9 +63,9 @@ public class SimpleAggregatingDescriptorHandler implements ContainerDescriptorHa
 
     private String filePattern;
 
-    private String outputPath;
+    private Pattern compiledFilePattern;
 
-    private boolean overrideFilterAction;
+    private String outputPath;
 
     @Override
     public void finalizeArchiveCreation(final Archiver archiver) {
@@ -77,45 +81,34 @@ public class SimpleAggregatingDescriptorHandler implements ContainerDescriptorHa
             outputPath = outputPath.substring(1);
         }
 
-        final File temp = writePropertiesFile();
-
-        overrideFilterAction = true;
-
-        archiver.addFile(temp, outputPath);
-
-        overrideFilterAction = false;
+        // the aggregate is created once the archiver reaches it, after all other resources were selected
+        archiver.addResources(new DeferredResourceCollection(
+                () -> Collections.singletonList(new InMemoryResource(outputPath, createPropertiesContent()))));
     }
 
-    private File writePropertiesFile() {
-        File f;
-        try {
-            f = Files.createTempFile("maven-assembly-plugin", "tmp").toFile();
-            f.deleteOnExit();
+    private byte[] createPropertiesContent() {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (Writer writer = getWriter(content)) {
+            writer.write(commentChars + " Aggregated on " + new Date() + " from: ");
 
-            try (Writer writer = getWriter(f)) {
-                writer.write(commentChars + " Aggregated on " + new Date() + " from: ");
-
-                for (final String filename : filenames) {
-                    writer.write("\n" + commentChars + " " + filename);
-                }
-
-                writer.write("\n\n");
-                writer.write(aggregateWriter.toString());
+            for (final String filename : filenames) {
+                writer.write("\n" + commentChars + " " + filename);
             }
+
+            writer.write("\n\n");
+            writer.write(aggregateWriter.toString());
         } catch (final IOException e) {
             throw new ArchiverException(
                     "Error adding aggregated properties to finalize archive creation. Reason: " + e.getMessage(), e);
         }
 
-        return f;
+        return content.toByteArray();
     }
 
-    private Writer getWriter(File f) throws IOException {
-        Writer writer;
-        writer = AssemblyFileUtils.isPropertyFile(f)
-                ? new OutputStreamWriter(Files.newOutputStream(f.toPath()), StandardCharsets.ISO_8859_1)
-                : new OutputStreamWriter(Files.newOutputStream(f.toPath())); // Still platform encoding
-        return writer;
+    private Writer getWriter(final ByteArrayOutputStream content) {
+        return AssemblyFileUtils.isPropertyFile(outputPath)
+                ? new OutputStreamWriter(content, StandardCharsets.ISO_8859_1)
+                : new OutputStreamWriter(content); // Still platform encoding
     }
 
     @Override
@@ -132,13 +125,9 @@ public class SimpleAggregatingDescriptorHandler implements ContainerDescriptorHa
     public boolean isSelected(final FileInfo fileInfo) throws IOException {
         checkConfig();
 
-        if (overrideFilterAction) {
-            return true;
-        }
-
         String name = AssemblyFileUtils.normalizeFileInfo(fileInfo);
 
-        if (fileInfo.isFile() && name.matches(filePattern)) {
+        if (fileInfo.isFile() && getCompiledFilePattern().matcher(name).matches()) {
             readProperties(fileInfo);
             filenames.add(name);
 
@@ -148,6 +137,44 @@ public class SimpleAggregatingDescriptorHandler implements ContainerDescriptorHa
         return true;
     }
 
+    @Override
+    public List<String> getPathPrefixes() {
+        final String prefix = filePattern != null ? literalPrefix(filePattern) : "";
+        return prefix.isEmpty() ? null : Collections.singletonList(prefix);
+    }
+
+    /**
+     * Returns the characters every path matching the given regular expression starts with: those before the first
+     * special character, less the last one when a quantifier may drop it. Nothing is known of the path when the
+     * expression has alternatives.
+     */
+    static String literalPrefix(final String regex) {
+        if (regex.indexOf('|') >= 0) {
+            return "";
+        }
+
+        int end = 0;
+        while (end < regex.length() && REGEX_SPECIAL_CHARS.indexOf(regex.charAt(end)) < 0) {
+            end++;
+        }
+        if (end < regex.length() && REGEX_QUANTIFIER_CHARS.indexOf(regex.charAt(end)) >= 0 && end > 0) {
+            end--;
+        }
+
+        String prefix = regex.substring(0, end);
+        if (prefix.startsWith("/")) {
+            prefix = prefix.substring(1);
+        }
+        return prefix;
+    }
+
+    private Pattern getCompiledFilePattern() {
+        if (compiledFilePattern == null) {
+            compiledFilePattern = Pattern.compile(filePattern);
+        }
+        return compiledFilePattern;
+    }
+
     private void checkConfig() {
         if (filePattern == null || outputPath == null) {
             throw new IllegalStateException(
@@ -176,6 +203,7 @@ public class SimpleAggregatingDescriptorHandler implements ContainerDescriptorHa
     @SuppressWarnings("UnusedDeclaration")
     public void setFilePattern(final String filePattern) {
         this.filePattern = filePattern;
+        this.compiledFilePattern = filePattern != null ? Pattern.compile(filePattern) : null;
     }
 
     @SuppressWarnings("UnusedDeclaration")
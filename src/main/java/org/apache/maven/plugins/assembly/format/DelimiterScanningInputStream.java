@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.format;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.io.function.IOFunction;
+
+/**
+ * Stream that only filters the lines where a filter delimiter starts. The bytes of the source are scanned for the
+ * begin delimiters, and the lines without any are copied unchanged, without decoding and encoding them. Each line with
+ * a delimiter is filtered on its own; as tokens cannot span lines, this gives the same result as filtering the whole
+ * source. When lines with a delimiter are frequent, the rest of the source is filtered at once instead.
+ * <p>
+ * The scanning only works for encodings where the delimiters and the line feed are encoded as the same single bytes
+ * as in US-ASCII, see {@link #beginDelimiters(List, Charset)}.
+ */
+final class DelimiterScanningInputStream extends InputStream {
+    /**
+     * The number of lines always filtered one by one, before checking whether to filter the rest of the source at once.
+     */
+    static final int MAX_FILTERED_LINES = 16;
+
+    /**
+     * The rest of the source is filtered at once when more than one line in this many has to be filtered.
+     */
+    static final int MIN_LINES_PER_FILTERED_LINE = 8;
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final Set<Charset> ASCII_COMPATIBLE_CHARSETS = new LinkedHashSet<>(
+            Arrays.asList(StandardCharsets.US_ASCII, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_8));
+
+    private final InputStream in;
+
+    private final byte[][] delimiters;
+
+    private final IOFunction<InputStream, InputStream> filter;
+
+    private final int maxDelimiterLength;
+
+    private final byte[] single = new byte[1];
+
+    private byte[] buf;
+
+    /**
+     * Start of the bytes not returned yet.
+     */
+    private int start;
+
+    /**
+     * End of the bytes that can be returned unfiltered; it is also the start of the line being scanned.
+     */
+    private int safe;
+
+    /**
+     * End of the scanned bytes.
+     */
+    private int scanned;
+
+    /**
+     * End of the bytes read from the source.
+     */
+    private int end;
+
+    /**
+     * End of the line to filter, or -1.
+     */
+    private int lineEnd = -1;
+
+    private boolean lineHasDelimiter;
+
+    private boolean eof;
+
+    private int filteredLines;
+
+    private int copiedLines;
+
+    private boolean filteringRest;
+
+    private InputStream current;
+
+    /**
+     * @param in         the source.
+     * @param delimiters the encoded begin delimiters, see {@link #beginDelimiters(List, Charset)}.
+     * @param filter     creates the filtered stream of a part of the source.
+     */
+    DelimiterScanningInputStream(
+            final InputStream in, final byte[][] delimiters, final IOFunction<InputStream, InputStream> filter) {
+        this(in, delimiters, filter, DEFAULT_BUFFER_SIZE);
+    }
+
+    DelimiterScanningInputStream(
+            final InputStream in,
+            final byte[][] delimiters,
+            final IOFunction<InputStream, InputStream> filter,
+            final int bufferSize) {
+        this.in = in;
+        this.delimiters = delimiters;
+        this.filter = filter;
+        this.buf = new byte[bufferSize];
+
+        int max = 1;
+        for (byte[] delimiter : delimiters) {
+            max = Math.max(max, delimiter.length);
+        }
+        this.maxDelimiterLength = max;
+    }
+
+    /**
+     * Encodes the begin delimiters of the filtering.
+     *
+     * @param delimiters the configured delimiters, like <code>${*}</code> or <code>@</code>; the defaults are used if
+     *                   there are none.
+     * @param charset    the encoding of the filtered files.
+     * @return the encoded begin delimiters, or <code>null</code> if the bytes of the encoding cannot be scanned.
+     */
+    static byte[][] beginDelimiters(final List<String> delimiters, final Charset charset) {
+        if (!ASCII_COMPATIBLE_CHARSETS.contains(charset)) {
+            return null;
+        }
+
+        final List<String> specs =
+                delimiters == null || delimiters.isEmpty() ? Arrays.asList("${*}", "@") : delimiters;
+        final byte[][] result = new byte[specs.size()][];
+        for (int i = 0; i < result.length; i++) {
+            // as in the filtering, no delimiter means the default expression delimiter
+            final String spec = specs.get(i) == null ? "${*}" : specs.get(i);
+            final int star = spec.indexOf('*');
+            final String begin = star < 0 ? spec : spec.substring(0, star);
+            if (begin.isEmpty()) {
+                return null;
+            }
+            result[i] = begin.getBytes(charset);
+        }
+        return result;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int n = read(single, 0, 1);
+        return n < 0 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (true) {
+            if (current != null) {
+                final int n = current.read(b, off, len);
+                if (n >= 0) {
+                    return n;
+                }
+                current.close();
+                current = null;
+            }
+            if (filteringRest) {
+                return -1;
+            }
+            if (start < safe) {
+                final int n = Math.min(len, safe - start);
+                System.arraycopy(buf, start, b, off, n);
+                start += n;
+                return n;
+            }
+            if (lineEnd >= 0) {
+                filterLine();
+            } else if (eof && start == end) {
+                return -1;
+            } else if (!scan()) {
+                fill();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (current != null) {
+                current.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Scans the buffered bytes for line ends and delimiters.
+     *
+     * @return <code>true</code> if there are more bytes to return or a line to filter, <code>false</code> if more
+     *         bytes must be read first.
+     */
+    private boolean scan() {
+        final int oldSafe = safe;
+        final int limit = eof ? end : end - maxDelimiterLength + 1;
+        while (scanned < end) {
+            if (buf[scanned] == '\n') {
+                scanned++;
+                if (lineHasDelimiter) {
+                    lineEnd = scanned;
+                    return true;
+                }
+                safe = scanned;
+                copiedLines++;
+            } else if (lineHasDelimiter) {
+                scanned++;
+            } else if (scanned < limit) {
+                lineHasDelimiter = isDelimiterAt(scanned);
+                scanned++;
+            } else {
+                break;
+            }
+        }
+        if (eof && scanned == end) {
+            if (lineHasDelimiter) {
+                lineEnd = end;
+                return true;
+            }
+            safe = end;
+        }
+        return safe > oldSafe;
+    }
+
+    private void filterLine() throws IOException {
+        if (++filteredLines > MAX_FILTERED_LINES
+                && filteredLines * MIN_LINES_PER_FILTERED_LINE > filteredLines + copiedLines) {
+            current = filter.apply(new SequenceInputStream(new ByteArrayInputStream(buf, start, end - start), in));
+            filteringRest = true;
+        } else {
+            current = filter.apply(new ByteArrayInputStream(Arrays.copyOfRange(buf, start, lineEnd)));
+            start = lineEnd;
+            safe = lineEnd;
+        }
+        lineEnd = -1;
+        lineHasDelimiter = false;
+    }
+
+    private void fill() throws IOException {
+        if (start > 0) {
+            System.arraycopy(buf, start, buf, 0, end - start);
+            safe -= start;
+            scanned -= start;
+            end -= start;
+            start = 0;
+        }
+        if (end == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+        final int n = in.read(buf, end, buf.length - end);
+        if (n < 0) {
+            eof = true;
+        } else {
+            end += n;
+        }
+    }
+
+    private boolean isDelimiterAt(final int pos) {
+        for (byte[] delimiter : delimiters) {
+            if (pos + delimiter.length <= end && startsWith(pos, delimiter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean startsWith(final int pos, final byte[] delimiter) {
+        for (int i = 0; i < delimiter.length; i++) {
+            if (buf[pos + i] != delimiter[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
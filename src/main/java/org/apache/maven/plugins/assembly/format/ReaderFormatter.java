@@ -22,16 +22,18 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.charset.Charset;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Properties;
 import java.util.Set;
 
+import org.apache.commons.io.function.IOFunction;
 import org.apache.commons.io.input.ReaderInputStream;
 import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
 import org.apache.maven.plugins.assembly.utils.AssemblyFileUtils;
 import org.apache.maven.plugins.assembly.utils.LineEndings;
 import org.apache.maven.plugins.assembly.utils.LineEndingsUtils;
+import org.apache.maven.shared.filtering.FilterWrapper;
 import org.apache.maven.shared.filtering.MavenFilteringException;
 import org.apache.maven.shared.filtering.MavenReaderFilterRequest;
 import org.codehaus.plexus.components.io.functions.InputStreamTransformer;
@@ -41,28 +43,23 @@ import org.codehaus.plexus.components.io.resources.PlexusIoResource;
  *
  */
 public class ReaderFormatter {
-    private static Reader createReaderFilter(
-            Reader source,
-            String escapeString,
-            List<String> delimiters,
-            AssemblerConfigurationSource configSource,
-            boolean isPropertiesFile,
-            Properties additionalProperties)
-            throws IOException {
+    private static List<FilterWrapper> createFilterWrappers(
+            AssemblerConfigurationSource configSource, boolean isPropertiesFile) throws IOException {
         try {
 
             MavenReaderFilterRequest filterRequest = new MavenReaderFilterRequest(
-                    source,
+                    null,
                     true,
                     configSource.getProject(),
                     configSource.getFilters(),
                     isPropertiesFile,
                     configSource.getMavenSession(),
-                    additionalProperties);
+                    configSource.getAdditionalProperties());
 
-            filterRequest.setEscapeString(escapeString);
+            filterRequest.setEscapeString(configSource.getEscapeString());
 
             // if these are NOT set, just use the defaults, which are '${*}' and '@'.
+            final List<String> delimiters = configSource.getDelimiters();
             if (delimiters != null && !delimiters.isEmpty()) {
                 LinkedHashSet<String> delims = new LinkedHashSet<>();
                 for (String delim : delimiters) {
@@ -80,9 +77,23 @@ public class ReaderFormatter {
             }
 
             filterRequest.setInjectProjectBuildFilters(configSource.isIncludeProjectBuildFilters());
-            return configSource.getMavenReaderFilter().filter(filterRequest);
+            return configSource.getMavenReaderFilter().getDefaultFilterWrappers(filterRequest);
         } catch (MavenFilteringException e) {
-            throw new IOException("Error filtering file '" + source + "': " + e.getMessage(), e);
+            throw new IOException("Error setting up filtering: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return The charset of the given encoding, or <code>null</code> if it is not supported; the reader reports it.
+     */
+    private static Charset charsetOf(String encoding) {
+        if (encoding == null) {
+            return Charset.defaultCharset();
+        }
+        try {
+            return Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
 
@@ -114,6 +125,7 @@ public class ReaderFormatter {
         final boolean transformLineEndings = !LineEndings.keep.equals(lineEndingToUse);
 
         if (transformLineEndings || isFiltered) {
+            final FilterWrappers filterWrappers = new FilterWrappers(configSource);
             return new InputStreamTransformer() {
                 @Override
                 public InputStream transform(PlexusIoResource plexusIoResource, InputStream inputStream)
@@ -129,21 +141,25 @@ public class ReaderFormatter {
                     if (isFiltered) {
                         boolean isPropertyFile = AssemblyFileUtils.isPropertyFile(plexusIoResource.getName());
                         final String encoding = isPropertyFile ? "ISO-8859-1" : configSource.getEncoding();
+                        final List<FilterWrapper> wrappers = filterWrappers.get(isPropertyFile);
+
+                        final IOFunction<InputStream, InputStream> filter = in -> {
+                            Reader source = encoding != null
+                                    ? new InputStreamReader(in, encoding)
+                                    : new InputStreamReader(in); // wtf platform encoding ? TODO: Fix this
+                            Reader filtered = configSource.getMavenReaderFilter().filter(source, true, wrappers);
+                            return ReaderInputStream.builder()
+                                    .setReader(filtered)
+                                    .setCharset(encoding)
+                                    .get();
+                        };
 
-                        Reader source = encoding != null
-                                ? new InputStreamReader(inputStream, encoding)
-                                : new InputStreamReader(inputStream); // wtf platform encoding ? TODO: Fix this
-                        Reader filtered = createReaderFilter(
-                                source,
-                                configSource.getEscapeString(),
-                                configSource.getDelimiters(),
-                                configSource,
-                                isPropertyFile,
-                                configSource.getAdditionalProperties());
-                        result = ReaderInputStream.builder()
-                                .setReader(filtered)
-                                .setCharset(encoding)
-                                .get();
+                        // only the lines holding a delimiter need to be decoded and filtered
+                        final byte[][] delimiters = DelimiterScanningInputStream.beginDelimiters(
+                                configSource.getDelimiters(), charsetOf(encoding));
+                        result = delimiters != null
+                                ? new DelimiterScanningInputStream(inputStream, delimiters, filter)
+                                : filter.apply(inputStream);
                     }
                     if (transformLineEndings) {
                         checkifFileTypeIsAppropriateForLineEndingTransformation(plexusIoResource);
@@ -155,4 +171,34 @@ public class ReaderFormatter {
         }
         return null;
     }
+
+    /**
+     * The filter wrappers of a file-set, created once for properties files and once for other files, and shared by all
+     * the files of the file-set. Loading the filter files and setting up the value sources is much more expensive than
+     * filtering a small file.
+     */
+    private static final class FilterWrappers {
+        private final AssemblerConfigurationSource configSource;
+
+        private List<FilterWrapper> wrappers;
+
+        private List<FilterWrapper> propertiesFileWrappers;
+
+        FilterWrappers(AssemblerConfigurationSource configSource) {
+            this.configSource = configSource;
+        }
+
+        synchronized List<FilterWrapper> get(boolean isPropertiesFile) throws IOException {
+            if (isPropertiesFile) {
+                if (propertiesFileWrappers == null) {
+                    propertiesFileWrappers = createFilterWrappers(configSource, true);
+                }
+                return propertiesFileWrappers;
+            }
+            if (wrappers == null) {
+                wrappers = createFilterWrappers(configSource, false);
+            }
+            return wrappers;
+        }
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.interpolation;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
+import org.apache.maven.plugins.assembly.utils.AssemblyFormatUtils;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.interpolation.fixed.FixedStringSearchInterpolator;
+
+/**
+ * The interpolator layers of one assembly run. The layer of the session properties is built once, and the layers of
+ * a module or artifact project once per project instance, instead of once per file set, artifact and file item.
+ */
+public final class InterpolationContext {
+
+    private final AssemblerConfigurationSource configSource;
+
+    private final Map<MavenProject, FixedStringSearchInterpolator> moduleProjectInterpolators =
+            new IdentityHashMap<>();
+
+    private final Map<MavenProject, FixedStringSearchInterpolator> artifactProjectInterpolators =
+            new IdentityHashMap<>();
+
+    private FixedStringSearchInterpolator executionPropertiesInterpolator;
+
+    private int built;
+
+    private int reused;
+
+    /**
+     * @param configSource the configuration of the run
+     */
+    public InterpolationContext(AssemblerConfigurationSource configSource) {
+        this.configSource = configSource;
+    }
+
+    /**
+     * Returns the context of the run, or a context that builds every layer anew if the configuration does not provide
+     * one.
+     *
+     * @param configSource the configuration of the run
+     * @return the interpolation context
+     */
+    public static InterpolationContext of(AssemblerConfigurationSource configSource) {
+        InterpolationContext context = configSource != null ? configSource.getInterpolationContext() : null;
+        return context != null ? context : new InterpolationContext(configSource);
+    }
+
+    /**
+     * @return the interpolator of the user and system properties of the session
+     */
+    public synchronized FixedStringSearchInterpolator getExecutionPropertiesInterpolator() {
+        if (executionPropertiesInterpolator == null) {
+            executionPropertiesInterpolator = AssemblyFormatUtils.executionPropertiesInterpolator(
+                    configSource != null ? configSource.getMavenSession() : null);
+            built++;
+        } else {
+            reused++;
+        }
+        return executionPropertiesInterpolator;
+    }
+
+    /**
+     * @param moduleProject the module project, may be {@code null}
+     * @return the interpolator of the {@code module.} expressions of the project
+     * @see AssemblyFormatUtils#moduleProjectInterpolator(MavenProject)
+     */
+    public FixedStringSearchInterpolator getModuleProjectInterpolator(MavenProject moduleProject) {
+        return get(moduleProjectInterpolators, moduleProject, AssemblyFormatUtils::moduleProjectInterpolator);
+    }
+
+    /**
+     * @param artifactProject the artifact project, may be {@code null}
+     * @return the interpolator of the {@code artifact.} expressions of the project
+     * @see AssemblyFormatUtils#artifactProjectInterpolator(MavenProject)
+     */
+    public FixedStringSearchInterpolator getArtifactProjectInterpolator(MavenProject artifactProject) {
+        return get(artifactProjectInterpolators, artifactProject, AssemblyFormatUtils::artifactProjectInterpolator);
+    }
+
+    /**
+     * @return the number of interpolator layers built so far
+     */
+    public synchronized int getBuilt() {
+        return built;
+    }
+
+    /**
+     * @return the number of times a layer built before was handed out again
+     */
+    public synchronized int getReused() {
+        return reused;
+    }
+
+    private synchronized FixedStringSearchInterpolator get(
+            Map<MavenProject, FixedStringSearchInterpolator> interpolators,
+            MavenProject project,
+            Function<MavenProject, FixedStringSearchInterpolator> factory) {
+        FixedStringSearchInterpolator interpolator = interpolators.get(project);
+        if (interpolator == null) {
+            interpolator = factory.apply(project);
+            interpolators.put(project, interpolator);
+            built++;
+        } else {
+            reused++;
+        }
+        return interpolator;
+    }
+}
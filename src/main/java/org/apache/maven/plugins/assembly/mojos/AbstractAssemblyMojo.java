@@ -20,9 +20,14 @@ package org.apache.maven.plugins.assembly.mojos;
 
 import java.io.File;
 import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.archiver.MavenArchiveConfiguration;
 import org.apache.maven.archiver.MavenArchiver;
@@ -38,9 +43,12 @@ import org.apache.maven.plugins.assembly.InvalidAssemblerConfigurationException;
 import org.apache.maven.plugins.assembly.archive.ArchiveCreationException;
 import org.apache.maven.plugins.assembly.archive.AssemblyArchiver;
 import org.apache.maven.plugins.assembly.format.AssemblyFormattingException;
+import org.apache.maven.plugins.assembly.interpolation.InterpolationContext;
 import org.apache.maven.plugins.assembly.io.AssemblyReadException;
 import org.apache.maven.plugins.assembly.io.AssemblyReader;
 import org.apache.maven.plugins.assembly.model.Assembly;
+import org.apache.maven.plugins.assembly.model.DependencySet;
+import org.apache.maven.plugins.assembly.model.ModuleSet;
 import org.apache.maven.plugins.assembly.utils.AssemblyFormatUtils;
 import org.apache.maven.plugins.assembly.utils.InterpolationConstants;
 import org.apache.maven.project.MavenProject;
@@ -66,6 +74,8 @@ public abstract class AbstractAssemblyMojo extends AbstractMojo implements Assem
 
     protected FixedStringSearchInterpolator rootInterpolator;
 
+    private InterpolationContext interpolationContext;
+
     /**
      * Set to false to exclude the assembly id from the assembly final name, and to create the resultant assembly
      * artifacts without classifier. As such, an assembly artifact having the same format as the packaging of the
@@ -300,6 +310,100 @@ public abstract class AbstractAssemblyMojo extends AbstractMojo implements Assem
     @Parameter
     private String mergeManifestMode;
 
+    /**
+     * The number of threads used to build the POMs of the artifacts included by dependency sets. The projects are
+     * built up front and the artifacts are still added to the archive in their original order. A value of
+     * <code>1</code> builds them one after another on the calling thread.
+     *
+     * @since 3.8.1
+     */
+    @Parameter(property = "assembly.projectBuildingThreads", defaultValue = "1")
+    private int projectBuildingThreads;
+
+    /**
+     * When an assembly has more than one format, run the assembly phases (dependency resolution, file set selection,
+     * interpolation) only once, for the first format, and replay the collected archive entries into the archivers of
+     * the remaining formats.
+     *
+     * @since 3.8.1
+     */
+    @Parameter(property = "assembly.singlePassFormats", defaultValue = "false")
+    private boolean singlePassFormats;
+
+    /**
+     * The number of threads used to create the archives of this execution. Each assembly format (or each assembly,
+     * when <code>singlePassFormats</code> is enabled) is created as a separate task, and every archive gets its own
+     * container descriptor handler instances. The archives are still attached to the project in descriptor and
+     * format order. An assembly that may include the project artifact or its attachments (a dependency set using
+     * <code>useProjectAttachments</code>, or <code>useProjectArtifact</code> with <code>appendAssemblyId</code> set
+     * to <code>false</code>, or a module set with binaries of all the reactor projects) is only created once the
+     * archives of the assemblies before it are attached, so it sees them as when they are created one after another.
+     * Files and file sets are not looked at: an execution where a <code>file</code> or <code>fileSet</code> reads an
+     * archive that another of its assemblies writes must create them one after another.
+     * A value of <code>1</code> creates and attaches them one after another on the calling thread.
+     *
+     * @since 3.8.1
+     */
+    @Parameter(property = "assembly.assemblyThreads", defaultValue = "1")
+    private int assemblyThreads;
+
+    /**
+     * The number of threads used to compress the <code>tar.gz</code> and <code>tar.zst</code> formats (and their
+     * short forms). When greater than <code>1</code>, the tar is cut into blocks that are compressed independently, as
+     * concatenated gzip members or zstd frames, which the standard tools and Java readers decompress as usual. The
+     * output does not depend on the number of threads. A value of <code>1</code> keeps the single stream compression
+     * of the archiver. The other compressed tar formats are always compressed as a single stream.
+     *
+     * @since 3.8.1
+     */
+    @Parameter(property = "assembly.tarCompressionThreads", defaultValue = "1")
+    private int tarCompressionThreads;
+
+    /**
+     * The number of threads used to resolve the transitive dependencies of the modules of a module set including
+     * their dependencies. The resolved artifacts are still merged in module order. A value of <code>1</code> resolves
+     * them one after another on the calling thread.
+     *
+     * @since 3.8.1
+     */
+    @Parameter(property = "assembly.resolutionThreads", defaultValue = "1")
+    private int resolutionThreads;
+
+    /**
+     * Skip the creation of an archive when none of its inputs changed since it was last created. The inputs of every
+     * archive are recorded in a manifest under <code>workDirectory</code>: a digest of the effective descriptor, the
+     * plugin configuration, the project properties, the project dependencies and the reactor, the size and
+     * modification time of each file, and the listing of each directory the archive was built from. When they all
+     * match, and the archive itself was not modified, dependency resolution, file set scanning and the archiving are
+     * skipped. Archives with content that does not come from files are always created.
+     *
+     * @since 3.8.1
+     */
+    @Parameter(property = "assembly.incremental", defaultValue = "false")
+    private boolean incremental;
+
+    /**
+     * Update existing zip-based archives (zip, jar, war, ...) by reusing their compressed entries. The new content
+     * is first written without compression, then each entry whose name, CRC, size, time and mode did not change is
+     * copied from the previous archive as raw compressed bytes, and only new or changed entries are compressed.
+     *
+     * @since 3.8.1
+     */
+    @Parameter(property = "assembly.reuseUnchangedZipEntries", defaultValue = "false")
+    private boolean reuseUnchangedZipEntries;
+
+    /**
+     * Copy the compressed data of entries unpacked from zip archives (for example dependencies with
+     * <code>unpack</code> set) into zip-based archives, instead of inflating and deflating them again. The new content
+     * is first written without compression, then each entry that matches a compressed entry of an unpacked archive by
+     * path, CRC and size is copied as raw compressed bytes. Entries that are filtered or have their line endings
+     * changed are compressed as usual.
+     *
+     * @since 3.8.1
+     */
+    @Parameter(property = "assembly.reuseUnpackedZipEntries", defaultValue = "false")
+    private boolean reuseUnpackedZipEntries;
+
     /**
      *
      */
@@ -475,70 +579,193 @@ public abstract class AbstractAssemblyMojo extends AbstractMojo implements Assem
                 .map(FileTime::from)
                 .orElse(null);
 
-        boolean warnedAboutMainProjectArtifact = false;
+        final List<ArchiveJob> jobs = new ArrayList<>();
         for (final Assembly assembly : assemblies) {
-            try {
-                final String fullName = AssemblyFormatUtils.getDistributionName(assembly, this);
+            final String fullName = AssemblyFormatUtils.getDistributionName(assembly, this);
 
-                List<String> effectiveFormats = formats;
-                if (effectiveFormats == null || effectiveFormats.isEmpty()) {
-                    effectiveFormats = assembly.getFormats();
-                }
-                if (effectiveFormats == null || effectiveFormats.isEmpty()) {
-                    throw new MojoFailureException(
-                            "No formats specified in the execution parameters or the assembly descriptor.");
-                }
+            List<String> effectiveFormats = formats;
+            if (effectiveFormats == null || effectiveFormats.isEmpty()) {
+                effectiveFormats = assembly.getFormats();
+            }
+            if (effectiveFormats == null || effectiveFormats.isEmpty()) {
+                throw new MojoFailureException(
+                        "No formats specified in the execution parameters or the assembly descriptor.");
+            }
 
+            if (singlePassFormats) {
+                jobs.add(new ArchiveJob(assembly, fullName, effectiveFormats));
+            } else {
                 for (final String format : effectiveFormats) {
-                    final File destFile = assemblyArchiver.createArchive(assembly, fullName, format, this, outputDate);
-
-                    final MavenProject project = getProject();
-                    final String type = project.getArtifact().getType();
-
-                    if (attach && destFile.isFile()) {
-                        if (isAssemblyIdAppended()) {
-                            projectHelper.attachArtifact(project, format, assembly.getId(), destFile);
-                        } else if (!"pom".equals(type) && format.equals(type)) {
-                            if (!warnedAboutMainProjectArtifact) {
-                                final StringBuilder message = new StringBuilder();
-
-                                message.append("Configuration option 'appendAssemblyId' is set to false.");
-                                message.append("\nInstead of attaching the assembly file: ")
-                                        .append(destFile);
-                                message.append(", it will become the file for main project artifact.");
-                                message.append("\nNOTE: If multiple descriptors or descriptor-formats are provided "
-                                        + "for this project, the value of this file will be "
-                                        + "non-deterministic!");
-
-                                getLog().warn(message);
-                                warnedAboutMainProjectArtifact = true;
-                            }
-
-                            final File existingFile = project.getArtifact().getFile();
-                            if ((existingFile != null) && existingFile.exists()) {
-                                getLog().warn("Replacing pre-existing project main-artifact file: " + existingFile
-                                        + "\nwith assembly file: " + destFile);
-                            }
-
-                            project.getArtifact().setFile(destFile);
-                        } else {
-                            projectHelper.attachArtifact(project, format, null, destFile);
+                    jobs.add(new ArchiveJob(assembly, fullName, Collections.singletonList(format)));
+                }
+            }
+        }
+
+        // the archives are attached before the next assembly including the project artifacts is created, as it
+        // would have seen them when creating the assemblies one after another
+        boolean warnedAboutMainProjectArtifact = false;
+        final List<ArchiveJob> batch = new ArrayList<>();
+        for (final ArchiveJob job : jobs) {
+            if (!batch.isEmpty() && (assemblyThreads <= 1 || includesProjectArtifacts(job.assembly))) {
+                warnedAboutMainProjectArtifact =
+                        createAndAttachArchives(batch, outputDate, warnedAboutMainProjectArtifact);
+                batch.clear();
+            }
+            batch.add(job);
+        }
+        createAndAttachArchives(batch, outputDate, warnedAboutMainProjectArtifact);
+
+        if (interpolationContext != null && getLog().isDebugEnabled()) {
+            getLog().debug("Interpolators built: " + interpolationContext.getBuilt() + ", reused: "
+                    + interpolationContext.getReused());
+        }
+    }
+
+    /**
+     * Tells whether the given assembly may include the main artifact or the attached artifacts of the project, which
+     * the assemblies created before it may have replaced or added.
+     */
+    private boolean includesProjectArtifacts(final Assembly assembly) {
+        if (!attach) {
+            return false;
+        }
+        for (final DependencySet dependencySet : assembly.getDependencySets()) {
+            if ((dependencySet.isUseProjectArtifact() && !isAssemblyIdAppended())
+                    || dependencySet.isUseProjectAttachments()) {
+                return true;
+            }
+        }
+        for (final ModuleSet moduleSet : assembly.getModuleSets()) {
+            if (moduleSet.getBinaries() != null && moduleSet.isUseAllReactorProjects()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates the archives of the given jobs and attaches them to the project, in the order of the jobs.
+     *
+     * @return whether the warning about replacing the main project artifact was logged.
+     */
+    private boolean createAndAttachArchives(
+            final List<ArchiveJob> jobs, final FileTime outputDate, boolean warnedAboutMainProjectArtifact)
+            throws MojoExecutionException, MojoFailureException {
+        final List<List<File>> destFiles = createArchives(jobs, outputDate);
+
+        for (int i = 0; i < jobs.size(); i++) {
+            final ArchiveJob job = jobs.get(i);
+            final Assembly assembly = job.assembly;
+
+            for (int j = 0; j < job.formats.size(); j++) {
+                final String format = job.formats.get(j);
+                final File destFile = destFiles.get(i).get(j);
+
+                final MavenProject project = getProject();
+                final String type = project.getArtifact().getType();
+
+                if (attach && destFile.isFile()) {
+                    if (isAssemblyIdAppended()) {
+                        projectHelper.attachArtifact(project, format, assembly.getId(), destFile);
+                    } else if (!"pom".equals(type) && format.equals(type)) {
+                        if (!warnedAboutMainProjectArtifact) {
+                            final StringBuilder message = new StringBuilder();
+
+                            message.append("Configuration option 'appendAssemblyId' is set to false.");
+                            message.append("\nInstead of attaching the assembly file: ")
+                                    .append(destFile);
+                            message.append(", it will become the file for main project artifact.");
+                            message.append("\nNOTE: If multiple descriptors or descriptor-formats are provided "
+                                    + "for this project, the value of this file will be "
+                                    + "non-deterministic!");
+
+                            getLog().warn(message);
+                            warnedAboutMainProjectArtifact = true;
+                        }
+
+                        final File existingFile = project.getArtifact().getFile();
+                        if ((existingFile != null) && existingFile.exists()) {
+                            getLog().warn("Replacing pre-existing project main-artifact file: " + existingFile
+                                    + "\nwith assembly file: " + destFile);
                         }
-                    } else if (attach) {
-                        getLog().warn("Assembly file: " + destFile + " is not a regular file (it may be a directory). "
-                                + "It cannot be attached to the project build for installation or "
-                                + "deployment.");
+
+                        project.getArtifact().setFile(destFile);
+                    } else {
+                        projectHelper.attachArtifact(project, format, null, destFile);
                     }
+                } else if (attach) {
+                    getLog().warn("Assembly file: " + destFile + " is not a regular file (it may be a directory). "
+                            + "It cannot be attached to the project build for installation or "
+                            + "deployment.");
                 }
-            } catch (final ArchiveCreationException | AssemblyFormattingException e) {
-                throw new MojoExecutionException("Failed to create assembly: " + e.getMessage(), e);
-            } catch (final InvalidAssemblerConfigurationException e) {
-                throw new MojoFailureException(
-                        assembly,
-                        "Assembly is incorrectly configured: " + assembly.getId(),
-                        "Assembly: " + assembly.getId() + " is not configured correctly: " + e.getMessage());
             }
         }
+        return warnedAboutMainProjectArtifact;
+    }
+
+    /**
+     * Creates the archives of the given jobs, concurrently when more than one assembly thread is configured.
+     *
+     * @return the archive files of each job, in the order of the jobs.
+     */
+    private List<List<File>> createArchives(final List<ArchiveJob> jobs, final FileTime outputDate)
+            throws MojoExecutionException, MojoFailureException {
+        final List<List<File>> destFiles = new ArrayList<>(jobs.size());
+
+        if (assemblyThreads <= 1 || jobs.size() <= 1) {
+            for (final ArchiveJob job : jobs) {
+                destFiles.add(createArchives(job, outputDate));
+            }
+            return destFiles;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(assemblyThreads, jobs.size()));
+        try {
+            final List<Future<List<File>>> futures = new ArrayList<>(jobs.size());
+            for (final ArchiveJob job : jobs) {
+                futures.add(executor.submit(() -> createArchives(job, outputDate)));
+            }
+
+            for (final Future<List<File>> future : futures) {
+                destFiles.add(future.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while creating assemblies", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof MojoExecutionException) {
+                throw (MojoExecutionException) cause;
+            } else if (cause instanceof MojoFailureException) {
+                throw (MojoFailureException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new MojoExecutionException("Failed to create assembly: " + cause.getMessage(), cause);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return destFiles;
+    }
+
+    private List<File> createArchives(final ArchiveJob job, final FileTime outputDate)
+            throws MojoExecutionException, MojoFailureException {
+        final Assembly assembly = job.assembly;
+        try {
+            if (job.formats.size() == 1) {
+                return Collections.singletonList(
+                        assemblyArchiver.createArchive(assembly, job.fullName, job.formats.get(0), this, outputDate));
+            }
+            return assemblyArchiver.createArchives(assembly, job.fullName, job.formats, this, outputDate);
+        } catch (final ArchiveCreationException | AssemblyFormattingException e) {
+            throw new MojoExecutionException("Failed to create assembly: " + e.getMessage(), e);
+        } catch (final InvalidAssemblerConfigurationException e) {
+            throw new MojoFailureException(
+                    assembly,
+                    "Assembly is incorrectly configured: " + assembly.getId(),
+                    "Assembly: " + assembly.getId() + " is not configured correctly: " + e.getMessage());
+        }
     }
 
     private FixedStringSearchInterpolator createRepositoryInterpolator() {
@@ -795,6 +1022,41 @@ public abstract class AbstractAssemblyMojo extends AbstractMojo implements Assem
         return mergeManifestMode;
     }
 
+    @Override
+    public int getProjectBuildingThreads() {
+        return projectBuildingThreads;
+    }
+
+    @Override
+    public int getAssemblyThreads() {
+        return assemblyThreads;
+    }
+
+    @Override
+    public int getTarCompressionThreads() {
+        return tarCompressionThreads;
+    }
+
+    @Override
+    public int getResolutionThreads() {
+        return resolutionThreads;
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    @Override
+    public boolean isReuseUnchangedZipEntries() {
+        return reuseUnchangedZipEntries;
+    }
+
+    @Override
+    public boolean isReuseUnpackedZipEntries() {
+        return reuseUnpackedZipEntries;
+    }
+
     @Override
     public String getEscapeString() {
         return escapeString;
@@ -841,6 +1103,14 @@ public abstract class AbstractAssemblyMojo extends AbstractMojo implements Assem
         return mainProjectInterpolator;
     }
 
+    @Override
+    public synchronized InterpolationContext getInterpolationContext() {
+        if (interpolationContext == null) {
+            this.interpolationContext = new InterpolationContext(this);
+        }
+        return interpolationContext;
+    }
+
     @Override
     public Integer getOverrideUid() {
         return this.overrideUid;
@@ -860,4 +1130,22 @@ public abstract class AbstractAssemblyMojo extends AbstractMojo implements Assem
     public String getOverrideGroupName() {
         return this.overrideGroupName;
     }
+
+    /**
+     * The archives of one assembly that are created together: a single format, or all formats of the assembly when
+     * <code>singlePassFormats</code> is enabled.
+     */
+    private static final class ArchiveJob {
+        private final Assembly assembly;
+
+        private final String fullName;
+
+        private final List<String> formats;
+
+        ArchiveJob(final Assembly assembly, final String fullName, final List<String> formats) {
+            this.assembly = assembly;
+            this.fullName = fullName;
+            this.formats = formats;
+        }
+    }
 }
@@ -24,11 +24,13 @@ import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Properties;
+import java.util.function.Supplier;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
 import org.apache.maven.plugins.assembly.format.AssemblyFormattingException;
+import org.apache.maven.plugins.assembly.interpolation.InterpolationContext;
 import org.apache.maven.plugins.assembly.model.Assembly;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.interpolation.fixed.FixedStringSearchInterpolator;
@@ -185,22 +187,20 @@ public final class AssemblyFormatUtils {
                 output,
                 finalName,
                 configSource,
-                moduleProjectInterpolator(null),
-                artifactProjectInterpolator(artifactProject));
+                InterpolationContext.of(configSource).getModuleProjectInterpolator(null),
+                InterpolationContext.of(configSource).getArtifactProjectInterpolator(artifactProject));
     }
 
     private static FixedStringSearchInterpolator executionPropertiesInterpolator(
             AssemblerConfigurationSource configSource) {
-        MavenSession session;
-
-        if (configSource != null) {
-            session = configSource.getMavenSession();
+        return InterpolationContext.of(configSource).getExecutionPropertiesInterpolator();
+    }
 
-            if (session != null) {
-                return FixedStringSearchInterpolator.create(
-                        new PropertiesBasedValueSource(session.getUserProperties()),
-                        new PropertiesBasedValueSource(session.getSystemProperties()));
-            }
+    public static FixedStringSearchInterpolator executionPropertiesInterpolator(final MavenSession session) {
+        if (session != null) {
+            return FixedStringSearchInterpolator.create(
+                    new PropertiesBasedValueSource(session.getUserProperties()),
+                    new PropertiesBasedValueSource(session.getSystemProperties()));
         }
         return FixedStringSearchInterpolator.empty();
     }
@@ -332,19 +332,36 @@ public final class AssemblyFormatUtils {
             FixedStringSearchInterpolator artifactProjectInterpolator) {
         String value = expression;
 
-        final FixedStringSearchInterpolator interpolator = FixedStringSearchInterpolator.create(
-                moduleArtifactInterpolator(moduleArtifact),
-                moduleProjectInterpolator,
-                artifactInterpolator(artifact),
-                artifactProjectInterpolator,
-                mainProjectOnlyInterpolator(mainProject),
-                classifierRules(artifact),
-                executionPropertiesInterpolator(configSource),
-                configSource.getMainProjectInterpolator(),
-                configSource.getCommandLinePropsInterpolator(),
-                configSource.getEnvInterpolator());
+        final Supplier<FixedStringSearchInterpolator> interpolator = new Supplier<FixedStringSearchInterpolator>() {
+            private FixedStringSearchInterpolator interpolator;
+
+            @Override
+            public FixedStringSearchInterpolator get() {
+                if (interpolator == null) {
+                    interpolator = FixedStringSearchInterpolator.create(
+                            moduleArtifactInterpolator(moduleArtifact),
+                            moduleProjectInterpolator,
+                            artifactInterpolator(artifact),
+                            artifactProjectInterpolator,
+                            mainProjectOnlyInterpolator(mainProject),
+                            classifierRules(artifact),
+                            executionPropertiesInterpolator(configSource),
+                            configSource.getMainProjectInterpolator(),
+                            configSource.getCommandLinePropsInterpolator(),
+                            configSource.getEnvInterpolator());
+                }
+                return interpolator;
+            }
+        };
 
-        value = interpolator.interpolate(value);
+        // the interpolator is only built for the expressions the compiled mapping has no getter for
+        final FileNameMappingTemplate template = FileNameMappingTemplate.of(value);
+        if (template != null) {
+            value = template.evaluate(
+                    artifact, moduleArtifact, moduleProjectInterpolator, artifactProjectInterpolator, interpolator);
+        } else {
+            value = interpolator.get().interpolate(value);
+        }
 
         value = StringUtils.replace(value, "//", "/");
         value = StringUtils.replace(value, "\\\\", "\\");
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.handler.ArtifactHandler;
+import org.codehaus.plexus.interpolation.fixed.FixedStringSearchInterpolator;
+import org.codehaus.plexus.interpolation.fixed.InterpolationState;
+
+/**
+ * An output file name mapping compiled into literal segments and expressions. The expressions that the value sources
+ * of {@link AssemblyFormatUtils#evaluateFileNameMapping} always resolve from the artifact, the module artifact or the
+ * classifier rules are read with direct getters; every other expression, and every expression whose getter yields
+ * no value, is handed to the full interpolator, so that the result is the same as interpolating the whole mapping.
+ */
+final class FileNameMappingTemplate {
+
+    private static final String START_EXPR = "${";
+
+    private static final String END_EXPR = "}";
+
+    private static final String ARTIFACT_PREFIX = "artifact.";
+
+    private static final String MODULE_PREFIX = "module.";
+
+    /**
+     * Mappings come from assembly descriptors, so there are few of them; this only guards against unbounded growth.
+     */
+    private static final int MAX_TEMPLATES = 256;
+
+    private static final Map<String, FileNameMappingTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    private static final Map<String, Accessor> ACCESSORS = new HashMap<>();
+
+    static {
+        ACCESSORS.put("groupIdPath", a -> a.getGroupId() != null ? a.getGroupId().replace('.', '/') : null);
+        ACCESSORS.put("groupId", Artifact::getGroupId);
+        ACCESSORS.put("artifactId", Artifact::getArtifactId);
+        ACCESSORS.put("version", Artifact::getVersion);
+        ACCESSORS.put("baseVersion", Artifact::getBaseVersion);
+        ACCESSORS.put("classifier", Artifact::getClassifier);
+        ACCESSORS.put("type", Artifact::getType);
+        ACCESSORS.put("scope", Artifact::getScope);
+        ACCESSORS.put("extension", FileNameMappingTemplate::getExtension);
+    }
+
+    /**
+     * Whether an artifact class has an {@code extension} property of its own, which the reflective lookup would
+     * prefer to the one of the artifact handler.
+     */
+    private static final ClassValue<Boolean> HAS_EXTENSION = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return hasPublicMethod(type, "getExtension") || hasPublicMethod(type, "isExtension");
+        }
+    };
+
+    private final String[] literals;
+
+    private final Expression[] expressions;
+
+    private FileNameMappingTemplate(String[] literals, Expression[] expressions) {
+        this.literals = literals;
+        this.expressions = expressions;
+    }
+
+    /**
+     * Returns the compiled form of a mapping, compiling it on first use.
+     *
+     * @param mapping the output file name mapping
+     * @return the template, or {@code null} if the mapping has to be interpolated as a whole
+     */
+    static FileNameMappingTemplate of(String mapping) {
+        if (mapping == null) {
+            return null;
+        }
+        FileNameMappingTemplate template = TEMPLATES.get(mapping);
+        if (template == null) {
+            template = compile(mapping);
+            if (TEMPLATES.size() < MAX_TEMPLATES) {
+                TEMPLATES.put(mapping, template);
+            }
+        }
+        return template.literals != null ? template : null;
+    }
+
+    /**
+     * Splits a mapping the way {@link FixedStringSearchInterpolator} scans it. Mappings with an unterminated or a
+     * nested expression, or an expression starting with a dot, are left to the interpolator.
+     */
+    static FileNameMappingTemplate compile(String mapping) {
+        List<String> literals = new ArrayList<>();
+        List<Expression> expressions = new ArrayList<>();
+        int end = -1;
+        int start = mapping.indexOf(START_EXPR);
+        while (start > -1) {
+            literals.add(mapping.substring(end + 1, start));
+            end = mapping.indexOf(END_EXPR, start + 1);
+            if (end < 0) {
+                return new FileNameMappingTemplate(null, null);
+            }
+            String key = mapping.substring(start + START_EXPR.length(), end);
+            if (key.contains(START_EXPR) || key.startsWith(".")) {
+                return new FileNameMappingTemplate(null, null);
+            }
+            expressions.add(new Expression(key));
+            start = mapping.indexOf(START_EXPR, end + 1);
+        }
+        literals.add(mapping.substring(end + 1));
+        return new FileNameMappingTemplate(literals.toArray(new String[0]), expressions.toArray(new Expression[0]));
+    }
+
+    /**
+     * Evaluates this template, preserving the precedence of the value sources listed on
+     * {@link AssemblyFormatUtils#evaluateFileNameMapping}.
+     *
+     * @param artifact the artifact
+     * @param moduleArtifact the module artifact, may be {@code null}
+     * @param moduleProjectInterpolator the interpolator of the module project, consulted before the artifact
+     * @param artifactProjectInterpolator the interpolator of the artifact project, consulted before the classifier
+     *            rules
+     * @param interpolator supplies the full interpolator for the expressions without a direct getter
+     * @return the interpolated mapping
+     */
+    String evaluate(
+            Artifact artifact,
+            Artifact moduleArtifact,
+            FixedStringSearchInterpolator moduleProjectInterpolator,
+            FixedStringSearchInterpolator artifactProjectInterpolator,
+            Supplier<FixedStringSearchInterpolator> interpolator) {
+        StringBuilder result = new StringBuilder(literals[0]);
+        for (int i = 0; i < expressions.length; i++) {
+            Expression expression = expressions[i];
+            String value = expression.resolve(
+                    artifact, moduleArtifact, moduleProjectInterpolator, artifactProjectInterpolator);
+            if (value == null) {
+                value = interpolator.get().interpolate(expression.wholeExpression);
+            }
+            result.append(value).append(literals[i + 1]);
+        }
+        return result.toString();
+    }
+
+    private static String getExtension(Artifact artifact) {
+        if (HAS_EXTENSION.get(artifact.getClass())) {
+            return null;
+        }
+        ArtifactHandler handler = artifact.getArtifactHandler();
+        return handler != null ? handler.getExtension() : null;
+    }
+
+    private static boolean hasPublicMethod(Class<?> type, String name) {
+        try {
+            type.getMethod(name);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static boolean isAnswered(FixedStringSearchInterpolator interpolator, String key) {
+        return interpolator != null && interpolator.getValue(key, new InterpolationState()) != null;
+    }
+
+    @FunctionalInterface
+    private interface Accessor {
+        String get(Artifact artifact);
+    }
+
+    private enum Source {
+        ARTIFACT,
+        MODULE,
+        CLASSIFIER_RULES,
+        NONE
+    }
+
+    private static final class Expression {
+
+        private final String wholeExpression;
+
+        private final String key;
+
+        private final Source source;
+
+        private final Accessor accessor;
+
+        Expression(String key) {
+            this.wholeExpression = START_EXPR + key + END_EXPR;
+            this.key = key;
+            if ("dashClassifier?".equals(key) || "dashClassifier".equals(key)) {
+                this.source = Source.CLASSIFIER_RULES;
+                this.accessor = null;
+            } else if (key.startsWith(ARTIFACT_PREFIX)) {
+                this.accessor = ACCESSORS.get(key.substring(ARTIFACT_PREFIX.length()));
+                this.source = accessor != null ? Source.ARTIFACT : Source.NONE;
+            } else if (key.startsWith(MODULE_PREFIX)) {
+                this.accessor = ACCESSORS.get(key.substring(MODULE_PREFIX.length()));
+                this.source = accessor != null ? Source.MODULE : Source.NONE;
+            } else {
+                this.source = Source.NONE;
+                this.accessor = null;
+            }
+        }
+
+        /**
+         * @return the value, or {@code null} if the full interpolator has to resolve this expression
+         */
+        String resolve(
+                Artifact artifact,
+                Artifact moduleArtifact,
+                FixedStringSearchInterpolator moduleProjectInterpolator,
+                FixedStringSearchInterpolator artifactProjectInterpolator) {
+            String value;
+            switch (source) {
+                case MODULE:
+                    // the module artifact comes first of all value sources
+                    value = moduleArtifact != null ? accessor.get(moduleArtifact) : null;
+                    break;
+                case ARTIFACT:
+                    value = isAnswered(moduleProjectInterpolator, key) ? null : accessor.get(artifact);
+                    break;
+                case CLASSIFIER_RULES:
+                    if (isAnswered(moduleProjectInterpolator, key) || isAnswered(artifactProjectInterpolator, key)) {
+                        value = null;
+                    } else {
+                        String classifier = ProjectUtils.getClassifier(artifact);
+                        value = classifier != null ? "-" + classifier : "";
+                    }
+                    break;
+                default:
+                    value = null;
+            }
+            // values holding expressions themselves are interpolated recursively
+            return value != null && !value.contains(START_EXPR) ? value : null;
+        }
+    }
+}
@@ -22,14 +22,27 @@ import java.io.IOException;
 import java.io.InputStream;
 
 /**
+ * Converts the line endings of a stream to line feeds. The bytes are converted a buffer at a time; the only state
+ * carried over between buffers is whether the last byte was a carriage return.
+ *
  * @author Kristian Rosenvold
  */
 class LinuxLineFeedInputStream extends InputStream {
 
+    private static final int BUFFER_SIZE = 8192;
+
     private final InputStream target;
 
     private final boolean ensureLineFeedAtEndOfFile;
 
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private final byte[] single = new byte[1];
+
+    private int position;
+
+    private int limit;
+
     private boolean slashNSeen = false;
 
     private boolean slashRSeen = false;
@@ -41,36 +54,56 @@ class LinuxLineFeedInputStream extends InputStream {
         this.ensureLineFeedAtEndOfFile = ensureLineFeedAtEndOfFile;
     }
 
-    private int readWithUpdate() throws IOException {
-        final int target = this.target.read();
-        eofSeen = target == -1;
-        if (eofSeen) {
-            return target;
-        }
-        slashNSeen = target == '\n';
-        slashRSeen = target == '\r';
-        return target;
+    @Override
+    public int read() throws IOException {
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
     }
 
     @Override
-    public int read() throws IOException {
-        boolean prevWasSlashR = slashRSeen;
-        if (eofSeen) {
-            return eofGame(prevWasSlashR);
-        } else {
-            int target = readWithUpdate();
-            if (eofSeen) {
-                return eofGame(prevWasSlashR);
-            }
-            if (slashRSeen) {
-                return '\n';
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int n = 0;
+        while (n < len) {
+            if (position == limit) {
+                if (eofSeen) {
+                    final int last = eofGame(slashRSeen);
+                    if (last == -1) {
+                        return n == 0 ? -1 : n;
+                    }
+                    b[off + n++] = (byte) last;
+                    continue;
+                }
+                fill();
+                continue;
             }
 
-            if (prevWasSlashR && slashNSeen) { // Lone /r
-                return read();
+            final byte current = buffer[position++];
+            if (current == '\r') {
+                b[off + n++] = '\n';
+                slashRSeen = true;
+                slashNSeen = false;
+            } else if (current == '\n') {
+                if (!slashRSeen) { // a \r\n pair was already written as a \n
+                    b[off + n++] = '\n';
+                }
+                slashRSeen = false;
+                slashNSeen = true;
+            } else {
+                b[off + n++] = current;
+                slashRSeen = false;
+                slashNSeen = false;
             }
-            return target;
         }
+        return n;
+    }
+
+    private void fill() throws IOException {
+        final int read = target.read(buffer, 0, buffer.length);
+        eofSeen = read == -1;
+        position = 0;
+        limit = Math.max(read, 0);
     }
 
     private int eofGame(boolean previousWasSlashR) {
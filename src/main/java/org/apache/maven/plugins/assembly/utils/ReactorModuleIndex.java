@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+import org.slf4j.Logger;
+
+/**
+ * Index of the projects of a reactor by the canonical location of their POM file and base directory, used to find the
+ * modules of a project without comparing every project to every potential parent. One instance is kept in the data
+ * of the repository session, so every module set of every assembly shares the index and the modules computed with
+ * it.
+ */
+final class ReactorModuleIndex {
+    private static final String SESSION_KEY = ReactorModuleIndex.class.getName();
+
+    private final List<MavenProject> reactorProjects;
+
+    private final Map<MavenProject, Integer> reactorOrder = new IdentityHashMap<>();
+
+    private final Map<File, List<MavenProject>> projectsByLocation = new HashMap<>();
+
+    private final Map<MavenProject, List<MavenProject>> directModules = new IdentityHashMap<>();
+
+    private final Map<MavenProject, Set<MavenProject>> modules = new IdentityHashMap<>();
+
+    private final Map<MavenProject, Set<MavenProject>> allModules = new IdentityHashMap<>();
+
+    private ReactorModuleIndex(final List<MavenProject> reactorProjects) throws IOException {
+        this.reactorProjects = new ArrayList<>(reactorProjects);
+
+        for (final MavenProject project : this.reactorProjects) {
+            reactorOrder.putIfAbsent(project, reactorOrder.size());
+            if (project.getFile() == null) {
+                continue;
+            }
+
+            final File file = project.getFile().getCanonicalFile();
+
+            File basedir = project.getBasedir();
+            if (basedir == null) {
+                basedir = file.getParentFile();
+
+                if (basedir == null) {
+                    basedir = new File(".");
+                }
+            }
+            basedir = basedir.getCanonicalFile();
+
+            projectsByLocation.computeIfAbsent(file, f -> new ArrayList<>()).add(project);
+            if (!basedir.equals(file)) {
+                projectsByLocation.computeIfAbsent(basedir, f -> new ArrayList<>()).add(project);
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the given reactor bound to the given session, building it on first use. A new, unbound
+     * index is returned if the session has no repository session data.
+     *
+     * @param session the current session, may be {@code null}
+     * @param reactorProjects the projects of the reactor
+     * @return the index of the reactor
+     * @throws IOException if the canonical location of a project cannot be determined
+     */
+    static ReactorModuleIndex getInstance(final MavenSession session, final List<MavenProject> reactorProjects)
+            throws IOException {
+        final RepositorySystemSession repositorySession = session != null ? session.getRepositorySession() : null;
+        final SessionData data = repositorySession != null ? repositorySession.getData() : null;
+        if (data == null) {
+            return new ReactorModuleIndex(reactorProjects);
+        }
+
+        final Object cached = data.get(SESSION_KEY);
+        if (cached instanceof ReactorModuleIndex && ((ReactorModuleIndex) cached).isIndexOf(reactorProjects)) {
+            return (ReactorModuleIndex) cached;
+        }
+
+        final ReactorModuleIndex index = new ReactorModuleIndex(reactorProjects);
+        // another version of this plugin may have registered its own index under the same key
+        if (cached == null || cached instanceof ReactorModuleIndex) {
+            data.set(SESSION_KEY, index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns an index of the given reactor, not bound to any session.
+     */
+    static ReactorModuleIndex of(final List<MavenProject> reactorProjects) throws IOException {
+        return new ReactorModuleIndex(reactorProjects);
+    }
+
+    private boolean isIndexOf(final List<MavenProject> projects) {
+        if (projects.size() != reactorProjects.size()) {
+            return false;
+        }
+        for (int i = 0; i < projects.size(); i++) {
+            if (projects.get(i) != reactorProjects.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the modules of the given project found in the reactor, in the order the modules of each level of the
+     * module tree appear in the reactor.
+     *
+     * @param project the project to find the modules of
+     * @param includeSubModules whether the modules of the modules are included, transitively
+     * @param logger the logger to warn about projects without POM file
+     * @return a new set with the modules of the project, never containing the project itself
+     * @throws IOException if the canonical location of a module cannot be determined
+     */
+    synchronized Set<MavenProject> getModules(
+            final MavenProject project, final boolean includeSubModules, final Logger logger) throws IOException {
+        final Map<MavenProject, Set<MavenProject>> cache = includeSubModules ? allModules : modules;
+        Set<MavenProject> result = cache.get(project);
+        if (result == null) {
+            result = computeModules(project, includeSubModules, logger);
+            cache.put(project, result);
+        }
+        return new LinkedHashSet<>(result);
+    }
+
+    /**
+     * Computes the modules of the given project with a breadth-first walk of the module tree. The modules are ordered
+     * by the pass in which a scan of the reactor, repeated until nothing changes, would first find them under a module
+     * found before, and then by reactor order.
+     */
+    private Set<MavenProject> computeModules(
+            final MavenProject project, final boolean includeSubModules, final Logger logger) throws IOException {
+        for (final MavenProject candidate : reactorProjects) {
+            if (candidate.getFile() == null) {
+                logger.warn("Cannot compute whether " + candidate.getId() + " is a module of: " + project.getId()
+                        + "; it does not have an associated POM file on the local filesystem.");
+            }
+        }
+
+        if (project.getFile() == null) {
+            logger.warn("Cannot compute the module set for: " + project.getId()
+                    + "; it does not have an associated POM file on the local filesystem.");
+            return Collections.emptySet();
+        }
+
+        final Map<MavenProject, Integer> passes = new IdentityHashMap<>();
+        final Deque<MavenProject> queue = new ArrayDeque<>();
+        for (final MavenProject module : getDirectModules(project)) {
+            if (module != project && !passes.containsKey(module)) {
+                passes.put(module, 1);
+                queue.add(module);
+            }
+        }
+
+        while (includeSubModules && !queue.isEmpty()) {
+            final MavenProject parent = queue.poll();
+            final int pass = passes.get(parent);
+            for (final MavenProject module : getDirectModules(parent)) {
+                if (module == project) {
+                    continue;
+                }
+                // a module listed after its parent in the reactor is found in the same pass as its parent
+                final boolean samePass = reactorOrder.get(parent) < reactorOrder.get(module);
+                final int modulePass = samePass ? pass : pass + 1;
+                final Integer current = passes.get(module);
+                if (current == null || modulePass < current) {
+                    passes.put(module, modulePass);
+                    if (samePass) {
+                        queue.addFirst(module);
+                    } else {
+                        queue.addLast(module);
+                    }
+                }
+            }
+        }
+
+        final List<MavenProject> sorted = new ArrayList<>(passes.keySet());
+        sorted.sort((a, b) -> passes.get(a).equals(passes.get(b))
+                ? Integer.compare(reactorOrder.get(a), reactorOrder.get(b))
+                : Integer.compare(passes.get(a), passes.get(b)));
+        return new LinkedHashSet<>(sorted);
+    }
+
+    private List<MavenProject> getDirectModules(final MavenProject parent) throws IOException {
+        List<MavenProject> result = directModules.get(parent);
+        if (result == null) {
+            result = new ArrayList<>();
+            for (final String moduleSubpath : parent.getModules()) {
+                final File moduleDir = new File(parent.getBasedir(), moduleSubpath).getCanonicalFile();
+                final List<MavenProject> located = projectsByLocation.get(moduleDir);
+                if (located != null) {
+                    result.addAll(located);
+                }
+            }
+            directModules.put(parent, result);
+        }
+        return result;
+    }
+}
@@ -22,79 +22,101 @@ import java.io.IOException;
 import java.io.InputStream;
 
 /**
+ * Converts the line endings of a stream to carriage return and line feed pairs. The bytes are converted a buffer at a
+ * time; the state carried over between buffers is whether a line feed has to be written, and whether a line feed of
+ * the source completes a carriage return already converted.
+ *
  * @author Kristian Rosenvold
  */
 class WindowsLineFeedInputStream extends InputStream {
 
-    private static final int NO_PENDING_BYTE = -2;
+    private static final int BUFFER_SIZE = 8192;
 
     private final InputStream inputStream;
 
     private final boolean ensureLineFeedAtEndOfFile;
 
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private final byte[] single = new byte[1];
+
+    private int position;
+
+    private int limit;
+
     private boolean injectSlashN = false;
 
+    private boolean skipSlashN = false;
+
     private boolean eofSeen = false;
 
     private boolean slashNSeen = false;
 
-    private int pendingByte = NO_PENDING_BYTE;
-
     WindowsLineFeedInputStream(InputStream in, boolean ensureLineFeedAtEndOfFile) {
         this.inputStream = in;
         this.ensureLineFeedAtEndOfFile = ensureLineFeedAtEndOfFile;
     }
 
-    private int readTarget() throws IOException {
-        if (pendingByte != NO_PENDING_BYTE) {
-            int result = pendingByte;
-            pendingByte = NO_PENDING_BYTE;
-            return result;
-        }
-        if (eofSeen) {
-            return -1;
-        }
-
-        final int target = this.inputStream.read();
-        eofSeen = target == -1;
-        return target;
-    }
-
     @Override
     public int read() throws IOException {
-        if (injectSlashN) {
-            injectSlashN = false;
-            slashNSeen = true;
-            return '\n';
-        }
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
 
-        int target = readTarget();
-        if (target == -1) {
-            return eofGame();
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
         }
+        int n = 0;
+        while (n < len) {
+            if (injectSlashN) {
+                injectSlashN = false;
+                slashNSeen = true;
+                b[off + n++] = '\n';
+                continue;
+            }
+            if (position == limit) {
+                if (eofSeen) {
+                    if (!eofGame()) {
+                        return n == 0 ? -1 : n;
+                    }
+                    b[off + n++] = '\r';
+                    continue;
+                }
+                fill();
+                continue;
+            }
 
-        slashNSeen = false;
-        if (target == '\r') {
-            int next = readTarget();
-            if (next != '\n' && next != -1) {
-                pendingByte = next;
+            final byte current = buffer[position++];
+            if (current == '\n' && skipSlashN) { // completes a \r already written as \r\n
+                skipSlashN = false;
+                continue;
+            }
+            skipSlashN = current == '\r';
+            if (current == '\r' || current == '\n') {
+                b[off + n++] = '\r';
+                injectSlashN = true;
+            } else {
+                b[off + n++] = current;
+                slashNSeen = false;
             }
-            injectSlashN = true;
-            return '\r';
-        }
-        if (target == '\n') {
-            injectSlashN = true;
-            return '\r';
         }
-        return target;
+        return n;
+    }
+
+    private void fill() throws IOException {
+        final int read = inputStream.read(buffer, 0, buffer.length);
+        eofSeen = read == -1;
+        position = 0;
+        limit = Math.max(read, 0);
     }
 
-    private int eofGame() {
+    private boolean eofGame() {
         if (ensureLineFeedAtEndOfFile && !slashNSeen) {
             injectSlashN = true;
-            return '\r';
+            return true;
         }
-        return -1;
+        return false;
     }
 
     @Override
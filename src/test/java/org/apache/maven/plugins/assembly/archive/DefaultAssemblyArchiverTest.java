@@ -18,30 +18,59 @@
  */
 package org.apache.maven.plugins.assembly.archive;
 
+import javax.inject.Provider;
+
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Model;
 import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
 import org.apache.maven.plugins.assembly.InvalidAssemblerConfigurationException;
 import org.apache.maven.plugins.assembly.archive.phase.AssemblyArchiverPhase;
+import org.apache.maven.plugins.assembly.filter.ContainerDescriptorHandler;
+import org.apache.maven.plugins.assembly.filter.MetaInfServicesHandler;
 import org.apache.maven.plugins.assembly.model.Assembly;
+import org.apache.maven.plugins.assembly.model.ContainerDescriptorHandlerConfig;
+import org.apache.maven.plugins.assembly.model.FileItem;
 import org.apache.maven.plugins.assembly.mojos.AbstractAssemblyMojo;
 import org.apache.maven.plugins.assembly.testutils.PojoConfigSource;
 import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.DefaultContainerConfiguration;
 import org.codehaus.plexus.DefaultPlexusContainer;
+import org.codehaus.plexus.PlexusConstants;
 import org.codehaus.plexus.PlexusContainer;
 import org.codehaus.plexus.PlexusContainerException;
+import org.codehaus.plexus.archiver.ArchiveFinalizer;
 import org.codehaus.plexus.archiver.Archiver;
 import org.codehaus.plexus.archiver.ArchiverException;
+import org.codehaus.plexus.archiver.FinalizerEnabled;
 import org.codehaus.plexus.archiver.diags.NoOpArchiver;
 import org.codehaus.plexus.archiver.manager.ArchiverManager;
 import org.codehaus.plexus.archiver.manager.NoSuchArchiverException;
 import org.codehaus.plexus.archiver.tar.TarArchiver;
 import org.codehaus.plexus.archiver.tar.TarLongFileMode;
+import org.codehaus.plexus.archiver.util.DefaultArchivedFileSet;
+import org.codehaus.plexus.archiver.util.DefaultFileSet;
 import org.codehaus.plexus.archiver.war.WarArchiver;
 import org.codehaus.plexus.archiver.zip.ZipArchiver;
 import org.codehaus.plexus.build.BuildContext;
@@ -51,23 +80,32 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 @MockitoSettings(strictness = Strictness.WARN)
 @ExtendWith(MockitoExtension.class)
@@ -169,6 +207,530 @@ public class DefaultAssemblyArchiverTest {
         verify(buildContext).refresh(new File(outDir, "full-name.zip"));
     }
 
+    @Test
+    void createArchivesShouldRunPhasesOnceAndReplayForOtherFormats() throws Exception {
+        Archiver zipArchiver = mock(Archiver.class);
+        Archiver tarArchiver = mock(Archiver.class);
+
+        when(archiverManager.getArchiver("zip")).thenReturn(zipArchiver);
+        when(archiverManager.getArchiver("tar")).thenReturn(tarArchiver);
+
+        final File file = new File(temporaryFolder, "file.txt");
+        final AssemblyArchiverPhase phase = mock(AssemblyArchiverPhase.class);
+        doAnswer(invocation -> {
+                    invocation.<Archiver>getArgument(1).addFile(file, "file.txt");
+                    return null;
+                })
+                .when(phase)
+                .execute(any(Assembly.class), any(Archiver.class), any(AssemblerConfigurationSource.class));
+
+        final File outDir = newFolder(temporaryFolder, "out");
+
+        final AssemblerConfigurationSource configSource = mock(AssemblerConfigurationSource.class);
+        when(configSource.getTemporaryRootDirectory()).thenReturn(new File(temporaryFolder, "temp"));
+        when(configSource.getOutputDirectory()).thenReturn(outDir);
+        when(configSource.getFinalName()).thenReturn("finalName");
+        when(configSource.getWorkingDirectory()).thenReturn(new File("."));
+
+        final Assembly assembly = new Assembly();
+        assembly.setId("id");
+        assembly.setIncludeBaseDirectory(false);
+
+        final DefaultAssemblyArchiver subject = createSubject(Collections.singletonList(phase));
+
+        final List<File> destFiles =
+                subject.createArchives(assembly, "full-name", Arrays.asList("zip", "tar"), configSource, null);
+
+        assertEquals(Arrays.asList(new File(outDir, "full-name.zip"), new File(outDir, "full-name.tar")), destFiles);
+
+        verify(phase).execute(eq(assembly), any(Archiver.class), eq(configSource));
+
+        verify(zipArchiver).setDestFile(new File(outDir, "full-name.zip"));
+        verify(zipArchiver).addFile(file, "file.txt");
+        verify(zipArchiver).createArchive();
+
+        verify(tarArchiver).setDestFile(new File(outDir, "full-name.tar"));
+        verify(tarArchiver).addFile(file, "file.txt");
+        verify(tarArchiver).createArchive();
+    }
+
+    @Test
+    void createArchiveShouldUseOwnContainerDescriptorHandlerWhenCreatingAssembliesConcurrently() throws Exception {
+        Archiver archiver = mock(Archiver.class, withSettings().extraInterfaces(FinalizerEnabled.class));
+
+        when(archiverManager.getArchiver("zip")).thenReturn(archiver);
+
+        final PojoConfigSource configSource = new PojoConfigSource();
+        configSource.setTemporaryRootDirectory(new File(temporaryFolder, "temp"));
+        configSource.setOutputDirectory(newFolder(temporaryFolder, "out"));
+        configSource.setWorkingDirectory(new File("."));
+        configSource.setFinalName("finalName");
+        configSource.setAssemblyThreads(2);
+
+        final ContainerDescriptorHandlerConfig handlerConfig = new ContainerDescriptorHandlerConfig();
+        handlerConfig.setHandlerName("metaInf-services");
+
+        final Assembly assembly = new Assembly();
+        assembly.setId("id");
+        assembly.addContainerDescriptorHandler(handlerConfig);
+
+        final List<MetaInfServicesHandler> providedHandlers = new ArrayList<>();
+        final Provider<ContainerDescriptorHandler> provider = () -> {
+            final MetaInfServicesHandler handler = new MetaInfServicesHandler();
+            providedHandlers.add(handler);
+            return handler;
+        };
+        final DefaultAssemblyArchiver subject = new DefaultAssemblyArchiver(
+                archiverManager,
+                Collections.emptyList(),
+                Collections.singletonMap("metaInf-services", provider),
+                container,
+                configurator,
+                buildContext);
+
+        subject.createArchive(assembly, "full-name", "zip", configSource, null);
+        subject.createArchive(assembly, "full-name", "zip", configSource, null);
+
+        final ArgumentCaptor<ArchiveFinalizer> finalizers = ArgumentCaptor.forClass(ArchiveFinalizer.class);
+        verify((FinalizerEnabled) archiver, atLeastOnce()).addArchiveFinalizer(finalizers.capture());
+
+        assertEquals(2, providedHandlers.size());
+        assertNotSame(providedHandlers.get(0), providedHandlers.get(1));
+        assertTrue(finalizers.getAllValues().containsAll(providedHandlers));
+    }
+
+    @Test
+    void createArchiveShouldWriteIdenticalZipWhenOutputTimestampIsSet() throws Exception {
+        when(archiverManager.getArchiver("zip")).thenAnswer(invocation -> new ZipArchiver());
+
+        final File sources = newFolder(temporaryFolder, "sources");
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final String name = "file-" + i + ".txt";
+            final StringBuilder content = new StringBuilder();
+            for (int j = 0; j < 100 + i; j++) {
+                content.append(name).append(' ').append(j).append('\n');
+            }
+            Files.write(new File(sources, name).toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+            names.add(name);
+        }
+
+        final AssemblyArchiverPhase phase = mock(AssemblyArchiverPhase.class);
+        doAnswer(invocation -> {
+                    for (String name : names) {
+                        invocation.<Archiver>getArgument(1).addFile(new File(sources, name), name);
+                    }
+                    return null;
+                })
+                .when(phase)
+                .execute(any(Assembly.class), any(Archiver.class), any(AssemblerConfigurationSource.class));
+
+        final PojoConfigSource configSource = new PojoConfigSource();
+        configSource.setTemporaryRootDirectory(new File(temporaryFolder, "temp"));
+        configSource.setWorkingDirectory(new File("."));
+        configSource.setFinalName("finalName");
+
+        final Assembly assembly = new Assembly();
+        assembly.setId("id");
+        assembly.setIncludeBaseDirectory(false);
+
+        final DefaultAssemblyArchiver subject = createSubject(Collections.singletonList(phase));
+        final FileTime outputTimestamp = FileTime.from(Instant.parse("2024-01-01T00:00:00Z"));
+
+        configSource.setOutputDirectory(newFolder(temporaryFolder, "first"));
+        final File first = subject.createArchive(assembly, "full-name", "zip", configSource, outputTimestamp);
+        configSource.setOutputDirectory(newFolder(temporaryFolder, "second"));
+        final File second = subject.createArchive(assembly, "full-name", "zip", configSource, outputTimestamp);
+
+        assertArrayEquals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath()));
+
+        final List<String> entries = new ArrayList<>();
+        try (ZipFile zipFile = new ZipFile(first)) {
+            zipFile.stream().forEach(entry -> entries.add(entry.getName()));
+        }
+        assertEquals(names, entries);
+    }
+
+    @Test
+    void createArchiveShouldCompressTarOnSeveralThreads() throws Exception {
+        when(archiverManager.getArchiver("tar")).thenAnswer(invocation -> new TarArchiver());
+
+        final File source = new File(temporaryFolder, "file.txt");
+        Files.write(source.toPath(), "content".getBytes(StandardCharsets.UTF_8));
+
+        final AssemblyArchiverPhase phase = mock(AssemblyArchiverPhase.class);
+        doAnswer(invocation -> {
+                    invocation.<Archiver>getArgument(1).addFile(source, "file.txt");
+                    return null;
+                })
+                .when(phase)
+                .execute(any(Assembly.class), any(Archiver.class), any(AssemblerConfigurationSource.class));
+
+        final PojoConfigSource configSource = new PojoConfigSource();
+        configSource.setTemporaryRootDirectory(newFolder(temporaryFolder, "temp"));
+        configSource.setOutputDirectory(newFolder(temporaryFolder, "out"));
+        configSource.setWorkingDirectory(new File("."));
+        configSource.setFinalName("finalName");
+        configSource.setTarLongFileMode(TarLongFileMode.posix.name());
+        configSource.setTarCompressionThreads(2);
+
+        final Assembly assembly = new Assembly();
+        assembly.setId("id");
+        assembly.setIncludeBaseDirectory(false);
+
+        final DefaultAssemblyArchiver subject = createSubject(Collections.singletonList(phase));
+
+        final File destFile = subject.createArchive(assembly, "full-name", "tar.gz", configSource, null);
+
+        assertEquals(new File(temporaryFolder, "out/full-name.tar.gz"), destFile);
+        assertFalse(new File(temporaryFolder, "temp/full-name.tar.gz.tar").exists());
+        try (TarArchiveInputStream in =
+                new TarArchiveInputStream(new GZIPInputStream(Files.newInputStream(destFile.toPath())))) {
+            assertEquals("file.txt", in.getNextEntry().getName());
+            assertEquals("content", IOUtils.toString(in, StandardCharsets.UTF_8));
+            assertNull(in.getNextEntry());
+        }
+        verify(archiverManager, never()).getArchiver("tar.gz");
+    }
+
+    @Test
+    void createArchiveShouldSkipUnchangedInputsWhenIncremental() throws Exception {
+        when(archiverManager.getArchiver("zip")).thenAnswer(invocation -> new ZipArchiver());
+
+        final File file = new File(temporaryFolder, "file.txt");
+        Files.write(file.toPath(), "content".getBytes(StandardCharsets.UTF_8));
+        final File directory = newFolder(temporaryFolder, "dir");
+        Files.write(new File(directory, "a.txt").toPath(), "a".getBytes(StandardCharsets.UTF_8));
+
+        final AssemblyArchiverPhase phase = mock(AssemblyArchiverPhase.class);
+        doAnswer(invocation -> {
+                    final Archiver archiver = invocation.getArgument(1);
+                    archiver.addFile(file, "file.txt");
+                    archiver.addFileSet(DefaultFileSet.fileSet(directory).prefixed("dir/"));
+                    return null;
+                })
+                .when(phase)
+                .execute(any(Assembly.class), any(Archiver.class), any(AssemblerConfigurationSource.class));
+
+        final PojoConfigSource configSource = new PojoConfigSource();
+        configSource.setTemporaryRootDirectory(new File(temporaryFolder, "temp"));
+        configSource.setOutputDirectory(newFolder(temporaryFolder, "out"));
+        configSource.setWorkingDirectory(new File(temporaryFolder, "work"));
+        configSource.setFinalName("finalName");
+        configSource.setIncremental(true);
+
+        final Assembly assembly = new Assembly();
+        assembly.setId("id");
+        assembly.setIncludeBaseDirectory(false);
+
+        final DefaultAssemblyArchiver subject = createSubject(Collections.singletonList(phase));
+
+        final File destFile = subject.createArchive(assembly, "full-name", "zip", configSource, null);
+        assertTrue(new File(temporaryFolder, "work/full-name.zip.inputs").isFile());
+
+        subject.createArchive(assembly, "full-name", "zip", configSource, null);
+        verify(phase, times(1)).execute(any(Assembly.class), any(Archiver.class), eq(configSource));
+
+        Files.write(new File(directory, "b.txt").toPath(), "b".getBytes(StandardCharsets.UTF_8));
+        subject.createArchive(assembly, "full-name", "zip", configSource, null);
+        verify(phase, times(2)).execute(any(Assembly.class), any(Archiver.class), eq(configSource));
+
+        Files.write(file.toPath(), "changed content".getBytes(StandardCharsets.UTF_8));
+        subject.createArchive(assembly, "full-name", "zip", configSource, null);
+        verify(phase, times(3)).execute(any(Assembly.class), any(Archiver.class), eq(configSource));
+
+        assembly.setIncludeBaseDirectory(true);
+        subject.createArchive(assembly, "full-name", "zip", configSource, null);
+        verify(phase, times(4)).execute(any(Assembly.class), any(Archiver.class), eq(configSource));
+
+        final Set<String> entries = new TreeSet<>();
+        try (ZipFile zipFile = new ZipFile(destFile)) {
+            zipFile.stream().forEach(entry -> entries.add(entry.getName()));
+        }
+        assertEquals(
+                new TreeSet<>(Arrays.asList(
+                        "finalName/",
+                        "finalName/file.txt",
+                        "finalName/dir/",
+                        "finalName/dir/a.txt",
+                        "finalName/dir/b.txt")),
+                entries);
+    }
+
+    @Test
+    void createArchiveShouldOnlyTrackIncludedInputsWhenIncremental() throws Exception {
+        when(archiverManager.getArchiver("zip")).thenAnswer(invocation -> new ZipArchiver());
+
+        final File basedir = newFolder(temporaryFolder, "basedir");
+        final File script = new File(basedir, "run.sh");
+        Files.write(script.toPath(), "run".getBytes(StandardCharsets.UTF_8));
+        final File log = new File(basedir, "build.log");
+        Files.write(log.toPath(), "log".getBytes(StandardCharsets.UTF_8));
+        final File jar = new File(newFolder(basedir, "target"), "app.jar");
+        Files.write(jar.toPath(), "jar".getBytes(StandardCharsets.UTF_8));
+
+        final AssemblyArchiverPhase phase = mock(AssemblyArchiverPhase.class);
+        doAnswer(invocation -> {
+                    final Archiver archiver = invocation.getArgument(1);
+                    // the build output is in target/, where the archive and its manifest are written too
+                    archiver.addFileSet(DefaultFileSet.fileSet(basedir)
+                            .includeExclude(
+                                    new String[] {"*.sh", "*.log", "target/**"}, new String[] {"*.log", "**/*.zip"}));
+                    return null;
+                })
+                .when(phase)
+                .execute(any(Assembly.class), any(Archiver.class), any(AssemblerConfigurationSource.class));
+
+        final PojoConfigSource configSource = new PojoConfigSource();
+        configSource.setTemporaryRootDirectory(new File(basedir, "target/temp"));
+        configSource.setOutputDirectory(new File(basedir, "target"));
+        configSource.setWorkingDirectory(new File(basedir, "target/work"));
+        configSource.setFinalName("finalName");
+        configSource.setIncremental(true);
+
+        final Assembly assembly = new Assembly();
+        assembly.setId("id");
+        assembly.setIncludeBaseDirectory(false);
+
+        final DefaultAssemblyArchiver subject = createSubject(Collections.singletonList(phase));
+
+        subject.createArchive(assembly, "full-name", "zip", configSource, null);
+        subject.createArchive(assembly, "full-name", "zip", configSource, null);
+        verify(phase, times(1)).execute(any(Assembly.class), any(Archiver.class), eq(configSource));
+
+        Files.write(log.toPath(), "more log".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(basedir, "target/.gitignore").toPath(), "*".getBytes(StandardCharsets.UTF_8));
+        subject.createArchive(assembly, "full-name", "zip", configSource, null);
+        verify(phase, times(1)).execute(any(Assembly.class), any(Archiver.class), eq(configSource));
+
+        Files.write(jar.toPath(), "changed jar".getBytes(StandardCharsets.UTF_8));
+        subject.createArchive(assembly, "full-name", "zip", configSource, null);
+        verify(phase, times(2)).execute(any(Assembly.class), any(Archiver.class), eq(configSource));
+
+        assumeTrue(script.setExecutable(true) && script.canExecute());
+        subject.createArchive(assembly, "full-name", "zip", configSource, null);
+        verify(phase, times(3)).execute(any(Assembly.class), any(Archiver.class), eq(configSource));
+    }
+
+    @Test
+    void createArchiveShouldOnlyTrackReferencedSystemPropertiesWhenIncremental() throws Exception {
+        when(archiverManager.getArchiver("zip")).thenAnswer(invocation -> new ZipArchiver());
+
+        final File basedir = newFolder(temporaryFolder, "basedir");
+        final File readme = new File(basedir, "README.txt");
+        Files.write(readme.toPath(), "Installed in ${env.APP_HOME}".getBytes(StandardCharsets.UTF_8));
+
+        final AssemblyArchiverPhase phase = mock(AssemblyArchiverPhase.class);
+        doAnswer(invocation -> {
+                    final Archiver archiver = invocation.getArgument(1);
+                    archiver.addFile(readme, "README.txt");
+                    return null;
+                })
+                .when(phase)
+                .execute(any(Assembly.class), any(Archiver.class), any(AssemblerConfigurationSource.class));
+
+        final Properties systemProperties = new Properties();
+        systemProperties.setProperty("app.version", "1.0");
+        systemProperties.setProperty("env.APP_HOME", "/opt/app");
+        systemProperties.setProperty("env.BUILD_NUMBER", "1");
+        final MavenSession session = mock(MavenSession.class);
+        when(session.getSystemProperties()).thenReturn(systemProperties);
+        when(session.getUserProperties()).thenReturn(new Properties());
+
+        final PojoConfigSource configSource = new PojoConfigSource();
+        configSource.setBasedir(basedir);
+        configSource.setMavenSession(session);
+        configSource.setTemporaryRootDirectory(new File(temporaryFolder, "temp"));
+        configSource.setOutputDirectory(newFolder(temporaryFolder, "out"));
+        configSource.setWorkingDirectory(new File(temporaryFolder, "work"));
+        configSource.setFinalName("finalName");
+        configSource.setIncremental(true);
+
+        final Assembly assembly = new Assembly();
+        assembly.setId("id");
+        final FileItem fileItem = new FileItem();
+        fileItem.setSource("README.txt");
+        fileItem.setDestName("README-${app.version}.txt");
+        fileItem.setFiltered(true);
+        assembly.addFile(fileItem);
+
+        final DefaultAssemblyArchiver subject = createSubject(Collections.singletonList(phase));
+
+        subject.createArchive(assembly, "full-name", "zip", configSource, null);
+        systemProperties.setProperty("env.BUILD_NUMBER", "2");
+        systemProperties.setProperty("java.io.tmpdir", "/tmp/2");
+        subject.createArchive(assembly, "full-name", "zip", configSource, null);
+        verify(phase, times(1)).execute(any(Assembly.class), any(Archiver.class), eq(configSource));
+
+        systemProperties.setProperty("app.version", "1.1");
+        subject.createArchive(assembly, "full-name", "zip", configSource, null);
+        verify(phase, times(2)).execute(any(Assembly.class), any(Archiver.class), eq(configSource));
+
+        systemProperties.setProperty("env.APP_HOME", "/usr/local/app");
+        subject.createArchive(assembly, "full-name", "zip", configSource, null);
+        verify(phase, times(3)).execute(any(Assembly.class), any(Archiver.class), eq(configSource));
+    }
+
+    @Test
+    void createArchiveShouldReuseUnchangedZipEntries() throws Exception {
+        when(archiverManager.getArchiver("zip")).thenAnswer(invocation -> new ZipArchiver());
+
+        final File directory = newFolder(temporaryFolder, "dir");
+        final File unchanged = new File(directory, "unchanged.txt");
+        Files.write(unchanged.toPath(), "unchanged unchanged unchanged".getBytes(StandardCharsets.UTF_8));
+        final File changed = new File(directory, "changed.txt");
+        Files.write(changed.toPath(), "before before before".getBytes(StandardCharsets.UTF_8));
+        final File nested = new File(directory, "nested.zip");
+        try (ZipArchiveOutputStream out = new ZipArchiveOutputStream(nested)) {
+            out.putArchiveEntry(new ZipArchiveEntry("file.txt"));
+            out.write("nested nested nested".getBytes(StandardCharsets.UTF_8));
+            out.closeArchiveEntry();
+        }
+
+        final AssemblyArchiverPhase phase = mock(AssemblyArchiverPhase.class);
+        doAnswer(invocation -> {
+                    final Archiver archiver = invocation.getArgument(1);
+                    archiver.addFileSet(DefaultFileSet.fileSet(directory).prefixed("dir/"));
+                    return null;
+                })
+                .when(phase)
+                .execute(any(Assembly.class), any(Archiver.class), any(AssemblerConfigurationSource.class));
+
+        final PojoConfigSource configSource = new PojoConfigSource();
+        configSource.setTemporaryRootDirectory(new File(temporaryFolder, "temp"));
+        configSource.setOutputDirectory(newFolder(temporaryFolder, "out"));
+        configSource.setFinalName("finalName");
+        configSource.setWorkingDirectory(new File(temporaryFolder, "work"));
+        configSource.setReuseUnchangedZipEntries(true);
+
+        final Assembly assembly = new Assembly();
+        assembly.setId("id");
+        assembly.setIncludeBaseDirectory(false);
+
+        final FileTime outputTimestamp = FileTime.fromMillis(1700000000000L);
+        final DefaultAssemblyArchiver subject = createSubject(Collections.singletonList(phase));
+
+        final File destFile = subject.createArchive(assembly, "full-name", "zip", configSource, outputTimestamp);
+        final byte[] unchangedRaw;
+        try (org.apache.commons.compress.archivers.zip.ZipFile zipFile =
+                org.apache.commons.compress.archivers.zip.ZipFile.builder()
+                        .setFile(destFile)
+                        .get()) {
+            unchangedRaw = IOUtils.toByteArray(zipFile.getRawInputStream(zipFile.getEntry("dir/unchanged.txt")));
+        }
+
+        final File commented = new File(temporaryFolder, "commented.zip");
+        try (org.apache.commons.compress.archivers.zip.ZipFile zipFile =
+                        org.apache.commons.compress.archivers.zip.ZipFile.builder()
+                                .setFile(destFile)
+                                .get();
+                ZipArchiveOutputStream out = new ZipArchiveOutputStream(commented)) {
+            out.setComment("stale comment");
+            zipFile.copyRawEntries(out, entry -> true);
+        }
+        Files.move(commented.toPath(), destFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        Files.write(changed.toPath(), "after after after".getBytes(StandardCharsets.UTF_8));
+        subject.createArchive(assembly, "full-name", "zip", configSource, outputTimestamp);
+
+        try (org.apache.commons.compress.archivers.zip.ZipFile zipFile =
+                org.apache.commons.compress.archivers.zip.ZipFile.builder()
+                        .setFile(destFile)
+                        .get()) {
+            final ZipArchiveEntry unchangedEntry = zipFile.getEntry("dir/unchanged.txt");
+            assertEquals(ZipArchiveEntry.DEFLATED, unchangedEntry.getMethod());
+            assertArrayEquals(unchangedRaw, IOUtils.toByteArray(zipFile.getRawInputStream(unchangedEntry)));
+
+            final ZipArchiveEntry changedEntry = zipFile.getEntry("dir/changed.txt");
+            assertEquals(ZipArchiveEntry.DEFLATED, changedEntry.getMethod());
+            assertEquals(
+                    "after after after",
+                    new String(IOUtils.toByteArray(zipFile.getInputStream(changedEntry)), StandardCharsets.UTF_8));
+
+            final ZipArchiveEntry nestedEntry = zipFile.getEntry("dir/nested.zip");
+            assertEquals(ZipArchiveEntry.STORED, nestedEntry.getMethod());
+            assertArrayEquals(
+                    Files.readAllBytes(nested.toPath()), IOUtils.toByteArray(zipFile.getInputStream(nestedEntry)));
+        }
+        try (ZipFile zipFile = new ZipFile(destFile)) {
+            assertNotEquals("stale comment", zipFile.getComment());
+        }
+        assertFalse(new File(configSource.getTemporaryRootDirectory(), "full-name.zip.stored").exists());
+
+        // a truncated previous archive, as left by an interrupted build, is not reused
+        try (RandomAccessFile file = new RandomAccessFile(destFile, "rw")) {
+            file.setLength(10);
+        }
+        subject.createArchive(assembly, "full-name", "zip", configSource, outputTimestamp);
+        try (ZipFile zipFile = new ZipFile(destFile)) {
+            assertNotNull(zipFile.getEntry("dir/unchanged.txt"));
+        }
+    }
+
+    @Test
+    void createArchiveShouldReuseCompressedEntriesOfUnpackedArchives() throws Exception {
+        // the zip archiver needs its injected archiver manager to unpack archives
+        final PlexusContainer indexedContainer = new DefaultPlexusContainer(new DefaultContainerConfiguration()
+                .setClassPathScanning(PlexusConstants.SCANNING_INDEX)
+                .setAutoWiring(true));
+        when(archiverManager.getArchiver("zip"))
+                .thenAnswer(invocation -> indexedContainer.lookup(Archiver.class, "zip"));
+
+        final byte[] content = "content content content content".getBytes(StandardCharsets.UTF_8);
+        final File dependency = new File(temporaryFolder, "dependency.jar");
+        try (ZipArchiveOutputStream out = new ZipArchiveOutputStream(dependency)) {
+            // a compression level the archiver does not use, so that the raw bytes tell where they come from
+            out.setLevel(1);
+            out.putArchiveEntry(new ZipArchiveEntry("a/file.txt"));
+            out.write(content);
+            out.closeArchiveEntry();
+        }
+        final byte[] dependencyRaw;
+        try (org.apache.commons.compress.archivers.zip.ZipFile zipFile =
+                org.apache.commons.compress.archivers.zip.ZipFile.builder()
+                        .setFile(dependency)
+                        .get()) {
+            dependencyRaw = IOUtils.toByteArray(zipFile.getRawInputStream(zipFile.getEntry("a/file.txt")));
+        }
+
+        final AssemblyArchiverPhase phase = mock(AssemblyArchiverPhase.class);
+        doAnswer(invocation -> {
+                    final Archiver archiver = invocation.getArgument(1);
+                    final DefaultArchivedFileSet fileSet = DefaultArchivedFileSet.archivedFileSet(dependency);
+                    fileSet.setPrefix("lib/");
+                    archiver.addArchivedFileSet(fileSet, StandardCharsets.UTF_8);
+                    return null;
+                })
+                .when(phase)
+                .execute(any(Assembly.class), any(Archiver.class), any(AssemblerConfigurationSource.class));
+
+        final PojoConfigSource configSource = new PojoConfigSource();
+        configSource.setTemporaryRootDirectory(new File(temporaryFolder, "temp"));
+        configSource.setOutputDirectory(newFolder(temporaryFolder, "out"));
+        configSource.setWorkingDirectory(new File(temporaryFolder, "work"));
+        configSource.setFinalName("finalName");
+        configSource.setReuseUnpackedZipEntries(true);
+
+        final Assembly assembly = new Assembly();
+        assembly.setId("id");
+        assembly.setIncludeBaseDirectory(true);
+
+        final File destFile = createSubject(Collections.singletonList(phase))
+                .createArchive(assembly, "full-name", "zip", configSource, null);
+
+        try (org.apache.commons.compress.archivers.zip.ZipFile zipFile =
+                org.apache.commons.compress.archivers.zip.ZipFile.builder()
+                        .setFile(destFile)
+                        .get()) {
+            final ZipArchiveEntry entry = zipFile.getEntry("finalName/lib/a/file.txt");
+            assertEquals(ZipArchiveEntry.DEFLATED, entry.getMethod());
+            assertArrayEquals(dependencyRaw, IOUtils.toByteArray(zipFile.getRawInputStream(entry)));
+            assertArrayEquals(content, IOUtils.toByteArray(zipFile.getInputStream(entry)));
+        } finally {
+            indexedContainer.dispose();
+        }
+    }
+
     @Test
     void createArchiverShouldConfigureArchiver() throws Exception {
         final TestArchiverWithConfig archiver = new TestArchiverWithConfig();
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.archive;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.plugins.assembly.archive.ParallelTarCompressor.Compression;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelTarCompressorTest {
+    @TempDir
+    private File temporaryFolder;
+
+    @Test
+    void compressShouldWriteConcatenatedGzipMembers() throws Exception {
+        assertCompression(Compression.GZIP);
+    }
+
+    @Test
+    void compressShouldWriteConcatenatedZstdFrames() throws Exception {
+        assertCompression(Compression.ZSTD);
+    }
+
+    @Test
+    void forFormatShouldOnlyMatchCompressedTarFormats() {
+        assertEquals(Compression.GZIP, Compression.forFormat("tar.gz"));
+        assertEquals(Compression.GZIP, Compression.forFormat("tgz"));
+        assertEquals(Compression.ZSTD, Compression.forFormat("tar.zst"));
+        assertEquals(Compression.ZSTD, Compression.forFormat("tzst"));
+        assertNull(Compression.forFormat("tar.bz2"));
+        assertNull(Compression.forFormat("tbz2"));
+        assertNull(Compression.forFormat("tar.xz"));
+        assertNull(Compression.forFormat("txz"));
+        assertNull(Compression.forFormat("tar"));
+        assertNull(Compression.forFormat("tar.snappy"));
+        assertNull(Compression.forFormat("zip"));
+    }
+
+    private void assertCompression(Compression compression) throws Exception {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            content.append("line ").append(i).append(" of the uncompressed tar\n");
+        }
+        final byte[] data = content.toString().getBytes(StandardCharsets.UTF_8);
+
+        final File source = new File(temporaryFolder, "source.tar");
+        Files.write(source.toPath(), data);
+
+        final File single = new File(temporaryFolder, "single");
+        new ParallelTarCompressor(compression, 64 * 1024, 1).compress(source, single);
+        final File parallel = new File(temporaryFolder, "parallel");
+        new ParallelTarCompressor(compression, 64 * 1024, 4).compress(source, parallel);
+
+        assertArrayEquals(Files.readAllBytes(single.toPath()), Files.readAllBytes(parallel.toPath()));
+
+        // more than one block, so more than one member or frame
+        assertTrue(data.length > 4 * 64 * 1024);
+        try (InputStream in = decompress(compression, parallel)) {
+            assertArrayEquals(data, IOUtils.toByteArray(in));
+        }
+    }
+
+    /**
+     * Opens the compressed file the way the tar unarchiver does, with readers that are not told to expect several
+     * members or frames.
+     */
+    private static InputStream decompress(Compression compression, File file) throws IOException {
+        final InputStream in = Files.newInputStream(file.toPath());
+        switch (compression) {
+            case GZIP:
+                return new GZIPInputStream(in);
+            default:
+                return new ZstdCompressorInputStream(in);
+        }
+    }
+}
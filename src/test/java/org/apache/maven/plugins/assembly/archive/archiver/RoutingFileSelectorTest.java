@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.archive.archiver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.plugins.assembly.filter.ContainerDescriptorHandler;
+import org.codehaus.plexus.components.io.fileselectors.FileInfo;
+import org.codehaus.plexus.components.io.fileselectors.FileSelector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RoutingFileSelectorTest {
+
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    void isSelectedShouldOnlyRunHandlersForFilesUnderTheirPrefixes() throws Exception {
+        final RoutingFileSelector selector = new RoutingFileSelector(Arrays.asList(
+                handler("services", true, "META-INF/services/"),
+                recorder("other", true),
+                handler("spring", true, "/META-INF/spring.")));
+
+        assertTrue(selector.isSelected(file("org/example/Main.class")));
+        assertEquals(Collections.singletonList("other"), calls);
+
+        calls.clear();
+        assertTrue(selector.isSelected(file("/META-INF/services/org.example.Service")));
+        assertEquals(Arrays.asList("services", "other"), calls);
+
+        calls.clear();
+        assertTrue(selector.isSelected(file("META-INF\\spring.handlers")));
+        assertEquals(Arrays.asList("other", "spring"), calls);
+
+        calls.clear();
+        assertTrue(selector.isSelected(file("META-INF/spring")));
+        assertEquals(Collections.singletonList("other"), calls);
+    }
+
+    @Test
+    void isSelectedShouldStopAtTheFirstSelectorNotSelectingTheFile() throws Exception {
+        final RoutingFileSelector selector = new RoutingFileSelector(Arrays.asList(
+                handler("outer", false, "META-INF/"), handler("inner", true, "META-INF/services/")));
+
+        assertFalse(selector.isSelected(file("META-INF/services/org.example.Service")));
+        assertEquals(Collections.singletonList("outer"), calls);
+    }
+
+    @Test
+    void isSelectedShouldRunHandlersWithoutPrefixesForEveryFile() throws Exception {
+        final ContainerDescriptorHandler handler = mock(ContainerDescriptorHandler.class);
+        when(handler.getPathPrefixes()).thenReturn(null);
+        final ContainerDescriptorHandler emptyPrefix = handler("empty", true, "/");
+
+        final RoutingFileSelector selector = new RoutingFileSelector(Arrays.asList(handler, emptyPrefix));
+
+        final FileInfo fileInfo = file("org/example/Main.class");
+        when(handler.isSelected(fileInfo)).thenReturn(true);
+
+        assertTrue(selector.isSelected(fileInfo));
+        verify(handler).isSelected(fileInfo);
+        assertEquals(Collections.singletonList("empty"), calls);
+    }
+
+    @Test
+    void isSelectedShouldSkipHandlerForShorterName() throws Exception {
+        final ContainerDescriptorHandler handler = mock(ContainerDescriptorHandler.class);
+        when(handler.getPathPrefixes()).thenReturn(Collections.singletonList("META-INF/plexus/components.xml"));
+
+        final RoutingFileSelector selector = new RoutingFileSelector(Collections.singletonList(handler));
+
+        final FileInfo fileInfo = file("META-INF/plexus");
+        assertTrue(selector.isSelected(fileInfo));
+        verify(handler, never()).isSelected(fileInfo);
+    }
+
+    private FileSelector recorder(final String name, final boolean answer) {
+        return fileInfo -> {
+            calls.add(name);
+            return answer;
+        };
+    }
+
+    private ContainerDescriptorHandler handler(final String name, final boolean answer, final String prefix)
+            throws Exception {
+        final ContainerDescriptorHandler handler = mock(ContainerDescriptorHandler.class);
+        when(handler.getPathPrefixes()).thenReturn(Collections.singletonList(prefix));
+        when(handler.isSelected(any())).thenAnswer(invocation -> {
+            calls.add(name);
+            return answer;
+        });
+        return handler;
+    }
+
+    private static FileInfo file(final String name) {
+        final FileInfo fileInfo = mock(FileInfo.class);
+        when(fileInfo.getName()).thenReturn(name);
+        return fileInfo;
+    }
+}
@@ -24,10 +24,15 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
 import org.apache.maven.model.Model;
 import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
 import org.apache.maven.plugins.assembly.InvalidAssemblerConfigurationException;
@@ -35,6 +40,7 @@ import org.apache.maven.plugins.assembly.archive.ArchiveCreationException;
 import org.apache.maven.plugins.assembly.archive.DefaultAssemblyArchiverTest;
 import org.apache.maven.plugins.assembly.artifact.DependencyResolver;
 import org.apache.maven.plugins.assembly.model.Assembly;
+import org.apache.maven.plugins.assembly.model.DependencySet;
 import org.apache.maven.plugins.assembly.model.FileSet;
 import org.apache.maven.plugins.assembly.model.ModuleBinaries;
 import org.apache.maven.plugins.assembly.model.ModuleSet;
@@ -471,6 +477,85 @@ class ModuleSetAssemblyPhaseTest {
         verify(archiver).setFileMode(146);
     }
 
+    @Test
+    void addModuleBinariesShouldAddModuleIndependentDependencySetsOnce() throws Exception {
+        final File depFile = File.createTempFile("junit", null, temporaryFolder);
+        final Artifact depArtifact = new DefaultArtifact(
+                "dep-group",
+                "dep",
+                VersionRange.createFromVersion("1"),
+                "runtime",
+                "jar",
+                null,
+                new DefaultArtifactHandler("jar"));
+        depArtifact.setFile(depFile);
+
+        final AssemblerConfigurationSource configSource = mock(AssemblerConfigurationSource.class);
+        final Archiver archiver = mock(Archiver.class);
+
+        final ModuleBinaries binaries = new ModuleBinaries();
+        binaries.setIncludeDependencies(true);
+        binaries.setUnpack(false);
+        binaries.setOutputDirectory("modules");
+        binaries.setOutputFileNameMapping("${module.artifactId}.${module.extension}");
+
+        final DependencySet shared = new DependencySet();
+        shared.setOutputDirectory("shared");
+        shared.setOutputFileNameMapping("${artifact.artifactId}.${artifact.extension}");
+        shared.setUseProjectArtifact(false);
+        final DependencySet withModuleArtifact = new DependencySet();
+        withModuleArtifact.setOutputDirectory("lib");
+        withModuleArtifact.setOutputFileNameMapping("${artifact.artifactId}.${artifact.extension}");
+        final DependencySet perModule = new DependencySet();
+        perModule.setOutputDirectory("${module.artifactId}/lib");
+        perModule.setOutputFileNameMapping("${artifact.artifactId}.${artifact.extension}");
+        perModule.setUseProjectArtifact(false);
+        binaries.addDependencySet(shared);
+        binaries.addDependencySet(withModuleArtifact);
+        binaries.addDependencySet(perModule);
+
+        final Set<MavenProject> projects = new LinkedHashSet<>();
+        final List<File> moduleFiles = new ArrayList<>();
+        for (final String artifactId : Arrays.asList("module-1", "module-2")) {
+            final MavenProject project = createProject("group", artifactId, "1", null);
+            final Artifact artifact = new DefaultArtifact(
+                    "group",
+                    artifactId,
+                    VersionRange.createFromVersion("1"),
+                    "compile",
+                    "jar",
+                    null,
+                    new DefaultArtifactHandler("jar"));
+            artifact.setFile(File.createTempFile("junit", null, temporaryFolder));
+            project.setArtifact(artifact);
+            projects.add(project);
+            moduleFiles.add(artifact.getFile());
+        }
+
+        final Map<DependencySet, Set<Artifact>> resolved = new LinkedHashMap<>();
+        resolved.put(shared, Collections.singleton(depArtifact));
+        resolved.put(withModuleArtifact, Collections.singleton(depArtifact));
+        resolved.put(perModule, Collections.singleton(depArtifact));
+        when(dependencyResolver.resolveDependencySets(
+                        isNull(), isNull(), any(AssemblerConfigurationSource.class), anyList()))
+                .thenReturn(resolved);
+        DefaultAssemblyArchiverTest.setupInterpolators(configSource, projects.iterator().next());
+
+        assertFalse(ModuleSetAssemblyPhase.isModuleDependent(shared, binaries));
+        assertTrue(ModuleSetAssemblyPhase.isModuleDependent(withModuleArtifact, binaries));
+        assertTrue(ModuleSetAssemblyPhase.isModuleDependent(perModule, binaries));
+
+        this.phase.addModuleBinaries(null, null, binaries, projects, archiver, configSource);
+
+        // the module artifacts are added by the module binaries, not by the dependency sets
+        verify(archiver, times(1)).addFile(moduleFiles.get(0), "modules/module-1.jar");
+        verify(archiver, times(1)).addFile(moduleFiles.get(1), "modules/module-2.jar");
+        verify(archiver, times(1)).addFile(depFile, "shared/dep.jar");
+        verify(archiver, times(1)).addFile(depFile, "lib/dep.jar");
+        verify(archiver, times(1)).addFile(depFile, "module-1/lib/dep.jar");
+        verify(archiver, times(1)).addFile(depFile, "module-2/lib/dep.jar");
+    }
+
     @Test
     void addModuleArtifactShouldThrowExceptionWhenArtifactFileIsNull() throws Exception {
         Artifact artifact = mock(Artifact.class);
@@ -20,6 +20,8 @@ package org.apache.maven.plugins.assembly.archive.task;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Arrays;
 
 import org.apache.maven.artifact.Artifact;
@@ -27,6 +29,7 @@ import org.apache.maven.artifact.handler.ArtifactHandler;
 import org.apache.maven.model.Model;
 import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
 import org.apache.maven.plugins.assembly.archive.DefaultAssemblyArchiverTest;
+import org.apache.maven.plugins.assembly.archive.archiver.MultiDestinationArchiver;
 import org.apache.maven.plugins.assembly.model.DependencySet;
 import org.apache.maven.plugins.assembly.utils.TypeConversionUtils;
 import org.apache.maven.project.MavenProject;
@@ -43,6 +46,7 @@ import org.mockito.quality.Strictness;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.isNull;
@@ -159,6 +163,34 @@ class AddArtifactTaskTest {
         verify(archiver).addFile(artifactFile, outputDir + artifactId + "-" + version + "." + ext);
     }
 
+    @Test
+    void shouldCopyArtifactThatIsTheDestinationOfAnotherFormat() throws Exception {
+        final File outputDirectory = new File(temporaryFolder, "out");
+        final File tarFile = new File(outputDirectory, "final-name.tar");
+        final File zipFile = new File(outputDirectory, "final-name.zip");
+        outputDirectory.mkdirs();
+        Files.write(zipFile.toPath(), "previous".getBytes(StandardCharsets.UTF_8));
+        final File tempRoot = new File(temporaryFolder, "temp");
+
+        Artifact artifact = mock(Artifact.class);
+        when(artifact.getGroupId()).thenReturn("GROUPID");
+        when(artifact.getFile()).thenReturn(zipFile);
+
+        final Archiver delegate = mock(Archiver.class);
+        when(delegate.getDestFile()).thenReturn(tarFile);
+        final Archiver archiver = new MultiDestinationArchiver(delegate, Arrays.asList(tarFile, zipFile));
+
+        when(configSource.getProject()).thenReturn(mainProject);
+        when(configSource.getTemporaryRootDirectory()).thenReturn(tempRoot);
+        DefaultAssemblyArchiverTest.setupInterpolators(configSource, mainProject);
+
+        createTask(artifact).execute(archiver, configSource);
+
+        final File copy = new File(tempRoot, "final-name.zip");
+        verify(artifact).setFile(copy);
+        assertEquals("previous", new String(Files.readAllBytes(copy.toPath()), StandardCharsets.UTF_8));
+    }
+
     private AddArtifactTask createTask(Artifact artifact) {
         AddArtifactTask task = new AddArtifactTask(artifact, null);
 
@@ -20,9 +20,12 @@ package org.apache.maven.plugins.assembly.archive.task;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 
@@ -51,6 +54,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -59,10 +63,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -114,18 +122,14 @@ class AddDependencySetsTaskTest {
         final File newFile = File.createTempFile("junit", null, temporaryFolder);
         when(depArtifact.getFile()).thenReturn(newFile);
         when(depArtifact.getGroupId()).thenReturn("GROUPID");
+        when(depArtifact.getArtifactId()).thenReturn(depAid);
+        when(depArtifact.getVersion()).thenReturn(depVer);
 
         depProject.setArtifact(depArtifact);
 
-        ProjectBuildingResult pbr = mock(ProjectBuildingResult.class);
-        when(pbr.getProject()).thenReturn(depProject);
-
         final ProjectBuilder projectBuilder = mock(ProjectBuilder.class);
-        when(projectBuilder.build(any(Artifact.class), any(ProjectBuildingRequest.class)))
-                .thenReturn(pbr);
 
         final MavenSession session = mock(MavenSession.class);
-        when(session.getProjectBuildingRequest()).thenReturn(new DefaultProjectBuildingRequest());
         when(session.getUserProperties()).thenReturn(new Properties());
         when(session.getSystemProperties()).thenReturn(new Properties());
 
@@ -160,11 +164,13 @@ class AddDependencySetsTaskTest {
         verify(archiver).setFileMode(10);
         verify(archiver).setFileMode(146);
 
-        verify(session).getProjectBuildingRequest();
-        verify(session, times(2)).getUserProperties();
-        verify(session, times(2)).getSystemProperties();
+        // only the output directory needs the session properties, the default mapping is read from the artifact
+        verify(session).getUserProperties();
+        verify(session).getSystemProperties();
 
-        verify(projectBuilder).build(any(Artifact.class), any(ProjectBuildingRequest.class));
+        // the default mapping only uses artifact coordinates, so the POM of the dependency is not built
+        verify(session, never()).getProjectBuildingRequest();
+        verify(projectBuilder, never()).build(any(Artifact.class), any(ProjectBuildingRequest.class));
     }
 
     @Test
@@ -197,6 +203,7 @@ class AddDependencySetsTaskTest {
         when(depArtifact.getGroupId()).thenReturn("GROUPID");
         when(depArtifact.getArtifactId()).thenReturn(aid);
         when(depArtifact.getBaseVersion()).thenReturn(version);
+        when(depArtifact.getType()).thenReturn(type);
         when(depArtifact.getFile()).thenReturn(file);
         ArtifactHandler artifactHandler = mock(ArtifactHandler.class);
         when(artifactHandler.getExtension()).thenReturn(type);
@@ -225,6 +232,7 @@ class AddDependencySetsTaskTest {
 
         final DependencySet ds = new DependencySet();
         ds.setOutputDirectory("/out");
+        ds.setOutputFileNameMapping("${artifact.artifactId}-${artifact.version}.${artifact.packaging}");
         DefaultAssemblyArchiverTest.setupInterpolators(configSource, project);
 
         final AddDependencySetsTask task = new AddDependencySetsTask(
@@ -274,7 +282,6 @@ class AddDependencySetsTaskTest {
         ds.setFileMode(Integer.toString(10, 8));
 
         final MavenSession session = mock(MavenSession.class);
-        when(session.getProjectBuildingRequest()).thenReturn(new DefaultProjectBuildingRequest());
         when(session.getUserProperties()).thenReturn(new Properties());
         when(session.getSystemProperties()).thenReturn(new Properties());
 
@@ -296,15 +303,7 @@ class AddDependencySetsTaskTest {
             when(configSource.getProject()).thenReturn(project);
         }
 
-        final MavenProject depProject = new MavenProject(new Model());
-        depProject.setGroupId("GROUPID");
-
-        ProjectBuildingResult pbr = mock(ProjectBuildingResult.class);
-        when(pbr.getProject()).thenReturn(depProject);
-
         final ProjectBuilder projectBuilder = mock(ProjectBuilder.class);
-        when(projectBuilder.build(any(Artifact.class), any(ProjectBuildingRequest.class)))
-                .thenReturn(pbr);
 
         final AddDependencySetsTask task = new AddDependencySetsTask(
                 Collections.singletonList(ds), Collections.singleton(artifact), project, projectBuilder);
@@ -324,11 +323,11 @@ class AddDependencySetsTaskTest {
         verify(archiver).setDirectoryMode(10);
         verify(archiver).setDirectoryMode(146);
 
-        verify(session).getProjectBuildingRequest();
         verify(session, atLeastOnce()).getUserProperties();
         verify(session, atLeastOnce()).getSystemProperties();
 
-        verify(projectBuilder).build(any(Artifact.class), any(ProjectBuildingRequest.class));
+        verify(session, never()).getProjectBuildingRequest();
+        verify(projectBuilder, never()).build(any(Artifact.class), any(ProjectBuildingRequest.class));
 
         if (unpack) {
             verify(archiver).addArchivedFileSet(any(ArchivedFileSet.class), isNull());
@@ -338,6 +337,79 @@ class AddDependencySetsTaskTest {
         }
     }
 
+    @Test
+    void addDependencySetShouldBuildProjectsConcurrentlyAndKeepArtifactOrder() throws Exception {
+        final MavenProject project = new MavenProject(new Model());
+
+        final DependencySet ds = new DependencySet();
+        ds.setOutputDirectory("${artifact.properties.libDir}");
+        ds.setOutputFileNameMapping("${artifact.artifactId}.jar");
+
+        final MavenSession session = mock(MavenSession.class);
+        when(session.getProjectBuildingRequest()).thenReturn(new DefaultProjectBuildingRequest());
+        when(session.getUserProperties()).thenReturn(new Properties());
+        when(session.getSystemProperties()).thenReturn(new Properties());
+
+        final AssemblerConfigurationSource configSource = mock(AssemblerConfigurationSource.class);
+        when(configSource.getMavenSession()).thenReturn(session);
+        when(configSource.getFinalName()).thenReturn("final-name");
+        when(configSource.getProject()).thenReturn(project);
+        when(configSource.getProjectBuildingThreads()).thenReturn(4);
+        DefaultAssemblyArchiverTest.setupInterpolators(configSource, project);
+
+        final ProjectBuilder projectBuilder = mock(ProjectBuilder.class);
+        final Set<Artifact> artifacts = new LinkedHashSet<>();
+        final List<File> files = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            final Artifact artifact = mock(Artifact.class);
+            final File file = File.createTempFile("junit", null, temporaryFolder);
+            when(artifact.getFile()).thenReturn(file);
+            when(artifact.getGroupId()).thenReturn("GROUPID");
+            when(artifact.getArtifactId()).thenReturn("dep" + i);
+            artifacts.add(artifact);
+            files.add(file);
+
+            final MavenProject depProject = new MavenProject(new Model());
+            depProject.setGroupId("GROUPID");
+            depProject.getProperties().setProperty("libDir", "lib");
+            final ProjectBuildingResult pbr = mock(ProjectBuildingResult.class);
+            when(pbr.getProject()).thenReturn(depProject);
+            when(projectBuilder.build(same(artifact), any(ProjectBuildingRequest.class)))
+                    .thenReturn(pbr);
+        }
+
+        final Archiver archiver = mock(Archiver.class);
+
+        final AddDependencySetsTask task =
+                new AddDependencySetsTask(Collections.singletonList(ds), artifacts, project, projectBuilder);
+
+        task.addDependencySet(ds, archiver, configSource);
+
+        verify(projectBuilder, times(6)).build(any(Artifact.class), any(ProjectBuildingRequest.class));
+
+        final InOrder inOrder = inOrder(archiver);
+        for (int i = 0; i < 6; i++) {
+            inOrder.verify(archiver).addFile(files.get(i), "lib/dep" + i + ".jar");
+        }
+    }
+
+    @Test
+    void requiresDependencyProjectShouldDetectPomDerivedExpressions() {
+        final String defaultMapping =
+                "${artifact.artifactId}-${artifact.version}${dashClassifier?}.${artifact.extension}";
+        assertFalse(AddDependencySetsTask.requiresDependencyProject(null, defaultMapping, false));
+        assertFalse(AddDependencySetsTask.requiresDependencyProject("lib/${artifact.groupIdPath}", "a.jar", false));
+        assertFalse(
+                AddDependencySetsTask.requiresDependencyProject("${finalName}/lib", "${artifact.handler.type}", false));
+        assertFalse(
+                AddDependencySetsTask.requiresDependencyProject("lib/${project.version}", "${module.artifactId}", false));
+
+        assertTrue(AddDependencySetsTask.requiresDependencyProject("${finalName}/lib", defaultMapping, true));
+        assertTrue(AddDependencySetsTask.requiresDependencyProject("lib/${artifact.type}", defaultMapping, false));
+        assertTrue(AddDependencySetsTask.requiresDependencyProject("lib", "${artifact.properties.name}.jar", false));
+        assertTrue(AddDependencySetsTask.requiresDependencyProject("lib", "${artifact.build.finalName}.jar", false));
+    }
+
     @Test
     void getDependencyArtifactsShouldGetOneDependencyArtifact() throws Exception {
         final MavenProject project = new MavenProject(new Model());
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.archive.task;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DependencyProjectCacheTest {
+    @Test
+    void getInstanceShouldReturnSameCacheForSameSession() {
+        final MavenSession session = mock(MavenSession.class);
+        when(session.getRepositorySession()).thenReturn(new DefaultRepositorySystemSession());
+
+        assertSame(DependencyProjectCache.getInstance(session), DependencyProjectCache.getInstance(session));
+    }
+
+    @Test
+    void getInstanceShouldReturnUnboundCacheWithoutSession() {
+        assertNotSame(DependencyProjectCache.getInstance(null), DependencyProjectCache.getInstance(null));
+    }
+
+    @Test
+    void getProjectShouldBuildOncePerArtifactCoordinates() {
+        final DependencyProjectCache cache = new DependencyProjectCache();
+        final MavenProject project = new MavenProject(new Model());
+
+        final MavenProject first = cache.getProject(artifact("dep", "1.0"), a -> project);
+        final MavenProject second = cache.getProject(artifact("dep", "1.0"), a -> new MavenProject(new Model()));
+        final MavenProject other = cache.getProject(artifact("dep", "2.0"), a -> new MavenProject(new Model()));
+
+        assertSame(project, first);
+        assertSame(project, second);
+        assertNotSame(project, other);
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void getProjectStubShouldBuildOncePerArtifactCoordinates() {
+        final DependencyProjectCache cache = new DependencyProjectCache();
+        final MavenProject project = new MavenProject(new Model());
+        final MavenProject stub = new MavenProject(new Model());
+
+        cache.getProject(artifact("dep", "1.0"), a -> project);
+        final MavenProject first = cache.getProjectStub(artifact("dep", "1.0"), a -> stub);
+        final MavenProject second = cache.getProjectStub(artifact("dep", "1.0"), a -> new MavenProject(new Model()));
+        final MavenProject other = cache.getProjectStub(artifact("dep", "2.0"), a -> new MavenProject(new Model()));
+
+        assertSame(stub, first);
+        assertSame(stub, second);
+        assertNotSame(stub, other);
+    }
+
+    private static Artifact artifact(final String artifactId, final String version) {
+        return new DefaultArtifact(
+                "group", artifactId, version, "compile", "jar", null, new DefaultArtifactHandler("jar"));
+    }
+}
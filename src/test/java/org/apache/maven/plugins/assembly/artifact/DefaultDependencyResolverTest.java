@@ -19,10 +19,13 @@
 package org.apache.maven.plugins.assembly.artifact;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DefaultArtifact;
@@ -36,12 +39,15 @@ import org.apache.maven.plugins.assembly.model.DependencySet;
 import org.apache.maven.plugins.assembly.model.ModuleBinaries;
 import org.apache.maven.plugins.assembly.model.ModuleSet;
 import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.DefaultSessionData;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.graph.DefaultDependencyNode;
 import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyNode;
 import org.eclipse.aether.resolution.DependencyRequest;
 import org.eclipse.aether.resolution.DependencyResult;
+import org.eclipse.aether.util.artifact.DefaultArtifactTypeRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -51,10 +57,12 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -99,7 +107,7 @@ class DefaultDependencyResolverTest {
         when(repositorySystem.resolveDependencies(eq(systemSession), any())).thenReturn(dependencyResult);
 
         final ResolutionManagementInfo info = new ResolutionManagementInfo();
-        resolver.updateDependencySetResolutionRequirements(systemSession, ds, info, project);
+        resolver.updateDependencySetResolutionRequirements(systemSession, ds, Collections.emptySet(), info, project);
         assertEquals(artifacts, info.getArtifacts());
         // dependencyTrail is set
         info.getArtifacts().forEach(artifact -> {
@@ -110,6 +118,212 @@ class DefaultDependencyResolverTest {
         });
     }
 
+    @Test
+    void getDependencySetResolutionRequirementsTransitiveShouldReuseResolutionOfSameScope() throws Exception {
+        when(systemSession.getData()).thenReturn(new DefaultSessionData());
+
+        final MavenProject project = createMavenProject("main-group", "main-artifact", "1", null);
+
+        DefaultDependencyNode node = new DefaultDependencyNode(new Dependency(
+                new org.eclipse.aether.artifact.DefaultArtifact("g.id:a-id:1").setFile(new File(".")), "runtime"));
+        DependencyResult dependencyResult = new DependencyResult(new DependencyRequest());
+        DefaultDependencyNode rootDependencyNode = new DefaultDependencyNode((Dependency) null);
+        rootDependencyNode.setChildren(Collections.singletonList(node));
+        dependencyResult.setRoot(rootDependencyNode);
+
+        when(repositorySystem.resolveDependencies(eq(systemSession), any())).thenReturn(dependencyResult);
+
+        final DependencySet runtime = new DependencySet();
+        runtime.setScope(Artifact.SCOPE_RUNTIME);
+        final DependencySet otherRuntime = new DependencySet();
+        otherRuntime.setScope(Artifact.SCOPE_RUNTIME);
+        otherRuntime.addInclude("g.id:*");
+
+        final ResolutionManagementInfo first = new ResolutionManagementInfo();
+        resolver.updateDependencySetResolutionRequirements(
+                systemSession, runtime, Collections.emptySet(), first, project);
+        final Artifact firstArtifact = first.getArtifacts().iterator().next();
+        firstArtifact.setScope(Artifact.SCOPE_TEST);
+        firstArtifact.getDependencyTrail().clear();
+
+        final ResolutionManagementInfo second = new ResolutionManagementInfo();
+        resolver.updateDependencySetResolutionRequirements(
+                systemSession, otherRuntime, Collections.emptySet(), second, project);
+
+        verify(repositorySystem, times(1)).resolveDependencies(eq(systemSession), any());
+        final Artifact secondArtifact = second.getArtifacts().iterator().next();
+        assertNotSame(firstArtifact, secondArtifact);
+        assertEquals("runtime", secondArtifact.getScope());
+        assertEquals(
+                Arrays.asList(project.getArtifact().getId(), secondArtifact.getId()),
+                secondArtifact.getDependencyTrail());
+
+        final DependencySet compile = new DependencySet();
+        compile.setScope(Artifact.SCOPE_COMPILE);
+        resolver.updateDependencySetResolutionRequirements(
+                systemSession, compile, Collections.emptySet(), new ResolutionManagementInfo(), project);
+
+        verify(repositorySystem, times(2)).resolveDependencies(eq(systemSession), any());
+    }
+
+    @Test
+    void getDependencySetResolutionRequirementsTransitiveShouldDeriveScopesFromWidestResolution() throws Exception {
+        when(systemSession.getData()).thenReturn(new DefaultSessionData());
+
+        final MavenProject project = createMavenProject("main-group", "main-artifact", "1", null);
+
+        DefaultDependencyNode compileNode = new DefaultDependencyNode(new Dependency(
+                new org.eclipse.aether.artifact.DefaultArtifact("g.id:compile:1").setFile(new File(".")), "compile"));
+        DefaultDependencyNode runtimeNode = new DefaultDependencyNode(new Dependency(
+                new org.eclipse.aether.artifact.DefaultArtifact("g.id:runtime:1").setFile(new File(".")), "runtime"));
+        DefaultDependencyNode providedNode = new DefaultDependencyNode(new Dependency(
+                new org.eclipse.aether.artifact.DefaultArtifact("g.id:provided:1").setFile(new File(".")),
+                "provided"));
+        compileNode.setChildren(Collections.singletonList(runtimeNode));
+        DependencyResult dependencyResult = new DependencyResult(new DependencyRequest());
+        DefaultDependencyNode rootDependencyNode = new DefaultDependencyNode((Dependency) null);
+        rootDependencyNode.setChildren(Arrays.asList(compileNode, providedNode));
+        dependencyResult.setRoot(rootDependencyNode);
+
+        when(repositorySystem.resolveDependencies(eq(systemSession), any())).thenReturn(dependencyResult);
+
+        final DependencySet runtime = new DependencySet();
+        runtime.setScope(Artifact.SCOPE_RUNTIME);
+        final DependencySet compile = new DependencySet();
+        compile.setScope(Artifact.SCOPE_COMPILE);
+        final Set<String> scopes = DefaultDependencyResolver.getResolutionScopes(Arrays.asList(runtime, compile));
+
+        final ResolutionManagementInfo runtimeInfo = new ResolutionManagementInfo();
+        resolver.updateDependencySetResolutionRequirements(systemSession, runtime, scopes, runtimeInfo, project);
+        final ResolutionManagementInfo compileInfo = new ResolutionManagementInfo();
+        resolver.updateDependencySetResolutionRequirements(systemSession, compile, scopes, compileInfo, project);
+
+        verify(repositorySystem, times(1)).resolveDependencies(eq(systemSession), any());
+        assertEquals(
+                new HashSet<>(Arrays.asList("g.id:compile:jar:1", "g.id:runtime:jar:1")),
+                runtimeInfo.getArtifacts().stream().map(Artifact::getId).collect(Collectors.toSet()));
+        assertEquals(
+                new HashSet<>(Arrays.asList("g.id:compile:jar:1", "g.id:provided:jar:1")),
+                compileInfo.getArtifacts().stream().map(Artifact::getId).collect(Collectors.toSet()));
+        // dependencyTrail is rebuilt from the whole graph
+        final Artifact transitive = runtimeInfo.getArtifacts().stream()
+                .filter(artifact -> "runtime".equals(artifact.getArtifactId()))
+                .findFirst()
+                .get();
+        assertEquals(
+                Arrays.asList(project.getArtifact().getId(), "g.id:compile:jar:1", "g.id:runtime:jar:1"),
+                transitive.getDependencyTrail());
+    }
+
+    @Test
+    void getDependencySetResolutionRequirementsTransitiveShouldMergeConcurrentResolutionsInProjectOrder()
+            throws Exception {
+        final List<MavenProject> projects = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            projects.add(createMavenProject("main-group", "module-" + i, "1", null));
+        }
+
+        when(repositorySystem.resolveDependencies(eq(systemSession), any())).thenAnswer(invocation -> {
+            final DependencyRequest request = invocation.getArgument(1);
+            final String artifactId = request.getCollectRequest().getRootArtifact().getArtifactId();
+            org.eclipse.aether.artifact.Artifact dep = new org.eclipse.aether.artifact.DefaultArtifact(
+                            "g.id:" + artifactId + "-dep:1")
+                    .setFile(new File("."));
+            DefaultDependencyNode node = new DefaultDependencyNode(new Dependency(dep, "runtime"));
+            DependencyResult dependencyResult = new DependencyResult(request);
+            DefaultDependencyNode rootDependencyNode = new DefaultDependencyNode((Dependency) null);
+            rootDependencyNode.setChildren(Collections.singletonList(node));
+            dependencyResult.setRoot(rootDependencyNode);
+            return dependencyResult;
+        });
+
+        final DependencySet ds = new DependencySet();
+        ds.setScope(Artifact.SCOPE_RUNTIME);
+
+        final List<MavenProject> withNull = new ArrayList<>(projects);
+        withNull.add(2, null);
+        final ResolutionManagementInfo info = new ResolutionManagementInfo();
+        resolver.updateDependencySetResolutionRequirements(
+                systemSession, ds, Collections.emptySet(), info, 4, withNull.toArray(new MavenProject[0]));
+
+        verify(repositorySystem, times(projects.size())).resolveDependencies(eq(systemSession), any());
+        assertEquals(
+                projects.stream().map(p -> p.getArtifactId() + "-dep").collect(Collectors.toList()),
+                info.getArtifacts().stream().map(Artifact::getArtifactId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void getDependencySetResolutionRequirementsTransitiveShouldNotDependOnResolutionOrder() throws Exception {
+        final Set<String> runtimeOnly = resolveRuntimeWithConflictingTestDependency(false);
+        final Set<String> runtimeAfterTest = resolveRuntimeWithConflictingTestDependency(true);
+
+        assertEquals(new HashSet<>(Arrays.asList("g.id:a:jar:1", "g.id:x:jar:1")), runtimeOnly);
+        assertEquals(runtimeOnly, runtimeAfterTest);
+    }
+
+    /**
+     * Resolves a runtime set for a project with a compile dependency on <code>a</code>, which depends on
+     * <code>x:1</code>, and a test dependency on <code>x:2</code>, which wins the conflict when test is resolved too.
+     */
+    private Set<String> resolveRuntimeWithConflictingTestDependency(boolean resolveTestFirst) throws Exception {
+        final DefaultSessionData sessionData = new DefaultSessionData();
+        when(systemSession.getData()).thenReturn(sessionData);
+        when(systemSession.getArtifactTypeRegistry()).thenReturn(new DefaultArtifactTypeRegistry());
+
+        final MavenProject project = createMavenProject("main-group", "main-artifact", "1", null);
+        project.getModel().addDependency(newDependency("a", "1", "compile"));
+        project.getModel().addDependency(newDependency("x", "2", "test"));
+
+        when(repositorySystem.resolveDependencies(eq(systemSession), any())).thenAnswer(invocation -> {
+            final DependencyRequest request = invocation.getArgument(1);
+            final boolean withTest = request.getCollectRequest().getDependencies().stream()
+                    .anyMatch(d -> "test".equals(d.getScope()));
+            final DefaultDependencyNode a = newNode("g.id:a:1", "compile");
+            final List<DependencyNode> children = new ArrayList<>();
+            children.add(a);
+            if (withTest) {
+                children.add(newNode("g.id:x:2", "test"));
+            } else {
+                a.setChildren(Collections.singletonList(newNode("g.id:x:1", "compile")));
+            }
+            final DefaultDependencyNode root = new DefaultDependencyNode((Dependency) null);
+            root.setChildren(children);
+            final DependencyResult dependencyResult = new DependencyResult(request);
+            dependencyResult.setRoot(root);
+            return dependencyResult;
+        });
+
+        final DependencySet runtime = new DependencySet();
+        runtime.setScope(Artifact.SCOPE_RUNTIME);
+        final DependencySet test = new DependencySet();
+        test.setScope(Artifact.SCOPE_TEST);
+
+        if (resolveTestFirst) {
+            final Set<String> scopes = DefaultDependencyResolver.getResolutionScopes(Arrays.asList(runtime, test));
+            resolver.updateDependencySetResolutionRequirements(
+                    systemSession, runtime, scopes, new ResolutionManagementInfo(), project);
+        }
+
+        final ResolutionManagementInfo info = new ResolutionManagementInfo();
+        resolver.updateDependencySetResolutionRequirements(
+                systemSession, runtime, Collections.singleton(Artifact.SCOPE_RUNTIME), info, project);
+        return info.getArtifacts().stream().map(Artifact::getId).collect(Collectors.toSet());
+    }
+
+    private static org.apache.maven.model.Dependency newDependency(String artifactId, String version, String scope) {
+        final org.apache.maven.model.Dependency dependency = new org.apache.maven.model.Dependency();
+        dependency.setGroupId("g.id");
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion(version);
+        dependency.setScope(scope);
+        return dependency;
+    }
+
+    private static DefaultDependencyNode newNode(String coordinates, String scope) {
+        return new DefaultDependencyNode(new Dependency(
+                new org.eclipse.aether.artifact.DefaultArtifact(coordinates).setFile(new File(".")), scope));
+    }
+
     @Test
     void getDependencySetResolutionRequirementsNonTransitive() throws Exception {
         final DependencySet ds = new DependencySet();
@@ -126,7 +340,7 @@ class DefaultDependencyResolverTest {
         project.setDependencyArtifacts(dependencyArtifacts);
 
         final ResolutionManagementInfo info = new ResolutionManagementInfo();
-        resolver.updateDependencySetResolutionRequirements(systemSession, ds, info, project);
+        resolver.updateDependencySetResolutionRequirements(systemSession, ds, Collections.emptySet(), info, project);
         assertEquals(dependencyArtifacts, info.getArtifacts());
     }
 
@@ -145,7 +359,7 @@ class DefaultDependencyResolverTest {
         final ModuleSet ms = new ModuleSet();
         ms.setBinaries(null);
 
-        resolver.updateModuleSetResolutionRequirements(ms, new DependencySet(), info, null);
+        resolver.updateModuleSetResolutionRequirements(ms, new DependencySet(), Collections.emptySet(), info, null);
         assertTrue(info.getArtifacts().isEmpty());
     }
 
@@ -191,7 +405,7 @@ class DefaultDependencyResolverTest {
 
         when(repositorySystem.resolveDependencies(eq(systemSession), any())).thenReturn(dependencyResult);
 
-        resolver.updateModuleSetResolutionRequirements(ms, new DependencySet(), info, cs);
+        resolver.updateModuleSetResolutionRequirements(ms, new DependencySet(), Collections.emptySet(), info, cs);
         assertEquals(module1Artifacts, info.getArtifacts());
 
         // result of easymock migration, should be assert of expected result instead of verifying methodcalls
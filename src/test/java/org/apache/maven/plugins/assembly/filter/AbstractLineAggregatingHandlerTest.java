@@ -18,22 +18,34 @@
  */
 package org.apache.maven.plugins.assembly.filter;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.file.Path;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.Iterator;
 
+import org.apache.commons.io.IOUtils;
+import org.codehaus.plexus.archiver.Archiver;
 import org.codehaus.plexus.archiver.ArchiverException;
-import org.codehaus.plexus.archiver.diags.NoOpArchiver;
 import org.codehaus.plexus.components.io.fileselectors.FileInfo;
+import org.codehaus.plexus.components.io.resources.PlexusIoResource;
+import org.codehaus.plexus.components.io.resources.PlexusIoResourceCollection;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class AbstractLineAggregatingHandlerTest {
 
     @Test
-    void addToArchiveShouldPropagateIOExceptionWhenAggregationWriteFails() {
+    void createResourcesShouldPropagateIOExceptionWhenAggregationCannotBeEncoded() {
         final AbstractLineAggregatingHandler handler = new AbstractLineAggregatingHandler() {
             @Override
             protected String getOutputPathPrefix(final FileInfo fileInfo) {
@@ -46,24 +58,66 @@ class AbstractLineAggregatingHandlerTest {
             }
 
             @Override
-            protected OutputStream newAggregationOutputStream(final Path path) {
-                return new OutputStream() {
-                    @Override
-                    public void write(final int b) throws IOException {
-                        throw new IOException("simulated write failure");
-                    }
-
-                    @Override
-                    public void write(final byte[] b, final int off, final int len) throws IOException {
-                        throw new IOException("simulated write failure");
-                    }
-                };
+            String getEncoding() {
+                return "no-such-encoding";
             }
         };
 
         handler.setCatalog(Collections.singletonMap(
-                "META-INF/services/example.Service", Collections.singletonList("com.example.Service")));
+                "META-INF/services/example.Service", Collections.singleton("com.example.Service")));
 
-        assertThrows(ArchiverException.class, () -> handler.addToArchive(new NoOpArchiver()));
+        assertThrows(ArchiverException.class, handler::createResources);
+    }
+
+    @Test
+    void finalizeArchiveCreationShouldWriteDistinctLinesInFirstSeenOrder() throws IOException {
+        final MetaInfServicesHandler handler = new MetaInfServicesHandler();
+
+        assertFalse(handler.isSelected(serviceFile("b\na\n")));
+        assertFalse(handler.isSelected(serviceFile("c\na\nb\n")));
+
+        final Archiver archiver = mock(Archiver.class);
+        handler.finalizeArchiveCreation(archiver);
+
+        final ArgumentCaptor<PlexusIoResourceCollection> collection =
+                ArgumentCaptor.forClass(PlexusIoResourceCollection.class);
+        verify(archiver).addResources(collection.capture());
+
+        final Iterator<PlexusIoResource> resources = collection.getValue().getResources();
+        final PlexusIoResource resource = resources.next();
+        assertFalse(resources.hasNext());
+        assertEquals("META-INF/services/example.Service", collection.getValue().getName(resource));
+        assertEquals(6, resource.getSize());
+        try (InputStream contents = resource.getContents()) {
+            assertEquals("b\na\nc\n", IOUtils.toString(contents, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void finalizeArchiveCreationShouldAggregateLinesSelectedAfterIt() throws IOException {
+        final MetaInfServicesHandler handler = new MetaInfServicesHandler();
+
+        final Archiver archiver = mock(Archiver.class);
+        handler.finalizeArchiveCreation(archiver);
+
+        final ArgumentCaptor<PlexusIoResourceCollection> collection =
+                ArgumentCaptor.forClass(PlexusIoResourceCollection.class);
+        verify(archiver).addResources(collection.capture());
+
+        assertFalse(handler.isSelected(serviceFile("a\n")));
+
+        final PlexusIoResource resource = collection.getValue().getResources().next();
+        try (InputStream contents = resource.getContents()) {
+            assertEquals("a\n", IOUtils.toString(contents, StandardCharsets.UTF_8));
+        }
+        assertSame(resource, collection.getValue().getResources().next());
+    }
+
+    private static FileInfo serviceFile(final String content) throws IOException {
+        final FileInfo fileInfo = mock(FileInfo.class);
+        when(fileInfo.getName()).thenReturn("META-INF/services/example.Service");
+        when(fileInfo.isFile()).thenReturn(true);
+        when(fileInfo.getContents()).thenReturn(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        return fileInfo;
     }
 }
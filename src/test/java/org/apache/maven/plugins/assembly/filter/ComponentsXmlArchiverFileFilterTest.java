@@ -20,9 +20,11 @@ package org.apache.maven.plugins.assembly.filter;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -30,9 +32,11 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
+import org.apache.commons.io.IOUtils;
 import org.codehaus.plexus.archiver.ArchiveEntry;
 import org.codehaus.plexus.archiver.ArchivedFileSet;
 import org.codehaus.plexus.archiver.Archiver;
@@ -40,11 +44,15 @@ import org.codehaus.plexus.archiver.ArchiverException;
 import org.codehaus.plexus.archiver.FileSet;
 import org.codehaus.plexus.archiver.ResourceIterator;
 import org.codehaus.plexus.archiver.diags.NoOpArchiver;
+import org.codehaus.plexus.archiver.util.DefaultFileSet;
 import org.codehaus.plexus.archiver.zip.ZipArchiver;
+import org.codehaus.plexus.components.io.fileselectors.FileSelector;
 import org.codehaus.plexus.components.io.resources.PlexusIoResource;
 import org.codehaus.plexus.components.io.resources.PlexusIoResourceCollection;
 import org.codehaus.plexus.util.xml.PrettyPrintXMLWriter;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.codehaus.plexus.util.xml.Xpp3DomWriter;
 import org.jdom2.Document;
 import org.jdom2.Text;
 import org.jdom2.filter.Filters;
@@ -82,7 +90,7 @@ class ComponentsXmlArchiverFileFilterTest {
 
         assertFalse(filter.components.isEmpty());
 
-        final Xpp3Dom componentDom = filter.components.get("role");
+        final Xpp3Dom componentDom = getComponent("role");
 
         assertEquals("role", componentDom.getChild("role").getValue());
         assertNull(componentDom.getChild("role-hint"));
@@ -99,7 +107,7 @@ class ComponentsXmlArchiverFileFilterTest {
 
         assertFalse(filter.components.isEmpty());
 
-        final Xpp3Dom componentDom = filter.components.get("rolehint");
+        final Xpp3Dom componentDom = getComponent("rolehint");
 
         assertEquals("role", componentDom.getChild("role").getValue());
         assertEquals("hint", componentDom.getChild("role-hint").getValue());
@@ -120,14 +128,14 @@ class ComponentsXmlArchiverFileFilterTest {
 
         assertFalse(filter.components.isEmpty());
 
-        Xpp3Dom componentDom = filter.components.get("rolehint");
+        Xpp3Dom componentDom = getComponent("rolehint");
 
         assertEquals("role", componentDom.getChild("role").getValue());
         assertEquals("hint", componentDom.getChild("role-hint").getValue());
         assertEquals(
                 "org.apache.maven.Impl", componentDom.getChild("implementation").getValue());
 
-        componentDom = filter.components.get("rolehint2");
+        componentDom = getComponent("rolehint2");
 
         assertEquals("role", componentDom.getChild("role").getValue());
         assertEquals("hint2", componentDom.getChild("role-hint").getValue());
@@ -136,12 +144,46 @@ class ComponentsXmlArchiverFileFilterTest {
                 componentDom.getChild("implementation").getValue());
     }
 
+    @Test
+    void createResourcesShouldWriteComponentsAsXpp3DomWriterWouldMergeThem() throws Exception {
+        final String first = "<?xml version=\"1.0\"?><component-set><!-- first --><components>"
+                + "<component><role>role</role><role-hint/><implementation>impl</implementation>"
+                + "<configuration><param a=\"1 &amp; &quot;\"> t &lt; 1 </param><empty></empty>"
+                + "<nested><value>v</value>\n</nested></configuration></component>"
+                + "</components></component-set>";
+        final String second = "<component-set><components>"
+                + "<component><role>role</role><role-hint/><implementation>other</implementation></component>"
+                + "<component><role>role</role><role-hint>hint</role-hint><implementation>impl</implementation>"
+                + "</component></components></component-set>";
+
+        filter.addComponentsXml(new StringReader(first));
+        filter.addComponentsXml(new StringReader(second));
+
+        final Xpp3Dom expected = new Xpp3Dom("component-set");
+        final Xpp3Dom expectedComponents = new Xpp3Dom("components");
+        expected.addChild(expectedComponents);
+        expectedComponents.addChild(Xpp3DomBuilder.build(new StringReader(first)).getChild("components").getChild(0));
+        expectedComponents.addChild(Xpp3DomBuilder.build(new StringReader(second)).getChild("components").getChild(1));
+        final StringWriter expectedXml = new StringWriter();
+        Xpp3DomWriter.write(expectedXml, expected);
+
+        final List<PlexusIoResource> resources = filter.createResources();
+        assertEquals(1, resources.size());
+        assertEquals(ComponentsXmlArchiverFileFilter.COMPONENTS_XML_PATH, resources.get(0).getName());
+        final byte[] content;
+        try (InputStream in = resources.get(0).getContents()) {
+            content = IOUtils.toByteArray(in);
+        }
+        assertEquals(content.length, resources.get(0).getSize());
+        assertEquals(expectedXml.toString(), new String(content, StandardCharsets.UTF_8));
+    }
+
     @Test
     void addToArchiveShouldWriteComponentWithoutHintToFile() throws Exception {
         final Xpp3Dom dom = createComponentDom(new ComponentDef("role", null, "impl"));
 
         filter.components = new LinkedHashMap<>();
-        filter.components.put("role", dom);
+        filter.components.put("role", toBytes(dom));
 
         final FileCatchingArchiver fca = new FileCatchingArchiver();
 
@@ -151,7 +193,7 @@ class ComponentsXmlArchiverFileFilterTest {
 
         final SAXBuilder builder = new SAXBuilder(XMLReaders.NONVALIDATING);
 
-        final Document doc = builder.build(fca.getFile());
+        final Document doc = builder.build(fca.getContents());
         XPathFactory xPathFactory = XPathFactory.instance();
 
         XPathExpression<Text> role = xPathFactory.compile("//component[position()=1]/role/text()", Filters.text());
@@ -169,7 +211,7 @@ class ComponentsXmlArchiverFileFilterTest {
         final Xpp3Dom dom = createComponentDom(new ComponentDef("role", "hint", "impl"));
 
         filter.components = new LinkedHashMap<>();
-        filter.components.put("rolehint", dom);
+        filter.components.put("rolehint", toBytes(dom));
 
         final FileCatchingArchiver fca = new FileCatchingArchiver();
 
@@ -179,7 +221,7 @@ class ComponentsXmlArchiverFileFilterTest {
 
         final SAXBuilder builder = new SAXBuilder(XMLReaders.NONVALIDATING);
 
-        final Document doc = builder.build(fca.getFile());
+        final Document doc = builder.build(fca.getContents());
         XPathFactory xPathFactory = XPathFactory.instance();
 
         XPathExpression<Text> role = xPathFactory.compile("//component[position()=1]/role/text()", Filters.text());
@@ -198,11 +240,11 @@ class ComponentsXmlArchiverFileFilterTest {
 
         final Xpp3Dom dom = createComponentDom(new ComponentDef("role", "hint", "impl"));
 
-        filter.components.put("rolehint", dom);
+        filter.components.put("rolehint", toBytes(dom));
 
         final Xpp3Dom dom2 = createComponentDom(new ComponentDef("role", "hint2", "impl"));
 
-        filter.components.put("rolehint2", dom2);
+        filter.components.put("rolehint2", toBytes(dom2));
 
         final FileCatchingArchiver fca = new FileCatchingArchiver();
 
@@ -212,7 +254,7 @@ class ComponentsXmlArchiverFileFilterTest {
 
         final SAXBuilder builder = new SAXBuilder(XMLReaders.NONVALIDATING);
 
-        final Document doc = builder.build(fca.getFile());
+        final Document doc = builder.build(fca.getContents());
         XPathFactory xPathFactory = XPathFactory.instance();
 
         XPathExpression<Text> role = xPathFactory.compile("//component[position()=1]/role/text()", Filters.text());
@@ -241,11 +283,11 @@ class ComponentsXmlArchiverFileFilterTest {
 
         final Xpp3Dom dom = createComponentDom(new ComponentDef("role", "hint", "impl"));
 
-        filter.components.put("rolehint", dom);
+        filter.components.put("rolehint", toBytes(dom));
 
         final Xpp3Dom dom2 = createComponentDom(new ComponentDef("role", "hint2", "impl"));
 
-        filter.components.put("rolehint2", dom2);
+        filter.components.put("rolehint2", toBytes(dom2));
 
         final ZipArchiver archiver = new ZipArchiver();
 
@@ -292,6 +334,59 @@ class ComponentsXmlArchiverFileFilterTest {
         assertEquals("impl", implementation2.evaluateFirst(doc).getText());
     }
 
+    @Test
+    void createArchiveShouldSelectEachResourceOnceAndMergeItsComponents() throws Exception {
+        final File sources = new File(temporaryFolder, "sources");
+        final File componentsXml = new File(sources, ComponentsXmlArchiverFileFilter.COMPONENTS_XML_PATH);
+        Files.createDirectories(componentsXml.getParentFile().toPath());
+        try (Reader reader = writeComponentsXml(Collections.singletonList(new ComponentDef("role", "hint", "impl")))) {
+            Files.write(componentsXml.toPath(), IOUtils.toByteArray(reader, StandardCharsets.UTF_8));
+        }
+        Files.write(new File(sources, "other.txt").toPath(), new byte[0]);
+
+        final AtomicInteger selections = new AtomicInteger();
+        final DefaultFileSet fileSet = DefaultFileSet.fileSet(sources);
+        fileSet.setFileSelectors(new FileSelector[] {
+            fileInfo -> {
+                if (fileInfo.isFile()) {
+                    selections.incrementAndGet();
+                }
+                return filter.isSelected(fileInfo);
+            }
+        });
+
+        final ZipArchiver archiver = new ZipArchiver();
+        final File archiveFile = new File(temporaryFolder, "archive.zip");
+        archiver.setDestFile(archiveFile);
+        archiver.setArchiveFinalizers(Collections.singletonList(filter));
+        archiver.addFileSet(fileSet);
+
+        archiver.createArchive();
+
+        assertEquals(2, selections.get());
+
+        final Document doc;
+        try (ZipFile zf = new ZipFile(archiveFile);
+                InputStream in = zf.getInputStream(zf.getEntry(ComponentsXmlArchiverFileFilter.COMPONENTS_XML_PATH))) {
+            assertNotNull(zf.getEntry("other.txt"));
+            doc = new SAXBuilder(XMLReaders.NONVALIDATING).build(in);
+        }
+
+        XPathExpression<Text> hint =
+                XPathFactory.instance().compile("//component[position()=1]/role-hint/text()", Filters.text());
+        assertEquals("hint", hint.evaluateFirst(doc).getText());
+    }
+
+    private Xpp3Dom getComponent(final String key) throws Exception {
+        return Xpp3DomBuilder.build(new StringReader(new String(filter.components.get(key), StandardCharsets.UTF_8)));
+    }
+
+    private static byte[] toBytes(final Xpp3Dom dom) {
+        final StringWriter writer = new StringWriter();
+        Xpp3DomWriter.write(writer, dom);
+        return writer.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
     private Xpp3Dom createComponentDom(final ComponentDef def) {
         final Xpp3Dom dom = new Xpp3Dom("component");
 
@@ -364,7 +459,7 @@ class ComponentsXmlArchiverFileFilterTest {
 
     private static final class FileCatchingArchiver extends NoOpArchiver {
 
-        private File inputFile;
+        private PlexusIoResource resource;
 
         private String destFileName;
 
@@ -388,12 +483,11 @@ class ComponentsXmlArchiverFileFilterTest {
         }
 
         public void addFile(final File inputFile, final String destFileName) throws ArchiverException {
-            this.inputFile = inputFile;
-            this.destFileName = destFileName;
+            throw new UnsupportedOperationException("not supported");
         }
 
-        File getFile() {
-            return inputFile;
+        InputStream getContents() throws IOException {
+            return resource.getContents();
         }
 
         String getDestFileName() {
@@ -500,7 +594,12 @@ class ComponentsXmlArchiverFileFilterTest {
         }
 
         public void addResources(final PlexusIoResourceCollection resources) throws ArchiverException {
-            throw new UnsupportedOperationException("not supported");
+            try {
+                resource = resources.getResources().next();
+            } catch (final IOException e) {
+                throw new ArchiverException(e.getMessage(), e);
+            }
+            destFileName = resources.getName(resource);
         }
 
         public ResourceIterator getResources() throws ArchiverException {
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.filter;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SimpleAggregatingDescriptorHandlerTest {
+
+    @Test
+    void literalPrefixShouldStopAtTheFirstSpecialCharacter() {
+        assertEquals("META-INF/", SimpleAggregatingDescriptorHandler.literalPrefix("META-INF/.*\\.properties"));
+        assertEquals("", SimpleAggregatingDescriptorHandler.literalPrefix(".*/file\\.txt"));
+        assertEquals("conf", SimpleAggregatingDescriptorHandler.literalPrefix("/conf(ig)?/app\\.xml"));
+    }
+
+    @Test
+    void literalPrefixShouldDropCharacterMadeOptionalByQuantifier() {
+        assertEquals("META-INF/spring", SimpleAggregatingDescriptorHandler.literalPrefix("META-INF/springs?\\.xml"));
+        assertEquals("ab", SimpleAggregatingDescriptorHandler.literalPrefix("abc*"));
+        assertEquals("ab", SimpleAggregatingDescriptorHandler.literalPrefix("abc{0,1}"));
+    }
+
+    @Test
+    void literalPrefixShouldBeEmptyForAlternatives() {
+        assertEquals("", SimpleAggregatingDescriptorHandler.literalPrefix("a/b\\.txt|c/d\\.txt"));
+    }
+
+    @Test
+    void getPathPrefixesShouldRouteOnlyPathsMatchingTheConfiguredPattern() {
+        final SimpleAggregatingDescriptorHandler handler = new SimpleAggregatingDescriptorHandler();
+        assertNull(handler.getPathPrefixes());
+
+        handler.setFilePattern(".*\\.txt");
+        assertNull(handler.getPathPrefixes());
+
+        handler.setFilePattern("META-INF/app/.*\\.properties");
+        assertEquals(Collections.singletonList("META-INF/app/"), handler.getPathPrefixes());
+    }
+}
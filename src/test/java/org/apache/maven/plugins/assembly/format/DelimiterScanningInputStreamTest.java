@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.format;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.function.IOFunction;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DelimiterScanningInputStreamTest {
+    private static final byte[][] DEFAULT_DELIMITERS =
+            DelimiterScanningInputStream.beginDelimiters(null, StandardCharsets.UTF_8);
+
+    private final AtomicInteger filtered = new AtomicInteger();
+
+    private final IOFunction<InputStream, InputStream> upperCase = in -> {
+        filtered.incrementAndGet();
+        final String content = new String(IOUtils.toByteArray(in), StandardCharsets.UTF_8);
+        return new ByteArrayInputStream(content.toUpperCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+    };
+
+    @Test
+    void contentWithoutDelimitersIsNotFiltered() throws IOException {
+        final String content = "first line\nsecond line with $ and { but no token\n\nlast line without line feed";
+        for (int bufferSize = 1; bufferSize < 20; bufferSize++) {
+            assertEquals(content, transform(content, bufferSize));
+        }
+        assertEquals(0, filtered.get());
+    }
+
+    @Test
+    void onlyLinesWithDelimitersAreFiltered() throws IOException {
+        final String content = "keep\nfilter ${token}\r\nkeep $\n{ keep\nmail@host\nkeep é\nend ${";
+        for (int bufferSize = 1; bufferSize < 20; bufferSize++) {
+            assertEquals(
+                    "keep\nFILTER ${TOKEN}\r\nkeep $\n{ keep\nMAIL@HOST\nkeep é\nEND ${",
+                    transform(content, bufferSize));
+        }
+        assertEquals(3 * 19, filtered.get());
+    }
+
+    @Test
+    void restIsFilteredAtOnceAfterTooManyLines() throws IOException {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2 * DelimiterScanningInputStream.MAX_FILTERED_LINES; i++) {
+            content.append("line ").append(i).append(" ${token}\nkeep\n");
+        }
+
+        final String result = transform(content.toString(), 8192);
+
+        assertEquals(DelimiterScanningInputStream.MAX_FILTERED_LINES + 1, filtered.get());
+        final String[] lines = result.split("\n");
+        assertEquals("LINE 0 ${TOKEN}", lines[0]);
+        assertEquals("keep", lines[1]);
+        assertEquals("LINE 31 ${TOKEN}", lines[lines.length - 2]);
+        assertEquals("KEEP", lines[lines.length - 1]);
+    }
+
+    @Test
+    void sparseLinesWithDelimitersAreFilteredOneByOne() throws IOException {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 4 * DelimiterScanningInputStream.MAX_FILTERED_LINES; i++) {
+            content.append("line ").append(i).append(" ${token}\n");
+            for (int j = 0; j < DelimiterScanningInputStream.MIN_LINES_PER_FILTERED_LINE; j++) {
+                content.append("keep\n");
+            }
+        }
+
+        final String result = transform(content.toString(), 8192);
+
+        assertEquals(4 * DelimiterScanningInputStream.MAX_FILTERED_LINES, filtered.get());
+        assertEquals(content.toString().replace("line", "LINE").replace("${token}", "${TOKEN}"), result);
+    }
+
+    @Test
+    void singleByteReads() throws IOException {
+        try (InputStream in = new DelimiterScanningInputStream(
+                new ByteArrayInputStream("a\n@b".getBytes(StandardCharsets.UTF_8)), DEFAULT_DELIMITERS, upperCase)) {
+            assertEquals('a', in.read());
+            assertEquals('\n', in.read());
+            assertEquals('@', in.read());
+            assertEquals('B', in.read());
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    void beginDelimiters() {
+        assertArrayEquals(new byte[][] {{'$', '{'}, {'@'}}, DEFAULT_DELIMITERS);
+        assertArrayEquals(
+                new byte[][] {{'#', '{'}, {'$', '{'}, {'%'}},
+                DelimiterScanningInputStream.beginDelimiters(
+                        Arrays.asList("#{*}", null, "%"), StandardCharsets.ISO_8859_1));
+        assertNull(DelimiterScanningInputStream.beginDelimiters(null, StandardCharsets.UTF_16));
+        assertNull(DelimiterScanningInputStream.beginDelimiters(
+                Collections.singletonList("*}"), StandardCharsets.UTF_8));
+    }
+
+    private String transform(final String content, final int bufferSize) throws IOException {
+        try (InputStream in = new DelimiterScanningInputStream(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                DEFAULT_DELIMITERS,
+                upperCase,
+                bufferSize)) {
+            return new String(IOUtils.toByteArray(in), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.io.StringReader;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -43,10 +44,14 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -79,6 +84,18 @@ class ReaderFormatterTest {
         assertEquals("This is a test for project: anArtifact anArtifact.", readResultStream(fud));
     }
 
+    @Test
+    void filteringOnlyChangesLinesWithTokens() throws Exception {
+        final PojoConfigSource cfg = getPojoConfigSource();
+        cfg.setEscapeString("\\");
+        InputStreamTransformer fileSetTransformers =
+                ReaderFormatter.getFileSetTransformers(cfg, true, Collections.emptySet(), "keep");
+        InputStream fud = fileSetTransformers.transform(
+                dummyResource(), payload("plain\r\n\\${artifactId} ${artifactId}\nx@artifactId@\n${unknown}\nend"));
+        assertEquals(
+                "plain\r\n${artifactId} anArtifact\nxanArtifact\n${unknown}\nend", readResultStream(fud));
+    }
+
     @Test
     void nonFilteredFileExtensions() throws Exception {
         final PojoConfigSource cfg = getPojoConfigSource();
@@ -101,7 +118,7 @@ class ReaderFormatterTest {
     @Test
     void additionalProperties() throws Exception {
         final MavenReaderFilter mavenReaderFilter = mock(MavenReaderFilter.class);
-        when(mavenReaderFilter.filter(any())).thenReturn(mock(Reader.class));
+        when(mavenReaderFilter.filter(any(Reader.class), eq(true), any())).thenReturn(mock(Reader.class));
 
         final PojoConfigSource cfg = getPojoConfigSource();
         cfg.setMavenReaderFilter(mavenReaderFilter);
@@ -119,10 +136,36 @@ class ReaderFormatterTest {
 
         ArgumentCaptor<MavenReaderFilterRequest> filteringRequest =
                 ArgumentCaptor.forClass(MavenReaderFilterRequest.class);
-        verify(mavenReaderFilter).filter(filteringRequest.capture());
+        verify(mavenReaderFilter).getDefaultFilterWrappers(filteringRequest.capture());
         assertSame(filteringRequest.getValue().getAdditionalProperties(), additionalProperties);
     }
 
+    @Test
+    void filterWrappersAreCreatedOncePerFileSet() throws Exception {
+        final MavenReaderFilter mavenReaderFilter = mock(MavenReaderFilter.class);
+        when(mavenReaderFilter.filter(any(Reader.class), eq(true), any()))
+                .thenAnswer(invocation -> new StringReader("filtered"));
+
+        final PojoConfigSource cfg = getPojoConfigSource();
+        cfg.setMavenReaderFilter(mavenReaderFilter);
+
+        InputStreamTransformer transformer =
+                ReaderFormatter.getFileSetTransformers(cfg, true, Collections.emptySet(), "keep");
+
+        for (String name : Arrays.asList("a.txt", "b.properties", "c.txt", "d.properties")) {
+            PlexusIoResource resource = mock(PlexusIoResource.class);
+            when(resource.getName()).thenReturn(name);
+            assertEquals("filtered", readResultStream(transformer.transform(resource, payload("${project.version}"))));
+        }
+
+        ArgumentCaptor<MavenReaderFilterRequest> filteringRequest =
+                ArgumentCaptor.forClass(MavenReaderFilterRequest.class);
+        verify(mavenReaderFilter, times(2)).getDefaultFilterWrappers(filteringRequest.capture());
+        assertFalse(filteringRequest.getAllValues().get(0).isEscapeWindowsPaths());
+        assertTrue(filteringRequest.getAllValues().get(1).isEscapeWindowsPaths());
+        verify(mavenReaderFilter, times(4)).filter(any(Reader.class), eq(true), any());
+    }
+
     private MavenProject createBasicMavenProject() {
         final Model model = new Model();
         model.setArtifactId("anArtifact");
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.assembly.interpolation;
+
+import java.util.Properties;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugins.assembly.testutils.PojoConfigSource;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.interpolation.fixed.FixedStringSearchInterpolator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InterpolationContextTest {
+    private final PojoConfigSource configSource = new PojoConfigSource();
+
+    @Test
+    void projectLayersAreBuiltOncePerProjectInstance() {
+        final MavenProject project = createProject();
+        final MavenProject equalProject = createProject();
+        final InterpolationContext context = new InterpolationContext(configSource);
+
+        final FixedStringSearchInterpolator moduleInterpolator = context.getModuleProjectInterpolator(project);
+        final FixedStringSearchInterpolator artifactInterpolator = context.getArtifactProjectInterpolator(project);
+
+        assertSame(moduleInterpolator, context.getModuleProjectInterpolator(project));
+        assertSame(artifactInterpolator, context.getArtifactProjectInterpolator(project));
+        assertNotSame(moduleInterpolator, context.getModuleProjectInterpolator(equalProject));
+        assertEquals("artifact-id", moduleInterpolator.interpolate("${module.artifactId}"));
+        assertEquals("artifact-id", artifactInterpolator.interpolate("${artifact.artifactId}"));
+
+        assertEquals(3, context.getBuilt());
+        assertEquals(2, context.getReused());
+    }
+
+    @Test
+    void executionPropertiesLayerIsBuiltOnce() {
+        final Properties userProperties = new Properties();
+        userProperties.setProperty("key", "value");
+        final MavenSession session = mock(MavenSession.class);
+        when(session.getUserProperties()).thenReturn(userProperties);
+        when(session.getSystemProperties()).thenReturn(new Properties());
+        configSource.setMavenSession(session);
+        final InterpolationContext context = new InterpolationContext(configSource);
+
+        final FixedStringSearchInterpolator interpolator = context.getExecutionPropertiesInterpolator();
+
+        assertSame(interpolator, context.getExecutionPropertiesInterpolator());
+        assertEquals("value", interpolator.interpolate("${key}"));
+        verify(session).getUserProperties();
+    }
+
+    @Test
+    void ofReturnsContextOfConfigSource() {
+        final InterpolationContext context = new InterpolationContext(configSource);
+        configSource.setInterpolationContext(context);
+
+        assertSame(context, InterpolationContext.of(configSource));
+    }
+
+    @Test
+    void ofCreatesContextWhenConfigSourceHasNone() {
+        final InterpolationContext context = InterpolationContext.of(configSource);
+
+        assertNotSame(context, InterpolationContext.of(configSource));
+        assertEquals(0, context.getBuilt());
+    }
+
+    private MavenProject createProject() {
+        final Model model = new Model();
+        model.setGroupId("group.id");
+        model.setArtifactId("artifact-id");
+        model.setVersion("1");
+        return new MavenProject(model);
+    }
+}
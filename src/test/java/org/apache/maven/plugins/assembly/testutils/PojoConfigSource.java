@@ -26,6 +26,7 @@ import org.apache.maven.archiver.MavenArchiveConfiguration;
 import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
+import org.apache.maven.plugins.assembly.interpolation.InterpolationContext;
 import org.apache.maven.plugins.assembly.model.Assembly;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.filtering.MavenReaderFilter;
@@ -116,6 +117,22 @@ public class PojoConfigSource implements AssemblerConfigurationSource {
 
     private String mergeManifestMode;
 
+    private int projectBuildingThreads = 1;
+
+    private int assemblyThreads = 1;
+
+    private int tarCompressionThreads = 1;
+
+    private int resolutionThreads = 1;
+
+    private boolean incremental;
+
+    private boolean reuseUnchangedZipEntries;
+
+    private boolean reuseUnpackedZipEntries;
+
+    private InterpolationContext interpolationContext;
+
     private List<Assembly> inlineDescriptors;
 
     public String getDescriptor() {
@@ -485,4 +502,76 @@ public class PojoConfigSource implements AssemblerConfigurationSource {
     public void setInlineDescriptors(List<Assembly> inlineDescriptors) {
         this.inlineDescriptors = inlineDescriptors;
     }
+
+    @Override
+    public int getProjectBuildingThreads() {
+        return projectBuildingThreads;
+    }
+
+    public void setProjectBuildingThreads(int projectBuildingThreads) {
+        this.projectBuildingThreads = projectBuildingThreads;
+    }
+
+    @Override
+    public int getAssemblyThreads() {
+        return assemblyThreads;
+    }
+
+    public void setAssemblyThreads(int assemblyThreads) {
+        this.assemblyThreads = assemblyThreads;
+    }
+
+    @Override
+    public int getTarCompressionThreads() {
+        return tarCompressionThreads;
+    }
+
+    public void setTarCompressionThreads(int tarCompressionThreads) {
+        this.tarCompressionThreads = tarCompressionThreads;
+    }
+
+    @Override
+    public int getResolutionThreads() {
+        return resolutionThreads;
+    }
+
+    public void setResolutionThreads(int resolutionThreads) {
+        this.resolutionThreads = resolutionThreads;
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    @Override
+    public boolean isReuseUnchangedZipEntries() {
+        return reuseUnchangedZipEntries;
+    }
+
+    public void setReuseUnchangedZipEntries(boolean reuseUnchangedZipEntries) {
+        this.reuseUnchangedZipEntries = reuseUnchangedZipEntries;
+    }
+
+    @Override
+    public boolean isReuseUnpackedZipEntries() {
+        return reuseUnpackedZipEntries;
+    }
+
+    public void setReuseUnpackedZipEntries(boolean reuseUnpackedZipEntries) {
+        this.reuseUnpackedZipEntries = reuseUnpackedZipEntries;
+    }
+
+    @Override
+    public InterpolationContext getInterpolationContext() {
+        return interpolationContext;
+    }
+
+    public void setInterpolationContext(InterpolationContext interpolationContext) {
+        this.interpolationContext = interpolationContext;
+    }
 }
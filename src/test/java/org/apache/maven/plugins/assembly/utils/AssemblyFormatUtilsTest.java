@@ -19,6 +19,7 @@
 package org.apache.maven.plugins.assembly.utils;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.Properties;
 
 import org.apache.maven.artifact.Artifact;
@@ -32,6 +33,7 @@ import org.apache.maven.plugins.assembly.format.AssemblyFormattingException;
 import org.apache.maven.plugins.assembly.model.Assembly;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.interpolation.fixed.FixedStringSearchInterpolator;
+import org.codehaus.plexus.interpolation.fixed.MapBasedValueSource;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -41,7 +43,9 @@ import org.mockito.quality.Strictness;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -445,6 +449,104 @@ class AssemblyFormatUtilsTest {
                 "file.${java.version}", null, null, "file." + System.getProperty("java.version"), null);
     }
 
+    @Test
+    void evalFileNameMappingShouldReadDefaultMappingFromArtifactWithoutSession() {
+        final Artifact artifact = mock(Artifact.class);
+        when(artifact.getArtifactId()).thenReturn("artifact");
+        when(artifact.getVersion()).thenReturn("1.0");
+        when(artifact.getClassifier()).thenReturn("sources");
+        final ArtifactHandler artifactHandler = mock(ArtifactHandler.class);
+        when(artifactHandler.getExtension()).thenReturn("jar");
+        when(artifact.getArtifactHandler()).thenReturn(artifactHandler);
+
+        final AssemblerConfigurationSource cs = mock(AssemblerConfigurationSource.class);
+
+        final String result = AssemblyFormatUtils.evaluateFileNameMapping(
+                "${artifact.artifactId}-${artifact.version}${dashClassifier?}.${artifact.extension}",
+                artifact,
+                null,
+                null,
+                cs,
+                AssemblyFormatUtils.moduleProjectInterpolator(null),
+                AssemblyFormatUtils.artifactProjectInterpolator(null));
+
+        assertEquals("artifact-1.0-sources.jar", result);
+        verify(cs, never()).getMavenSession();
+    }
+
+    @Test
+    void evalFileNameMappingShouldFallBackToHandlerClassifierWhenArtifactHasNone() {
+        final ArtifactHandler artifactHandler = mock(ArtifactHandler.class);
+        when(artifactHandler.getClassifier()).thenReturn("tests");
+
+        verifyEvalFileNameMappingWithInterpolators(
+                "${artifact.artifactId}-${artifact.classifier}",
+                artifactHandler,
+                AssemblyFormatUtils.moduleProjectInterpolator(null),
+                "artifact-tests");
+    }
+
+    @Test
+    void evalFileNameMappingShouldPreferModuleProjectInterpolatorOverArtifact() {
+        final FixedStringSearchInterpolator moduleProjectInterpolator = FixedStringSearchInterpolator.create(
+                new MapBasedValueSource(Collections.singletonMap("artifact.artifactId", "module")));
+
+        verifyEvalFileNameMappingWithInterpolators(
+                "${artifact.artifactId}.${artifact.version}",
+                mock(ArtifactHandler.class),
+                moduleProjectInterpolator,
+                "module.1.0");
+    }
+
+    @Test
+    void evalFileNameMappingShouldInterpolateArtifactValuesHoldingExpressions() {
+        final ArtifactHandler artifactHandler = mock(ArtifactHandler.class);
+        when(artifactHandler.getExtension()).thenReturn("${artifact.version}");
+
+        verifyEvalFileNameMappingWithInterpolators(
+                "${artifact.artifactId}.${artifact.extension}",
+                artifactHandler,
+                AssemblyFormatUtils.moduleProjectInterpolator(null),
+                "artifact.1.0");
+    }
+
+    @Test
+    void evalFileNameMappingShouldKeepUnterminatedExpression() {
+        verifyEvalFileNameMappingWithInterpolators(
+                "${artifact.artifactId}-${artifact.version",
+                mock(ArtifactHandler.class),
+                AssemblyFormatUtils.moduleProjectInterpolator(null),
+                "artifact-${artifact.version");
+    }
+
+    private void verifyEvalFileNameMappingWithInterpolators(
+            final String expression,
+            final ArtifactHandler artifactHandler,
+            final FixedStringSearchInterpolator moduleProjectInterpolator,
+            final String checkValue) {
+        final Artifact artifact = mock(Artifact.class);
+        when(artifact.getGroupId()).thenReturn("group");
+        when(artifact.getArtifactId()).thenReturn("artifact");
+        when(artifact.getVersion()).thenReturn("1.0");
+        when(artifact.getArtifactHandler()).thenReturn(artifactHandler);
+
+        final MavenProject mainProject = createProject("group", "main", "1", null);
+
+        final AssemblerConfigurationSource cs = mock(AssemblerConfigurationSource.class);
+        DefaultAssemblyArchiverTest.setupInterpolators(cs, mainProject);
+
+        final String result = AssemblyFormatUtils.evaluateFileNameMapping(
+                expression,
+                artifact,
+                mainProject,
+                null,
+                cs,
+                moduleProjectInterpolator,
+                AssemblyFormatUtils.artifactProjectInterpolator(null));
+
+        assertEquals(checkValue, result);
+    }
+
     private void verifyEvalFileNameMapping(
             final String expression,
             final String classifier,
@@ -575,8 +677,8 @@ class AssemblyFormatUtilsTest {
 
         assertEquals(checkValue, result);
 
-        // result of easymock migration, should be assert of expected result instead of verifying methodcalls
-        verify(cs).getMavenSession();
+        // the session is only consulted for expressions not read directly from the artifacts
+        verify(cs, atMost(1)).getMavenSession();
     }
 
     private void verifyOutputDir(
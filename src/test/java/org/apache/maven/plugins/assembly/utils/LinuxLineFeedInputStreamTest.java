@@ -19,6 +19,7 @@
 package org.apache.maven.plugins.assembly.utils;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import org.junit.jupiter.api.Test;
@@ -63,6 +64,34 @@ class LinuxLineFeedInputStreamTest {
         assertEquals("a", roundtrip("a", false));
     }
 
+    @Test
+    void readsInChunksAndSingleBytes() throws Exception {
+        for (int chunk = 1; chunk < 8; chunk++) {
+            assertEquals("a\nb\n\nc\n", roundtrip("a\r\nb\r\rc", true, chunk));
+            assertEquals("a\nb\nc\nd\n", roundtrip("a\rb\nc\r\nd", true, chunk));
+        }
+        try (LinuxLineFeedInputStream lf =
+                new LinuxLineFeedInputStream(new ByteArrayInputStream("a\r\n".getBytes()), true)) {
+            final StringBuilder result = new StringBuilder();
+            for (int c = lf.read(); c != -1; c = lf.read()) {
+                result.append((char) c);
+            }
+            assertEquals("a\n", result.toString());
+        }
+    }
+
+    @Test
+    void lineEndingAcrossBuffers() throws Exception {
+        final StringBuilder msg = new StringBuilder();
+        final StringBuilder expected = new StringBuilder();
+        // 5 bytes per line: the \r\n of a line is split between the second and the third buffer
+        for (int i = 0; i < 5000; i++) {
+            msg.append("abc\r\n");
+            expected.append("abc\n");
+        }
+        assertEquals(expected.toString(), roundtrip(msg.toString(), false, 1000));
+    }
+
     private String roundtrip(String msg) throws IOException {
         return roundtrip(msg, true);
     }
@@ -76,4 +105,17 @@ class LinuxLineFeedInputStreamTest {
             return new String(buf, 0, read);
         }
     }
+
+    private String roundtrip(String msg, boolean ensure, int chunk) throws IOException {
+        ByteArrayInputStream baos = new ByteArrayInputStream(msg.getBytes());
+
+        try (LinuxLineFeedInputStream lf = new LinuxLineFeedInputStream(baos, ensure)) {
+            final ByteArrayOutputStream result = new ByteArrayOutputStream();
+            final byte[] buf = new byte[chunk];
+            for (int read = lf.read(buf); read != -1; read = lf.read(buf)) {
+                result.write(buf, 0, read);
+            }
+            return new String(result.toByteArray());
+        }
+    }
 }
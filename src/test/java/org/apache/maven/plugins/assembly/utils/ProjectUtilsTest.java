@@ -20,21 +20,29 @@ package org.apache.maven.plugins.assembly.utils;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Model;
 import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.DefaultSessionData;
+import org.eclipse.aether.RepositorySystemSession;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class ProjectUtilsTest {
     private final Logger logger = LoggerFactory.getLogger(getClass());
@@ -175,6 +183,64 @@ class ProjectUtilsTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void getProjectModulesShouldOrderModulesByTreeLevelThenReactorOrder() throws Exception {
+        final MavenProject master = createTestProject("test", "testGroup", "1.0");
+        master.setFile(new File("project/pom.xml"));
+        master.getModel().addModule("a");
+        master.getModel().addModule("b");
+
+        final MavenProject moduleA = createTestProject("a", "testGroup", "1.0");
+        moduleA.setFile(new File("project/a/pom.xml"));
+        moduleA.getModel().addModule("a1");
+
+        final MavenProject moduleB = createTestProject("b", "testGroup", "1.0");
+        moduleB.setFile(new File("project/b/pom.xml"));
+        moduleB.getModel().addModule("b1/pom.xml");
+
+        final MavenProject moduleA1 = createTestProject("a1", "testGroup", "1.0");
+        moduleA1.setFile(new File("project/a/a1/pom.xml"));
+
+        final MavenProject moduleB1 = createTestProject("b1", "testGroup", "1.0");
+        moduleB1.setFile(new File("project/b/b1/pom.xml"));
+
+        final List<MavenProject> projects = Arrays.asList(master, moduleA1, moduleA, moduleB, moduleB1);
+
+        final Set<MavenProject> result = ProjectUtils.getProjectModules(master, projects, true, logger);
+
+        // a1 is listed before its parent, so a scan of the reactor in order only finds it in a second pass
+        assertEquals(Arrays.asList(moduleA, moduleB, moduleB1, moduleA1), new ArrayList<>(result));
+    }
+
+    @Test
+    void getProjectModulesShouldShareReactorIndexOfSession() throws Exception {
+        final MavenProject master = createTestProject("test", "testGroup", "1.0");
+        master.setFile(new File("project/pom.xml"));
+        master.getModel().addModule("module");
+
+        final MavenProject module = createTestProject("module", "testGroup", "1.0");
+        module.setFile(new File("project/module/pom.xml"));
+
+        final MavenSession session = mock(MavenSession.class);
+        final RepositorySystemSession repositorySession = mock(RepositorySystemSession.class);
+        when(session.getRepositorySession()).thenReturn(repositorySession);
+        when(repositorySession.getData()).thenReturn(new DefaultSessionData());
+
+        final List<MavenProject> projects = Arrays.asList(master, module);
+        final Set<MavenProject> result = ProjectUtils.getProjectModules(session, master, projects, true, logger);
+        result.clear();
+
+        final ReactorModuleIndex index = ReactorModuleIndex.getInstance(session, projects);
+        assertSame(index, ReactorModuleIndex.getInstance(session, new ArrayList<>(projects)));
+        assertEquals(
+                Collections.singletonList(module),
+                new ArrayList<>(ProjectUtils.getProjectModules(session, master, projects, true, logger)));
+
+        final List<MavenProject> otherReactor = Collections.singletonList(master);
+        assertNotSame(index, ReactorModuleIndex.getInstance(session, otherReactor));
+        assertTrue(ProjectUtils.getProjectModules(session, master, otherReactor, true, logger).isEmpty());
+    }
+
     private void verifyProjectsPresent(final List<MavenProject> verify, final Set<MavenProject> result) {
         final List<MavenProject> verifyCopy = new ArrayList<>(verify);
 
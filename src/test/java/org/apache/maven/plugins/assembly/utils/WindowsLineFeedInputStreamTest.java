@@ -19,6 +19,7 @@
 package org.apache.maven.plugins.assembly.utils;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import org.junit.jupiter.api.Test;
@@ -79,6 +80,34 @@ class WindowsLineFeedInputStreamTest {
         assertEquals("a", roundtrip("a", false));
     }
 
+    @Test
+    void readsInChunksAndSingleBytes() throws Exception {
+        for (int chunk = 1; chunk < 8; chunk++) {
+            assertEquals("a\r\nb\r\n\r\nc\r\n", roundtrip("a\r\nb\r\rc", true, chunk));
+            assertEquals("a\r\nb\r\nc\r\nd\r\n", roundtrip("a\rb\nc\r\nd", true, chunk));
+        }
+        try (WindowsLineFeedInputStream lf =
+                new WindowsLineFeedInputStream(new ByteArrayInputStream("a\r\n".getBytes()), true)) {
+            final StringBuilder result = new StringBuilder();
+            for (int c = lf.read(); c != -1; c = lf.read()) {
+                result.append((char) c);
+            }
+            assertEquals("a\r\n", result.toString());
+        }
+    }
+
+    @Test
+    void lineEndingAcrossBuffers() throws Exception {
+        final StringBuilder msg = new StringBuilder();
+        final StringBuilder expected = new StringBuilder();
+        // 5 bytes per line: the \r\n of a line is split between the second and the third buffer
+        for (int i = 0; i < 5000; i++) {
+            msg.append("abc\r\n");
+            expected.append("abc\r\n");
+        }
+        assertEquals(expected.toString(), roundtrip(msg.toString(), false, 1000));
+    }
+
     private String roundtrip(String msg) throws IOException {
         return roundtrip(msg, true);
     }
@@ -92,4 +121,17 @@ class WindowsLineFeedInputStreamTest {
             return new String(buf, 0, read);
         }
     }
+
+    private String roundtrip(String msg, boolean ensure, int chunk) throws IOException {
+        ByteArrayInputStream baos = new ByteArrayInputStream(msg.getBytes());
+
+        try (WindowsLineFeedInputStream lf = new WindowsLineFeedInputStream(baos, ensure)) {
+            final ByteArrayOutputStream result = new ByteArrayOutputStream();
+            final byte[] buf = new byte[chunk];
+            for (int read = lf.read(buf); read != -1; read = lf.read(buf)) {
+                result.write(buf, 0, read);
+            }
+            return new String(result.toByteArray());
+        }
+    }
 }